@@ -0,0 +1,121 @@
+package de.andreassiegel.tessa.plugin;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.generator.AggregateIndex;
+import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
+import java.nio.file.Paths;
+import java.util.List;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Mojo for the plugin goal to generate the index of the test documentation of all modules of a
+ * multi-module build.
+ *
+ * <p>The modules contribute their documents to the aggregate index when they generate their test
+ * documentation with {@code index.aggregate} enabled (see {@link GenerateTestDocsMojo}). Since the
+ * goal is an aggregator, Maven executes it only once, after the preceding phases and goals of the
+ * command line were executed for all modules, even in parallel builds.
+ */
+@Mojo(name = "aggregate-test-docs", aggregator = true, threadSafe = true)
+public class AggregateTestDocsMojo extends AbstractMojo {
+
+  /** The projects of the current build, which determine the order of the modules in the index. */
+  @Parameter(defaultValue = "${reactorProjects}", readonly = true)
+  private List<MavenProject> reactorProjects;
+
+  /** The index configuration, of which the name and the title apply to the aggregate index. */
+  @Parameter(property = "index")
+  private Index index = new Index();
+
+  /** The target directory for the index of all modules. */
+  @Parameter(
+      property = "aggregateOutputDirectory",
+      defaultValue = "${session.executionRootDirectory}/target/test-documentation")
+  private String aggregateOutputDirectory;
+
+  /** The directory that stores the index items every module contributes to the aggregate index. */
+  @Parameter(
+      defaultValue = "${session.executionRootDirectory}/target/tessa/aggregate",
+      readonly = true)
+  private String aggregateWorkDirectory;
+
+  /**
+   * The directory of custom Freemarker templates, of which {@code index.ftlh} is used for the
+   * aggregate index.
+   */
+  @Parameter(property = "templateDirectory")
+  private String templateDirectory;
+
+  /** Default constructor used by Maven when the plugin goal is executed. */
+  public AggregateTestDocsMojo() {
+    // nothing specific here
+  }
+
+  /**
+   * Constructor used in tests.
+   *
+   * @param reactorProjects the projects of the build
+   * @param aggregateOutputDirectory the aggregate output directory parameter
+   * @param aggregateWorkDirectory the directory of the module contributions
+   */
+  AggregateTestDocsMojo(
+      List<MavenProject> reactorProjects,
+      String aggregateOutputDirectory,
+      String aggregateWorkDirectory) {
+    this.reactorProjects = reactorProjects;
+    this.aggregateOutputDirectory = aggregateOutputDirectory;
+    this.aggregateWorkDirectory = aggregateWorkDirectory;
+  }
+
+  /**
+   * Generates the aggregate index from the index items the modules contributed.
+   *
+   * <p>The items are ordered by the modules of the build. Contributions of modules that are not
+   * part of the build, e.g., because only some modules were selected, follow if their documents
+   * still exist (see {@link AggregateIndex#collect(List, java.nio.file.Path)}).
+   *
+   * @throws MojoExecutionException if the aggregate index could not be generated
+   */
+  @Override
+  public void execute() throws MojoExecutionException {
+    try {
+      var moduleIds =
+          reactorProjects == null
+              ? List.<String>of()
+              : reactorProjects.stream().map(GenerateTestDocsMojo::moduleId).toList();
+      var items =
+          new AggregateIndex(Paths.get(aggregateWorkDirectory))
+              .collect(moduleIds, Paths.get(aggregateOutputDirectory));
+      if (items.isEmpty()) {
+        getLog().info("No documents were contributed to the aggregate index");
+        return;
+      }
+
+      getLog().info("Generating aggregate index of " + items.size() + " documents");
+      new AsciiDocGenerator(aggregateOutputDirectory, null, templateDirectory)
+          .generateAggregateIndex(index, items);
+    } catch (Exception e) {
+      getLog().error("Generating the aggregate index failed", e);
+      throw new MojoExecutionException("Generating the aggregate index failed", e);
+    }
+  }
+}
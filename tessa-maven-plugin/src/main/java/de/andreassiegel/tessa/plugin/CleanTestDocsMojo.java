@@ -16,12 +16,11 @@ package de.andreassiegel.tessa.plugin;
  * limitations under the License.
  */
 
-import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -30,7 +29,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 /** Mojo for the plugin goal to clean the test documentation output directory. */
-@Mojo(name = "clean-test-docs", defaultPhase = LifecyclePhase.CLEAN)
+@Mojo(name = "clean-test-docs", defaultPhase = LifecyclePhase.CLEAN, threadSafe = true)
 public class CleanTestDocsMojo extends AbstractMojo {
 
   /** The target directory for generated documentation. */
@@ -40,43 +39,90 @@ public class CleanTestDocsMojo extends AbstractMojo {
   private String outputDirectory;
 
   /**
-   * Deletes all files in the output directory as well as the output directory itself.
+   * The number of threads that delete files and directories. A value less than {@code 1} uses one
+   * thread per available processor.
+   *
+   * <p>The parameter is separate from the {@code parallelism} of the generation, which processes
+   * files sequentially by default, so that configuring one does not change the other.
+   */
+  @Parameter(property = "cleanParallelism", defaultValue = "0")
+  private int cleanParallelism;
+
+  /**
+   * Defines whether every deleted file is logged. Otherwise, only a summary of the deletion is
+   * logged.
+   */
+  @Parameter(property = "verbose", defaultValue = "false")
+  private boolean verbose;
+
+  /** Default constructor used by Maven when the plugin goal is executed. */
+  public CleanTestDocsMojo() {
+    // nothing specific here
+  }
+
+  /**
+   * Constructor used in tests.
+   *
+   * @param outputDirectory the output directory parameter
+   * @param cleanParallelism the clean parallelism parameter
+   */
+  CleanTestDocsMojo(String outputDirectory, int cleanParallelism) {
+    this.outputDirectory = outputDirectory;
+    this.cleanParallelism = cleanParallelism;
+  }
+
+  /**
+   * Deletes all files and directories in the output directory as well as the output directory
+   * itself.
+   *
+   * <p>The directory tree is deleted bottom-up, and subtrees are deleted in parallel (see {@link
+   * DirectoryDeletion}). Deleted files are only logged if {@link #verbose} is enabled, otherwise
+   * the numbers of deleted files and directories are logged once.
    *
    * @throws MojoExecutionException if the directory could not be deleted
    */
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     var path = Paths.get(outputDirectory);
+    if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      getLog().info("Output directory " + outputDirectory + " does not exist");
+      return;
+    }
 
-    // Delete all the files in the output directory
-    try (Stream<Path> pathStream = Files.walk(path)) {
-      pathStream.filter(Predicate.not(Files::isDirectory)).forEach(this::deleteFileIfExists);
-
-      // Delete the output directory itself
-      Files.deleteIfExists(path);
+    var start = System.nanoTime();
+    var deletion = new DirectoryDeletion(workerCount(), this::logDeletedFile);
+    try {
+      deletion.delete(path);
     } catch (Exception e) {
       getLog().error("Could not delete output directory because of an error", e);
       throw new MojoExecutionException("Could not delete output directory because of an error", e);
     }
 
-    getLog().info("Output directory " + outputDirectory + " was deleted");
+    getLog()
+        .info(
+            "Output directory "
+                + outputDirectory
+                + " was deleted: "
+                + deletion.getDeletedFileCount()
+                + " files and "
+                + deletion.getDeletedDirectoryCount()
+                + " directories in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms");
   }
 
   /**
-   * Deletes the file at the provided path.
+   * Returns the number of threads that delete files and directories.
    *
-   * @param file the file path
-   * @throws RuntimeException if the file could not be deleted
+   * @return the number of threads
    */
-  void deleteFileIfExists(Path file) {
-    var fileName = file.toString();
-    try {
-      if (Files.deleteIfExists(file)) {
-        getLog().info("Deleted file " + fileName);
-      }
-    } catch (IOException e) {
-      getLog().error("Could not delete file " + fileName + " because of an error", e);
-      throw new RuntimeException("Could not delete file " + fileName + " because of an error", e);
+  int workerCount() {
+    return cleanParallelism < 1 ? Runtime.getRuntime().availableProcessors() : cleanParallelism;
+  }
+
+  private void logDeletedFile(Path file) {
+    if (verbose) {
+      getLog().info("Deleted file " + file);
     }
   }
 }
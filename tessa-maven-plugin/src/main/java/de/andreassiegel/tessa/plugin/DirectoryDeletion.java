@@ -0,0 +1,181 @@
+package de.andreassiegel.tessa.plugin;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Deletes a directory tree bottom-up, i.e., the content of every directory is deleted before the
+ * directory itself, like a post-order {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)
+ * file tree walk}.
+ *
+ * <p>Every directory is deleted by a task of its own in a {@link ForkJoinPool}, so that subtrees
+ * are deleted in parallel. The files of large directories are deleted in batches by several tasks
+ * as well. Symbolic links are deleted, but never followed.
+ */
+class DirectoryDeletion {
+
+  /** The maximum number of files that a single task deletes. */
+  private static final int FILE_BATCH_SIZE = 256;
+
+  private final int parallelism;
+  private final Consumer<Path> deletedFileListener;
+
+  private final LongAdder deletedFileCount = new LongAdder();
+  private final LongAdder deletedDirectoryCount = new LongAdder();
+
+  /**
+   * Creates the deletion.
+   *
+   * @param parallelism the number of threads that delete files and directories
+   * @param deletedFileListener the listener that is notified about every deleted file, e.g., for
+   *     logging; it may be called from several threads at the same time
+   */
+  DirectoryDeletion(int parallelism, Consumer<Path> deletedFileListener) {
+    this.parallelism = parallelism;
+    this.deletedFileListener = deletedFileListener;
+  }
+
+  /**
+   * Deletes a directory and everything in it. If the path is not a directory, only the path itself
+   * is deleted.
+   *
+   * @param directory the directory
+   * @throws IOException if a file or directory could not be deleted
+   */
+  void delete(Path directory) throws IOException {
+    if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+      deleteFile(directory);
+      return;
+    }
+
+    var pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new DeleteDirectory(directory));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Returns the number of files that were deleted, including symbolic links.
+   *
+   * @return the number of deleted files
+   */
+  long getDeletedFileCount() {
+    return deletedFileCount.sum();
+  }
+
+  /**
+   * Returns the number of directories that were deleted.
+   *
+   * @return the number of deleted directories
+   */
+  long getDeletedDirectoryCount() {
+    return deletedDirectoryCount.sum();
+  }
+
+  private void deleteFile(Path file) throws IOException {
+    if (Files.deleteIfExists(file)) {
+      deletedFileCount.increment();
+      deletedFileListener.accept(file);
+    }
+  }
+
+  /** The task that deletes a directory after its files and subdirectories. */
+  private class DeleteDirectory extends RecursiveAction {
+
+    private final Path directory;
+
+    private DeleteDirectory(Path directory) {
+      this.directory = directory;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        List<Path> files = new ArrayList<>();
+        List<RecursiveAction> tasks = new ArrayList<>();
+        Files.walkFileTree(
+            directory,
+            EnumSet.noneOf(FileVisitOption.class),
+            1,
+            new SimpleFileVisitor<>() {
+              @Override
+              public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isDirectory()) {
+                  tasks.add(new DeleteDirectory(file));
+                } else {
+                  files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+              }
+            });
+
+        for (int from = 0; from < files.size(); from += FILE_BATCH_SIZE) {
+          tasks.add(
+              new DeleteFiles(files.subList(from, Math.min(from + FILE_BATCH_SIZE, files.size()))));
+        }
+        invokeAll(tasks);
+
+        if (Files.deleteIfExists(directory)) {
+          deletedDirectoryCount.increment();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** The task that deletes a batch of files of a directory. */
+  private class DeleteFiles extends RecursiveAction {
+
+    private final List<Path> files;
+
+    private DeleteFiles(List<Path> files) {
+      this.files = files;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        for (var file : files) {
+          deleteFile(file);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
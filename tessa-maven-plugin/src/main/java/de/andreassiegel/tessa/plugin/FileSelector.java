@@ -0,0 +1,176 @@
+package de.andreassiegel.tessa.plugin;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the test files in the input directories.
+ *
+ * <p>A file is selected if it is a Java source file, its filename matches the filename regular
+ * expression, its path relative to the input directory matches any of the include patterns (or no
+ * include patterns are configured), and it does not match any of the exclude patterns. Include and
+ * exclude patterns use the glob syntax of {@link PathMatcher}, where a leading <code>**&#47;</code>
+ * also matches files directly in the input directory.
+ *
+ * <p>All patterns are compiled once. Directories that are excluded as a whole, i.e., by an exclude
+ * pattern ending with <code>&#47;**</code>, are not traversed at all.
+ */
+class FileSelector {
+
+  private static final String ANY_DIRECTORY_PREFIX = "**/";
+  private static final String ANY_CONTENT_SUFFIX = "/**";
+
+  private final Pattern filenamePattern;
+  private final List<PathMatcher> includes;
+  private final List<PathMatcher> excludes;
+  private final List<PathMatcher> excludedDirectories;
+
+  /**
+   * Instantiates the file selector.
+   *
+   * @param filenameRegex the regular expression filenames have to match
+   * @param includes the include patterns, may be {@code null}
+   * @param excludes the exclude patterns, may be {@code null}
+   */
+  FileSelector(String filenameRegex, List<String> includes, List<String> excludes) {
+    this.filenamePattern = Pattern.compile(filenameRegex);
+    this.includes = compile(includes);
+    this.excludes = compile(excludes);
+    this.excludedDirectories =
+        compile(
+            excludes == null
+                ? List.of()
+                : excludes.stream()
+                    .filter(e -> e.endsWith(ANY_CONTENT_SUFFIX))
+                    .map(e -> e.substring(0, e.length() - ANY_CONTENT_SUFFIX.length()))
+                    .toList());
+  }
+
+  /**
+   * Selects the test files in a directory and its subdirectories.
+   *
+   * @param directory the directory
+   * @return the selected files, in the order they were found
+   * @throws IOException if the directory cannot be read
+   */
+  List<Path> select(Path directory) throws IOException {
+    List<Path> files = new ArrayList<>();
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            return isExcludedDirectory(directory.relativize(dir))
+                ? FileVisitResult.SKIP_SUBTREE
+                : FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (isSelected(directory.relativize(file))) {
+              files.add(file);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return files;
+  }
+
+  /**
+   * Removes duplicate directories, i.e., directories that resolve to the same real path as another
+   * directory, e.g., through symbolic links, or that are located inside another directory. Their
+   * files are selected when the other directory is processed.
+   *
+   * @param directories the directories
+   * @return the remaining directories, in the given order
+   */
+  static List<Path> distinctDirectories(List<Path> directories) {
+    Map<Path, Path> realPaths = new LinkedHashMap<>();
+    for (var directory : directories) {
+      realPaths.putIfAbsent(realPath(directory), directory);
+    }
+
+    return realPaths.entrySet().stream()
+        .filter(
+            e ->
+                realPaths.keySet().stream()
+                    .noneMatch(other -> !other.equals(e.getKey()) && e.getKey().startsWith(other)))
+        .map(Map.Entry::getValue)
+        .toList();
+  }
+
+  private boolean isExcludedDirectory(Path relativeDirectory) {
+    return !relativeDirectory.toString().isEmpty()
+        && matchesAny(excludedDirectories, relativeDirectory);
+  }
+
+  private boolean isSelected(Path relativeFile) {
+    var filename = relativeFile.getFileName().toString();
+    return filename.endsWith(".java")
+        && filenamePattern.matcher(filename).matches()
+        && (includes.isEmpty() || matchesAny(includes, relativeFile))
+        && !matchesAny(excludes, relativeFile);
+  }
+
+  private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+    for (var matcher : matchers) {
+      if (matcher.matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<PathMatcher> compile(List<String> patterns) {
+    if (patterns == null) {
+      return List.of();
+    }
+
+    var fileSystem = FileSystems.getDefault();
+    List<PathMatcher> matchers = new ArrayList<>();
+    for (var pattern : patterns) {
+      matchers.add(fileSystem.getPathMatcher("glob:" + pattern));
+      if (pattern.startsWith(ANY_DIRECTORY_PREFIX)) {
+        matchers.add(
+            fileSystem.getPathMatcher("glob:" + pattern.substring(ANY_DIRECTORY_PREFIX.length())));
+      }
+    }
+    return matchers;
+  }
+
+  private static Path realPath(Path directory) {
+    try {
+      return directory.toRealPath();
+    } catch (IOException e) {
+      // directories that cannot be resolved are kept, reading them fails later on
+      return directory.toAbsolutePath().normalize();
+    }
+  }
+}
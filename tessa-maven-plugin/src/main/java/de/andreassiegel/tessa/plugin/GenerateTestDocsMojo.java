@@ -16,15 +16,29 @@ package de.andreassiegel.tessa.plugin;
  * limitations under the License.
  */
 
+import de.andreassiegel.tessa.plugin.generator.AggregateIndex;
 import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
-import de.andreassiegel.tessa.plugin.parser.ParsedTestFile;
+import de.andreassiegel.tessa.plugin.incremental.BuildManifest;
+import de.andreassiegel.tessa.plugin.incremental.FileState;
+import de.andreassiegel.tessa.plugin.incremental.ModelCache;
+import de.andreassiegel.tessa.plugin.incremental.ModelHash;
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import de.andreassiegel.tessa.plugin.parser.ExtractionEngine;
+import de.andreassiegel.tessa.plugin.parser.ParserProfile;
+import de.andreassiegel.tessa.plugin.parser.TestFilePrefilter;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -35,9 +49,15 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
 /** Mojo for the plugin goal to generate test documentation. */
-@Mojo(name = "generate-test-docs", defaultPhase = LifecyclePhase.SITE)
+@Mojo(name = "generate-test-docs", defaultPhase = LifecyclePhase.SITE, threadSafe = true)
 public class GenerateTestDocsMojo extends AbstractMojo {
 
+  /**
+   * The maximum number of generated documents that are held in memory until the writer thread has
+   * written them to disk.
+   */
+  private static final int OUTPUT_BUFFER_COUNT = 64;
+
   /** The Maven project. */
   @Parameter(defaultValue = "${project}", readonly = true)
   private MavenProject project;
@@ -59,10 +79,31 @@ public class GenerateTestDocsMojo extends AbstractMojo {
   @Parameter(property = "filenameRegex", defaultValue = "\\w+(IT|Test)\\.java$")
   private String filenameRegex;
 
+  /**
+   * Glob patterns of the files to include, relative to the input directories, e.g., <code>
+   * **&#47;integration&#47;**</code>. If no patterns are configured, all files are included.
+   */
+  @Parameter(property = "includes")
+  private List<String> includes;
+
+  /**
+   * Glob patterns of the files to exclude, relative to the input directories. Directories matched
+   * by patterns ending with <code>&#47;**</code>, e.g., <code>**&#47;generated&#47;**</code>, are
+   * not traversed at all.
+   */
+  @Parameter(property = "excludes")
+  private List<String> excludes;
+
   /** The index configuration. */
   @Parameter(property = "index")
   private Index index = new Index();
 
+  /** The directory that stores the index items every module contributes to an aggregate index. */
+  @Parameter(
+      defaultValue = "${session.executionRootDirectory}/target/tessa/aggregate",
+      readonly = true)
+  private String aggregateWorkDirectory;
+
   /**
    * The base URL of the source files in the repository. If this parameter is set, the generated
    * documentation will include links to the source files it was generated from.
@@ -70,6 +111,119 @@ public class GenerateTestDocsMojo extends AbstractMojo {
   @Parameter(property = "linkBaseUrl", defaultValue = "")
   private String linkBaseUrl;
 
+  /**
+   * The directory of custom Freemarker templates for the generated documents, i.e., {@code
+   * test.ftlh} for the documents of test classes and {@code index.ftlh} for the index.
+   *
+   * <p>Templates that do not exist in the directory are taken from the plugin. If this parameter is
+   * not set, the built-in documents are written without a template engine.
+   */
+  @Parameter(property = "templateDirectory")
+  private String templateDirectory;
+
+  /**
+   * The number of worker threads that parse test files and generate their documents.
+   *
+   * <p>With the default value {@code 1}, all files are processed sequentially on the Maven thread.
+   * A value less than {@code 1} uses one worker per available processor. The generated documents
+   * and the index are the same regardless of this setting.
+   */
+  @Parameter(property = "parallelism", defaultValue = "1")
+  private int parallelism = 1;
+
+  /**
+   * The profile of the parser configuration that is used to parse test files.
+   *
+   * <p>{@code LEAN} skips parser work that is not needed for test documentation. {@code POSITIONAL}
+   * also replaces the parser's comment attribution with a positional attribution of only the
+   * comments that are needed. {@code SKELETON} also skips the bodies of all methods that are not
+   * test methods. Files that cannot be parsed with these profiles are parsed again with the {@code
+   * DEFAULT} profile.
+   */
+  @Parameter(property = "parserProfile", defaultValue = "DEFAULT")
+  private ParserProfile parserProfile = ParserProfile.DEFAULT;
+
+  /**
+   * The engine that is used to extract the test documentation from test files.
+   *
+   * <p>{@code AST} parses every file into a syntax tree, using the {@link #parserProfile}. {@code
+   * LEXER} only tokenizes files and recognizes classes, methods and statements from the tokens,
+   * which is considerably faster. It extracts the same documentation, but does not check the syntax
+   * of the code it skips. Files whose structure it cannot recognize are parsed with the {@code AST}
+   * engine instead.
+   */
+  @Parameter(property = "extractionEngine", defaultValue = "AST")
+  private ExtractionEngine extractionEngine = ExtractionEngine.AST;
+
+  /**
+   * Defines whether files are checked for test annotations before they are parsed.
+   *
+   * <p>The check scans the raw content of a file for the names of test annotations. Files that do
+   * not contain any, e.g., abstract base classes or test fixtures, are not parsed at all.
+   */
+  @Parameter(property = "prefilter", defaultValue = "false")
+  private boolean prefilter;
+
+  /**
+   * Defines whether only test files that changed since the previous build are processed.
+   *
+   * <p>The state of every processed file is recorded in a manifest in the {@link #workDirectory} of
+   * the execution, and the data models of its test sets in a model cache. Files whose size,
+   * modification time or content did not change, and whose documents still exist, are neither
+   * parsed nor rendered again; their index items are derived from the cached models.
+   */
+  @Parameter(property = "incremental", defaultValue = "false")
+  private boolean incremental;
+
+  /**
+   * Defines whether documents that were generated by the previous build, but not by the current
+   * one, are deleted from the output directory, e.g., the documents of deleted or renamed test
+   * classes.
+   *
+   * <p>Generated documents are listed in the checksum manifest of the output directory. Only the
+   * documents listed in the manifest of the previous build are deleted, and only if they were not
+   * modified since. Since executions that share an output directory would delete each other's
+   * documents, pruning has to be enabled explicitly.
+   */
+  @Parameter(property = "pruneStaleDocuments", defaultValue = "false")
+  private boolean pruneStaleDocuments;
+
+  /**
+   * The directory for files that are kept between builds, e.g., the incremental build manifest and
+   * the model cache.
+   */
+  @Parameter(property = "workDirectory", defaultValue = "${project.build.directory}/tessa")
+  private String workDirectory;
+
+  /**
+   * The ID of the execution, which separates the incremental build state of several executions in
+   * the same {@link #workDirectory}.
+   */
+  @Parameter(defaultValue = "${mojoExecution.executionId}", readonly = true)
+  private String executionId;
+
+  /** The version of the plugin, which invalidates incremental build state on upgrades. */
+  @Parameter(defaultValue = "${plugin.version}", readonly = true)
+  private String pluginVersion;
+
+  /** The manifest of the incremental build, or {@code null} if incremental builds are disabled. */
+  private BuildManifest manifest;
+
+  /** The cache of test set data models, or {@code null} if incremental builds are disabled. */
+  private ModelCache modelCache;
+
+  /** The number of files skipped because they did not change since the previous build. */
+  private final AtomicInteger unchangedFileCount = new AtomicInteger();
+
+  /** The number of changed files whose data model did not change since the previous build. */
+  private final AtomicInteger unchangedModelCount = new AtomicInteger();
+
+  /** The number of files that were parsed. */
+  private final AtomicInteger parsedFileCount = new AtomicInteger();
+
+  /** The number of files skipped because they do not contain test annotations. */
+  private final AtomicInteger prefilteredFileCount = new AtomicInteger();
+
   /** Default constructor used by Maven when the plugin goal is executed. */
   public GenerateTestDocsMojo() {
     // nothing specific here
@@ -82,25 +236,86 @@ public class GenerateTestDocsMojo extends AbstractMojo {
    * @param inputDirectories the input directories parameter
    */
   GenerateTestDocsMojo(MavenProject project, List<String> inputDirectories) {
+    this(project, inputDirectories, 1);
+  }
+
+  /**
+   * Constructor used in tests.
+   *
+   * @param project the Maven project
+   * @param inputDirectories the input directories parameter
+   * @param parallelism the parallelism parameter
+   */
+  GenerateTestDocsMojo(MavenProject project, List<String> inputDirectories, int parallelism) {
     this.project = project;
     this.inputDirectories = inputDirectories;
+    this.parallelism = parallelism;
   }
 
   /**
    * Generates the test documentation.
    *
    * <p>Files in the input directories are parsed and then test documentation files get generated
-   * for the test files.
+   * for the test files. Once all input directories are processed, the index is generated.
+   *
+   * <p>The documents are written to disk by a dedicated writer thread, so that file system latency
+   * does not hold up parsing and rendering. The method only returns once all documents are written.
+   * Documents whose content did not change are not written again, and the checksums of all
+   * documents are written to a manifest in the output directory. If enabled (see {@link
+   * #pruneStaleDocuments}), documents that were generated by the previous build, but not by this
+   * one, are deleted.
    *
    * @throws MojoExecutionException if generating the test documentation failed
    */
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
-    var generator = new AsciiDocGenerator(outputDirectory, index);
-    Consumer<Path> generateDocs = p -> this.generateDocs(generator, p);
+    var generator = new AsciiDocGenerator(outputDirectory, index, templateDirectory);
+    var fileSelector = new FileSelector(filenameRegex, includes, excludes);
+    Consumer<Path> generateDocs = p -> this.generateDocs(generator, fileSelector, p);
 
-    try {
-      directoryStream().map(Paths::get).forEach(generateDocs);
+    // Closing the generator waits until all documents are written
+    try (generator) {
+      generator.writeAsynchronously(OUTPUT_BUFFER_COUNT);
+      if (incremental) {
+        var fingerprint = configurationFingerprint();
+        manifest = BuildManifest.load(manifestFile(), fingerprint);
+        modelCache = ModelCache.load(modelCacheFile(), fingerprint);
+      }
+
+      inputDirectories().forEach(generateDocs);
+      generateIndex(generator);
+      if (pruneStaleDocuments) {
+        getLog().info("Deleted " + generator.deleteStaleDocuments() + " stale documents");
+      }
+      generator.writeChecksumManifest();
+      getLog()
+          .info(
+              "Wrote "
+                  + generator.getWrittenDocumentCount()
+                  + " changed documents, "
+                  + generator.getUnchangedDocumentCount()
+                  + " documents did not change");
+
+      if (prefilter) {
+        getLog()
+            .info(
+                "Parsed "
+                    + parsedFileCount.get()
+                    + " test files, skipped "
+                    + prefilteredFileCount.get()
+                    + " files without test annotations");
+      }
+
+      if (manifest != null) {
+        getLog().info("Skipped " + unchangedFileCount.get() + " unchanged test files");
+        getLog()
+            .info(
+                "Skipped rendering "
+                    + unchangedModelCount.get()
+                    + " changed test files whose documentation did not change");
+        manifest.save();
+        modelCache.save();
+      }
     } catch (Exception e) {
       getLog().error("Generating test documentation failed", e);
       throw new MojoExecutionException("Generating test documentation failed", e);
@@ -123,45 +338,342 @@ public class GenerateTestDocsMojo extends AbstractMojo {
     return inputDirectories.stream();
   }
 
+  /**
+   * Returns the input directories without duplicates, i.e., without directories that are the same
+   * as or located inside another input directory (see {@link
+   * FileSelector#distinctDirectories(List)}).
+   *
+   * @return the input directories
+   */
+  List<Path> inputDirectories() {
+    var directories = directoryStream().map(Paths::get).toList();
+    var distinctDirectories = FileSelector.distinctDirectories(directories);
+    directories.stream()
+        .filter(d -> !distinctDirectories.contains(d))
+        .forEach(d -> getLog().info("Skipping directory " + d + ", it is already read"));
+    return distinctDirectories;
+  }
+
   /**
    * Generates documentation for files found in the provided path.
    *
+   * <p>Depending on the configured {@link #parallelism}, the test files are processed by a pool of
+   * worker threads. The generated documents are added to the index in the order the files were
+   * found, so the index does not depend on the order in which the workers finish.
+   *
    * @param docGenerator the document generator
+   * @param fileSelector the selector for test files
    * @param path the input path to scan for test files
    */
-  void generateDocs(AsciiDocGenerator docGenerator, Path path) {
+  void generateDocs(AsciiDocGenerator docGenerator, FileSelector fileSelector, Path path) {
     getLog().info("Reading directory " + path.toAbsolutePath());
-    try (Stream<Path> pathStream = Files.walk(path)) {
-      pathStream
-          .filter(p -> p.toString().endsWith(".java"))
-          .filter(p -> p.getFileName().toString().matches(filenameRegex))
-          .map(this::parseTestClass)
-          .filter(ParsedTestFile::containsTests)
-          .map(ParsedTestFile::toDocumentDataModel)
-          .flatMap(Collection::stream)
-          .map(t -> t.injectLinkBaseUrl(linkBaseUrl))
-          .forEach(docGenerator::generate);
-
-      docGenerator.generateIndex();
+    List<Path> testFiles;
+    try {
+      testFiles = fileSelector.select(path);
     } catch (IOException e) {
       getLog().error("Unable to read files in directory " + path, e);
       throw new RuntimeException("Unable to read files in directory" + path, e);
     }
+
+    processTestFiles(docGenerator, testFiles).forEach(docGenerator::addToIndex);
+  }
+
+  /**
+   * Generates the index document for the documents of all input directories.
+   *
+   * <p>If an aggregate index is configured, the index items of this project are stored for the
+   * aggregate index instead. The aggregate index of all projects is generated by the {@link
+   * AggregateTestDocsMojo} once all projects are built.
+   *
+   * @param docGenerator the document generator
+   * @throws IOException if the index items for the aggregate index cannot be stored
+   */
+  void generateIndex(AsciiDocGenerator docGenerator) throws IOException {
+    if (!index.getGenerateIndex()) {
+      return;
+    }
+
+    if (!index.getAggregate()) {
+      docGenerator.generateIndex();
+      return;
+    }
+
+    var aggregateIndex = new AggregateIndex(Paths.get(aggregateWorkDirectory));
+    aggregateIndex.contribute(
+        moduleId(project), docGenerator.getDocumentDirectory(), docGenerator.getIndexItems());
+  }
+
+  /**
+   * Returns the identifier of a project in the aggregate index.
+   *
+   * @param project the project
+   * @return the identifier, i.e., {@code groupId:artifactId}
+   */
+  static String moduleId(MavenProject project) {
+    return project.getGroupId() + ":" + project.getArtifactId();
+  }
+
+  /**
+   * Processes the test files, either sequentially or in parallel, and returns the index items of
+   * the resulting documents in the order of the provided files.
+   *
+   * @param docGenerator the document generator
+   * @param testFiles the test files to process
+   * @return the index items of the documents
+   */
+  List<DocumentIndexItem> processTestFiles(AsciiDocGenerator docGenerator, List<Path> testFiles) {
+    Function<Path, List<DocumentIndexItem>> processTestFile =
+        p -> this.processTestFile(docGenerator, p);
+    var workers = workerCount();
+    if (workers == 1 || testFiles.size() < 2) {
+      return testFiles.stream().map(processTestFile).flatMap(Collection::stream).toList();
+    }
+
+    getLog().info("Processing " + testFiles.size() + " files with " + workers + " workers");
+    var pool = new ForkJoinPool(workers);
+    try {
+      return pool.submit(
+              () ->
+                  testFiles.parallelStream()
+                      .map(processTestFile)
+                      .flatMap(Collection::stream)
+                      .toList())
+          .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Processing test files was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException("Processing test files failed", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Processes a single test file.
+   *
+   * <p>For incremental builds, the file is skipped if it did not change since the previous build
+   * and its documents still exist. In that case, the index items are derived from the test sets in
+   * the model cache. Otherwise, the file is parsed and documents are generated for its test sets
+   * (see {@link #generateDocuments(AsciiDocGenerator, List)}), unless the parsed data model has the
+   * same {@link ModelHash} as in the previous build and its documents still exist. Test cases of
+   * the previous version of the file are reused for test methods whose source code did not change.
+   *
+   * <p>The documents are not added to the index. This method is called by the workers and must
+   * therefore not modify any shared state other than the thread-safe manifest and model cache.
+   *
+   * @param docGenerator the document generator
+   * @param path the test file path
+   * @return the index items of the documents for the test file
+   */
+  List<DocumentIndexItem> processTestFile(AsciiDocGenerator docGenerator, Path path) {
+    if (manifest == null) {
+      return generateDocuments(docGenerator, readTestSets(path));
+    }
+
+    try {
+      var state = FileState.of(path);
+      var unchanged = manifest.findUnchanged(path, state);
+      var cachedTestSets =
+          unchanged
+              .flatMap(e -> modelCache.get(e.getContentHash()))
+              .filter(testSets -> isUpToDate(docGenerator, path, testSets));
+      if (cachedTestSets.isPresent()) {
+        unchangedFileCount.incrementAndGet();
+        manifest.record(unchanged.get());
+        var indexItems = cachedTestSets.get().stream().map(docGenerator::indexItem).toList();
+        indexItems.forEach(docGenerator::retainDocument);
+        return indexItems;
+      }
+
+      // only the lexer reuses the test cases of unchanged test methods
+      Map<String, TestCase> previousTestCases =
+          extractionEngine == ExtractionEngine.LEXER
+              ? manifest
+                  .findPrevious(path)
+                  .map(e -> modelCache.getTestCases(e.getContentHash()))
+                  .orElse(Map.of())
+              : Map.of();
+      var testSets = readTestSets(path, previousTestCases);
+      var modelHash = ModelHash.of(testSets);
+      modelCache.put(state.getContentHash(), testSets);
+      manifest.record(BuildManifest.entry(path, state, modelHash));
+
+      var unchangedModel =
+          manifest.findPreviousModelHash(path).filter(modelHash::equals).isPresent();
+      if (unchangedModel && isUpToDate(docGenerator, path, testSets)) {
+        unchangedModelCount.incrementAndGet();
+        var indexItems = testSets.stream().map(docGenerator::indexItem).toList();
+        indexItems.forEach(docGenerator::retainDocument);
+        return indexItems;
+      }
+
+      return generateDocuments(docGenerator, testSets);
+    } catch (IOException e) {
+      getLog().error("Unable to check test file " + path + " for changes", e);
+      throw new RuntimeException("Unable to check test file " + path + " for changes", e);
+    }
+  }
+
+  /**
+   * Checks whether cached test sets belong to a test file and the documents generated from them
+   * still exist. The model cache is keyed by content, so files with identical content share
+   * entries, but their test sets refer to different paths.
+   *
+   * @param docGenerator the document generator
+   * @param path the test file path
+   * @param testSets the cached test sets
+   * @return {@code true} if the cached test sets can be used for the file, {@code false} otherwise
+   */
+  boolean isUpToDate(AsciiDocGenerator docGenerator, Path path, List<TestSet> testSets) {
+    var relativePath = project.getBasedir().toPath().relativize(path).toString();
+    return testSets.stream()
+        .allMatch(
+            t ->
+                t.getPath().equals(relativePath)
+                    && docGenerator.isGenerated(docGenerator.indexItem(t)));
+  }
+
+  /**
+   * Parses a single test file and converts it into test sets.
+   *
+   * <p>If the {@link #prefilter} is enabled, files that do not contain test annotations are not
+   * parsed.
+   *
+   * @param path the test file path
+   * @return the test sets, or an empty list if the file does not contain tests
+   */
+  List<TestSet> readTestSets(Path path) {
+    return readTestSets(path, Map.of());
+  }
+
+  /**
+   * Parses a single test file and converts it into test sets, reusing test cases of a previous
+   * version of the file for test methods whose source code did not change.
+   *
+   * @param path the test file path
+   * @param previousTestCases the test cases of the previous version by source fingerprint
+   * @return the test sets, or an empty list if the file does not contain tests
+   */
+  List<TestSet> readTestSets(Path path, Map<String, TestCase> previousTestCases) {
+    if (prefilter && !mayContainTests(path)) {
+      prefilteredFileCount.incrementAndGet();
+      return List.of();
+    }
+
+    parsedFileCount.incrementAndGet();
+    return parseTestSets(path, previousTestCases);
+  }
+
+  /**
+   * Generates the documents for test sets.
+   *
+   * @param docGenerator the document generator
+   * @param testSets the test sets
+   * @return the index items of the generated documents
+   */
+  List<DocumentIndexItem> generateDocuments(
+      AsciiDocGenerator docGenerator, List<TestSet> testSets) {
+    return testSets.stream()
+        .map(t -> t.withLinkBaseUrl(linkBaseUrl))
+        .map(docGenerator::generateDocument)
+        .toList();
+  }
+
+  /**
+   * Determines the number of worker threads from the {@link #parallelism} configuration.
+   *
+   * @return the number of workers, at least {@code 1}
+   */
+  int workerCount() {
+    return parallelism < 1 ? Runtime.getRuntime().availableProcessors() : parallelism;
+  }
+
+  /**
+   * Returns the path of the incremental build manifest.
+   *
+   * @return the manifest path
+   */
+  Path manifestFile() {
+    return executionWorkDirectory().resolve("manifest.bin");
+  }
+
+  /**
+   * Returns the path of the model cache.
+   *
+   * @return the model cache path
+   */
+  Path modelCacheFile() {
+    return executionWorkDirectory().resolve("models.bin");
+  }
+
+  /**
+   * Returns the directory of the incremental build state of this execution. Several executions of
+   * the goal in the same module, e.g., for different input directories, would otherwise replace
+   * each other's manifest and model cache, so that none of them could skip unchanged files.
+   *
+   * @return the work directory of the execution
+   */
+  Path executionWorkDirectory() {
+    if (executionId == null || executionId.isBlank()) {
+      return Paths.get(workDirectory);
+    }
+    return Paths.get(workDirectory, executionId);
+  }
+
+  /**
+   * Creates a fingerprint of the configuration that affects the content or location of generated
+   * documents. Incremental build state is only reused if the fingerprint did not change.
+   *
+   * @return the configuration fingerprint
+   */
+  String configurationFingerprint() {
+    return String.join(
+        "|",
+        String.valueOf(pluginVersion),
+        Paths.get(outputDirectory).toAbsolutePath().normalize().toString(),
+        String.valueOf(linkBaseUrl),
+        String.valueOf(templateDirectory),
+        String.valueOf(index.getGenerateIndex()),
+        String.valueOf(index.getName()),
+        String.valueOf(index.getTitle()));
+  }
+
+  /**
+   * Checks whether a file may contain tests before it is parsed (see {@link TestFilePrefilter}).
+   *
+   * @param path the file path
+   * @return {@code false} if the file does not contain test annotations, {@code true} otherwise
+   * @throws RuntimeException if the file cannot be read
+   */
+  boolean mayContainTests(Path path) {
+    try {
+      return TestFilePrefilter.mayContainTests(path);
+    } catch (IOException e) {
+      getLog().error("Error reading test file " + path, e);
+      throw new RuntimeException("Error reading test file " + path, e);
+    }
   }
 
   /**
-   * Parses a file at the given path and returns an instance of {@link ParsedTestFile} for further
-   * processing.
+   * Reads a file at the given path with the {@link #extractionEngine} and converts it straight into
+   * test sets. Nothing of the parsed file is kept, so its syntax tree can be released before the
+   * documents are generated.
    *
    * @param path the file path
-   * @return the parsed file
+   * @param previousTestCases the test cases of a previous version of the file by source
+   *     fingerprint, which the engine may reuse
+   * @return the test sets, or an empty list if the file does not contain tests
    * @throws RuntimeException if the file cannot be parsed
    */
-  ParsedTestFile parseTestClass(Path path) {
+  List<TestSet> parseTestSets(Path path, Map<String, TestCase> previousTestCases) {
     try {
       getLog().info("Parsing test file: " + path);
       var projectPath = project.getBasedir().toPath();
-      return new ParsedTestFile(path, projectPath);
+      return extractionEngine.readTestSets(path, projectPath, parserProfile, previousTestCases);
     } catch (IOException e) {
       getLog().error("Error parsing test file " + path, e);
       throw new RuntimeException("Error parsing test file " + path, e);
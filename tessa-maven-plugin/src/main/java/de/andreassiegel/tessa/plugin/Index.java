@@ -38,4 +38,14 @@ public class Index {
 
   /** The title of the test documentation index file. */
   private String title = "Test Overview";
+
+  /**
+   * Defines whether a single index should be generated for all modules of a multi-module build
+   * instead of one index per module.
+   *
+   * <p>Each module contributes the documents it generated, and the {@link AggregateTestDocsMojo}
+   * generates the aggregate index in the {@code aggregateOutputDirectory} once all modules are
+   * built.
+   */
+  private Boolean aggregate = false;
 }
@@ -0,0 +1,196 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The index items that the modules of a multi-module build contribute to an aggregate index.
+ *
+ * <p>Every module stores the index items of its documents in a file in a shared directory, together
+ * with the directory the documents were generated in. Once all modules are built, the aggregate
+ * index collects the items of all modules from there, so the index covers modules that were built
+ * by other plugin executions, or in earlier builds.
+ */
+public class AggregateIndex {
+
+  private static final int MAGIC = 0x54455349; // "TESI"
+  private static final int VERSION = 1;
+
+  private final Path directory;
+
+  /**
+   * Instantiates the aggregate index.
+   *
+   * @param directory the directory that stores the index items of the modules
+   */
+  public AggregateIndex(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Stores the index items of a module, replacing the items it contributed before.
+   *
+   * @param moduleId the unique identifier of the module, e.g., {@code groupId:artifactId}
+   * @param documentDirectory the directory the documents of the module were generated in
+   * @param items the index items of the module
+   * @throws IOException if the index items cannot be stored
+   */
+  public void contribute(String moduleId, Path documentDirectory, List<DocumentIndexItem> items)
+      throws IOException {
+    Files.createDirectories(directory);
+    var file = moduleFile(moduleId);
+    var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (var out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, documentDirectory.toAbsolutePath().normalize().toString());
+      out.writeInt(items.size());
+      for (var item : items) {
+        writeString(out, item.getTitle());
+        writeString(out, item.getFilename());
+        writeString(out, item.getDescription());
+        writeString(out, item.getStatus());
+      }
+    }
+
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Collects the index items of modules in the given order.
+   *
+   * <p>The directory of every item is set relative to the directory of the aggregate index. Modules
+   * that did not contribute any items are skipped. Modules that are not listed, e.g., because only
+   * some modules were selected for the build, follow in the order of their files, as long as their
+   * documents still exist.
+   *
+   * @param moduleIds the identifiers of the modules
+   * @param indexDirectory the directory of the aggregate index
+   * @return the index items
+   * @throws IOException if the index items of a module cannot be read
+   */
+  public List<DocumentIndexItem> collect(List<String> moduleIds, Path indexDirectory)
+      throws IOException {
+    var indexPath = indexDirectory.toAbsolutePath().normalize();
+    List<DocumentIndexItem> items = new ArrayList<>();
+    Set<Path> listedFiles = new HashSet<>();
+    for (var moduleId : moduleIds) {
+      var file = moduleFile(moduleId);
+      listedFiles.add(file);
+      if (Files.isRegularFile(file)) {
+        read(file, indexPath, false, items);
+      }
+    }
+
+    if (Files.isDirectory(directory)) {
+      List<Path> otherFiles;
+      try (var files = Files.list(directory)) {
+        otherFiles =
+            files
+                .filter(file -> file.getFileName().toString().endsWith(".bin"))
+                .filter(file -> !listedFiles.contains(file))
+                .sorted()
+                .toList();
+      }
+      for (var file : otherFiles) {
+        read(file, indexPath, true, items);
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Reads the index items of a module from its file.
+   *
+   * @param file the file of the module
+   * @param indexPath the absolute directory of the aggregate index
+   * @param existingDocumentsOnly whether the items are skipped if the document directory is missing
+   * @param items the list to add the items to
+   * @throws IOException if the file cannot be read
+   */
+  private static void read(
+      Path file, Path indexPath, boolean existingDocumentsOnly, List<DocumentIndexItem> items)
+      throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Unsupported index item file " + file);
+      }
+
+      var documentDirectory = Paths.get(readString(in));
+      if (existingDocumentsOnly && !Files.isDirectory(documentDirectory)) {
+        return;
+      }
+
+      var relativeDirectory = indexPath.relativize(documentDirectory).toString().replace('\\', '/');
+      var count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        items.add(
+            DocumentIndexItem.builder()
+                .title(readString(in))
+                .filename(readString(in))
+                .description(readString(in))
+                .status(readString(in))
+                .directory(relativeDirectory)
+                .build());
+      }
+    }
+  }
+
+  private Path moduleFile(String moduleId) {
+    return directory.resolve(moduleId.replaceAll("[^\\w.-]", "_") + ".bin");
+  }
+
+  /**
+   * Writes a string that may be {@code null} and is not limited in length, unlike {@link
+   * DataOutputStream#writeUTF(String)}.
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    var bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    var length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new String(in.readNBytes(length), UTF_8);
+  }
+}
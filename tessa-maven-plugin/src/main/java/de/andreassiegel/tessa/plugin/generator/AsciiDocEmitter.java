@@ -0,0 +1,289 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.generator.SourceTextDirective.HtmlEscapingWriter;
+import de.andreassiegel.tessa.plugin.model.SourceText;
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.TestStep;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Renderer that writes the built-in test and index documents directly, without a template engine.
+ *
+ * <p>The output is the same as the output of the built-in templates {@code test.ftlh} and {@code
+ * index.ftlh} rendered with FreeMarker (see {@link FreemarkerRenderer}), including FreeMarker's
+ * HTML escaping of interpolated values and the formatting of numbers for the locale. Changes to the
+ * templates have to be made here as well.
+ */
+class AsciiDocEmitter implements DocumentRenderer {
+
+  private static final String DOCUMENT_ATTRIBUTES =
+      """
+      :experimental:
+      :idprefix:
+      :idseparator: -
+      ifndef::env-github[:icons: font]
+      ifdef::env-github,env-browser[]
+      :toc: preamble
+      :toclevels: 3
+      endif::[]
+      ifdef::env-github[]
+      :status:
+      :outfilesuffix: .adoc
+      :!toc-title:
+      :important-caption: :exclamation:
+      :note-caption: :paperclip:
+      :tip-caption: :bulb:
+      :warning-caption: :warning:
+      endif::[]
+      """;
+
+  /** AsciiDoc supports section headings up to level 5, i.e., six equal signs. */
+  private static final int MAX_HEADING_LEVEL = 6;
+
+  private final Locale locale;
+
+  /**
+   * Creates the renderer.
+   *
+   * @param locale the locale numbers are formatted for
+   */
+  AsciiDocEmitter(Locale locale) {
+    this.locale = locale;
+  }
+
+  @Override
+  public void renderTestDocument(TestSet testSet, Writer out) throws IOException {
+    new Emission(out).testDocument(testSet);
+  }
+
+  @Override
+  public void renderIndexDocument(DocumentIndex index, Writer out) throws IOException {
+    new Emission(out).indexDocument(index);
+  }
+
+  /** The state of writing a single document. */
+  private class Emission {
+
+    private final Writer out;
+    private final Writer escapingOut;
+    private final NumberFormat numberFormat;
+
+    Emission(Writer out) {
+      this.out = out;
+      this.escapingOut = new HtmlEscapingWriter(out);
+      this.numberFormat = NumberFormat.getNumberInstance(locale);
+    }
+
+    void testDocument(TestSet testSet) throws IOException {
+      title(testSet.getTitle());
+
+      out.write("[cols=\"h,\", %autowidth.stretch]\n|===\n|Description\n|");
+      escaped(testSet.getDescription());
+      out.write("\n\n");
+      if (testSet.getStatus() != null) {
+        out.write("|Status\n|");
+        escaped(testSet.getStatus());
+        out.write('\n');
+      }
+      out.write('\n');
+
+      var link = testSet.getLink();
+      var path = testSet.getPath();
+      if (link != null) {
+        out.write("|Source File Link\n|link:");
+        escaped(link);
+        out.write("[`");
+        escaped(path);
+        out.write("`]\n");
+      } else {
+        out.write("|Source File\n|`");
+        escaped(path);
+        out.write("`\n");
+      }
+      out.write("|===\n\n");
+
+      sourceText(testSet.getFurtherInformationText());
+      out.write("\n== Setup\n\n");
+      escaped(testSet.getSetup());
+      out.write("\n\n== Cleanup\n\n");
+      escaped(testSet.getCleanup());
+      out.write("\n\n== Test Cases\n\n");
+      if (testSet.getDisabledNote() != null) {
+        out.write("WARNING: ");
+        escaped(testSet.getDisabledNote());
+        out.write('\n');
+      }
+      out.write('\n');
+
+      var categorized = testSet.isCategorized();
+      var categoryNumbers = testSet.getCategoryNumbers();
+      var categoryLevels = testSet.getCategoryLevels();
+      for (var category : testSet.getTestCases().entrySet()) {
+        var categoryNumber = categoryNumbers.get(category.getKey());
+        var categoryLevel = categoryLevels.getOrDefault(category.getKey(), 0);
+        if (categorized) {
+          heading(3 + categoryLevel);
+          escaped(categoryNumber);
+          out.write(". ");
+          escaped(category.getKey());
+          out.write('\n');
+        }
+        out.write('\n');
+
+        int index = 0;
+        for (var testCase : category.getValue()) {
+          if (categorized) {
+            heading(4 + categoryLevel);
+            escaped(categoryNumber);
+            out.write('.');
+          } else {
+            out.write("=== ");
+          }
+          number(++index);
+          out.write(". ");
+          escaped(testCase.getTitle());
+          out.write("\n\n");
+          testCase(testCase, link, categorized ? 5 + categoryLevel : 4);
+        }
+      }
+    }
+
+    private void testCase(TestCase testCase, String link, int sectionHeadingLevel)
+        throws IOException {
+      out.write("[cols=\"h,\", %autowidth.stretch]\n|===\n|Description\n|");
+      escaped(testCase.getDescription());
+      out.write("\n\n");
+      if (testCase.getStatus() != null) {
+        out.write("|Status\n|");
+        escaped(testCase.getStatus());
+        out.write('\n');
+      }
+      if (link != null) {
+        out.write("|Method Link\n|link:");
+        escaped(link);
+        out.write("#L");
+        number(testCase.getBeginLine());
+        out.write("-L");
+        number(testCase.getEndLine());
+        out.write("[`");
+        escaped(testCase.getMethodName());
+        out.write("`]\n");
+      } else {
+        out.write("|Method\n|`");
+        escaped(testCase.getMethodName());
+        out.write("`\n");
+      }
+      out.write("|===\n\n");
+      if (testCase.getDisabledNote() != null) {
+        out.write("WARNING: ");
+        escaped(testCase.getDisabledNote());
+        out.write('\n');
+      }
+      out.write('\n');
+
+      sourceText(testCase.getFurtherInformationText());
+      out.write('\n');
+
+      var sectionLevels = testCase.getSectionLevels();
+      for (var section : testCase.getSections().entrySet()) {
+        if (testCase.isSectioned()) {
+          heading(sectionHeadingLevel + sectionLevels.getOrDefault(section.getKey(), 0));
+          escaped(section.getKey());
+          out.write("\n\n");
+        }
+        for (TestStep testStep : section.getValue()) {
+          var info = testStep.getInfoText();
+          if (info != null) {
+            info.writeTo(escapingOut);
+          }
+          out.write("\n\n");
+        }
+      }
+    }
+
+    void indexDocument(DocumentIndex index) throws IOException {
+      title(index.getTitle());
+
+      var includesStatus = index.getIncludesStatus();
+      if (includesStatus) {
+        out.write(
+            "[options=\"header\", cols=\",,\", %autowidth.stretch]\n"
+                + "|===\n|Title |Description |Status\n\n");
+      } else {
+        out.write(
+            "[options=\"header\", cols=\",\", %autowidth.stretch]\n|===\n|Title |Description\n\n");
+      }
+      for (var item : index.getItems()) {
+        out.write("|<<");
+        escaped(item.getDirectory() != null ? item.getDirectory() : index.getDirectory());
+        out.write('/');
+        escaped(item.getFilename());
+        out.write("#, ");
+        escaped(item.getTitle());
+        out.write(">>\n|");
+        escaped(item.getDescription());
+        out.write('\n');
+        if (includesStatus) {
+          out.write('|');
+          if (item.getStatus() != null) {
+            escaped(item.getStatus());
+          }
+          out.write('\n');
+        }
+      }
+      out.write("|===\n");
+    }
+
+    private void title(String title) throws IOException {
+      out.write("= ");
+      escaped(title);
+      out.write('\n');
+      out.write(DOCUMENT_ATTRIBUTES);
+      out.write('\n');
+    }
+
+    private void heading(int level) throws IOException {
+      for (int i = Math.min(level, MAX_HEADING_LEVEL); i > 0; i--) {
+        out.write('=');
+      }
+      out.write(' ');
+    }
+
+    /** Writes a text block followed by a line break, if there is a text. */
+    private void sourceText(SourceText text) throws IOException {
+      if (text != null) {
+        text.writeTo(escapingOut);
+        out.write('\n');
+      }
+    }
+
+    private void number(int value) throws IOException {
+      escaped(numberFormat.format(value));
+    }
+
+    private void escaped(String value) throws IOException {
+      escapingOut.write(value, 0, value.length());
+    }
+  }
+}
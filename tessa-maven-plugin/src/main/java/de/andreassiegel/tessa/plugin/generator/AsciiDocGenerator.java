@@ -20,60 +20,141 @@ import static de.andreassiegel.tessa.plugin.generator.FileUtil.initializeDirecto
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import de.andreassiegel.tessa.plugin.Index;
+import de.andreassiegel.tessa.plugin.generator.DocumentWriter.DocumentContent;
 import de.andreassiegel.tessa.plugin.model.TestSet;
 import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
 import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
-import freemarker.template.TemplateException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
 
-/** Generator for Asciidoctor documents using Freemarker templates. */
-public class AsciiDocGenerator {
-
-  private static final String TEMPLATE_DIRECTORY = "/templates";
-  private static final String TEST_TEMPLATE = "test.ftlh";
-  private static final String INDEX_TEMPLATE = "index.ftlh";
+/**
+ * Generator for Asciidoctor documents, using the built-in documents or Freemarker templates.
+ *
+ * <p>Documents are only written if their content changed, so that the files of unchanged documents
+ * keep their modification time. The checksums of all documents are written to a manifest in the
+ * output directory (see {@link #writeChecksumManifest()}), so that documents that are not generated
+ * anymore can be deleted by the next build (see {@link #deleteStaleDocuments()}).
+ *
+ * <p>Documents are written synchronously by default. With {@link #writeAsynchronously(int)}, they
+ * are written by a dedicated writer thread instead, and the generator has to be {@link #close()
+ * closed} to make sure all documents are written.
+ */
+public class AsciiDocGenerator implements AutoCloseable {
 
   private final String outputDirectory;
   private final Index indexConfiguration;
-  private final Template testTemplate;
-  private final Template indexTemplate;
+  private final DocumentRenderer renderer;
+  private final OutputChecksums checksums;
+
+  /** The writer for synchronous output. */
+  private final DocumentWriter.DirectWriter directWriter;
+
+  /** The writer for asynchronous output, or {@code null} if documents are written synchronously. */
+  private DocumentWriter documentWriter;
 
   private final Optional<DocumentIndex> index;
 
   /**
-   * Instantiates the Asciidoc generator.
+   * Instantiates the Asciidoc generator with the built-in document templates.
    *
-   * <p>It configures Freemarker, prepares the output directory, and loads the file templates that
-   * will be used to generate documents.
+   * <p>It prepares the output directory and the renderer that will be used to generate documents.
    *
    * @param outputDirectory the output directory
    * @param indexConfiguration configuration for index creation
    */
   public AsciiDocGenerator(String outputDirectory, Index indexConfiguration) {
+    this(outputDirectory, indexConfiguration, null);
+  }
+
+  /**
+   * Instantiates the Asciidoc generator.
+   *
+   * <p>It prepares the output directory and the renderer that will be used to generate documents.
+   * Without a template directory, the built-in documents are written directly (see {@link
+   * AsciiDocEmitter}). With a template directory, Freemarker is configured and the file templates
+   * are loaded from the template directory, or from the built-in templates if they do not exist
+   * there (see {@link FreemarkerRenderer}).
+   *
+   * @param outputDirectory the output directory
+   * @param indexConfiguration configuration for index creation
+   * @param templateDirectory the directory of custom Freemarker templates, or {@code null}
+   */
+  public AsciiDocGenerator(
+      String outputDirectory, Index indexConfiguration, String templateDirectory) {
     this.outputDirectory = outputDirectory;
     this.indexConfiguration = indexConfiguration;
 
-    // Configure FreeMarker
-    Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
-    cfg.setClassForTemplateLoading(AsciiDocGenerator.class, TEMPLATE_DIRECTORY);
-
-    // Load the template
-    testTemplate = initializeTemplate(cfg, TEST_TEMPLATE);
-    indexTemplate = initializeTemplate(cfg, INDEX_TEMPLATE);
+    // Prepare the renderer
+    renderer =
+        templateDirectory == null || templateDirectory.isBlank()
+            ? new AsciiDocEmitter(Locale.getDefault())
+            : new FreemarkerRenderer(templateDirectory);
 
     // Prepare the output directory
     initializeDirectory(outputDirectory);
+    checksums = OutputChecksums.load(Paths.get(outputDirectory));
+    directWriter = new DocumentWriter.DirectWriter(checksums);
 
     // Initialize the document index
     index = initializeIndex(indexConfiguration);
   }
 
+  /**
+   * Writes the generated documents asynchronously from now on: Documents are rendered into
+   * in-memory buffers, and a dedicated writer thread writes them to disk (see {@link
+   * DocumentWriter}). Generating a document only waits for the file system if all buffers are in
+   * use.
+   *
+   * <p>Call {@link #flush()} or {@link #close()} to wait until all documents are written.
+   *
+   * @param bufferCount the maximum number of documents held in memory
+   */
+  public void writeAsynchronously(int bufferCount) {
+    if (documentWriter == null) {
+      documentWriter = new DocumentWriter(bufferCount, checksums);
+    }
+  }
+
+  /**
+   * Waits until all documents generated so far are written. If documents are written synchronously,
+   * the method does nothing.
+   *
+   * @throws RuntimeException if writing a document failed
+   */
+  public void flush() {
+    if (documentWriter != null) {
+      try {
+        documentWriter.flush();
+      } catch (IOException e) {
+        throw new RuntimeException("Could not write the generated documents", e);
+      }
+    }
+  }
+
+  /**
+   * Waits until all documents are written and stops the writer thread, if documents are written
+   * asynchronously. Documents generated afterwards are written synchronously again.
+   *
+   * @throws RuntimeException if writing a document failed
+   */
+  @Override
+  public void close() {
+    if (documentWriter != null) {
+      try {
+        documentWriter.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Could not write the generated documents", e);
+      } finally {
+        documentWriter = null;
+      }
+    }
+  }
+
   /**
    * Generates a document for a test set in the output directory.
    *
@@ -87,28 +168,128 @@ public class AsciiDocGenerator {
    * @param testSet the test set
    */
   public void generate(TestSet testSet) {
-    AtomicReference<String> itemOutputDirectory = new AtomicReference<>(outputDirectory);
-    var filename = testSet.getClassName() + ".adoc";
-    index.ifPresent(
-        index -> {
-          var indexItem =
-              DocumentIndexItem.builder()
-                  .title(testSet.getTitle())
-                  .filename(filename)
-                  .description(testSet.getDescription())
-                  .status(testSet.getStatus())
-                  .build();
-          itemOutputDirectory.set(fullIndexItemDirectory(index.getDirectory()));
-          index.addToIndex(indexItem);
-        });
+    addToIndex(generateDocument(testSet));
+  }
+
+  /**
+   * Generates a document for a test set in the output directory without adding it to the index.
+   *
+   * <p>The method does not modify any state of the generator and can therefore be called from
+   * several threads at the same time. Callers that use it have to add the returned item to the
+   * index themselves (see {@link #addToIndex(DocumentIndexItem)}), in the order the documents
+   * should be listed.
+   *
+   * @param testSet the test set
+   * @return the index item describing the generated document
+   */
+  public DocumentIndexItem generateDocument(TestSet testSet) {
+    var indexItem = indexItem(testSet);
 
     // Generate the output
-    try (Writer out = new FileWriter(itemOutputDirectory + "/" + filename, UTF_8)) {
-      testTemplate.process(testSet, out);
-    } catch (IOException | TemplateException e) {
+    try {
+      write(documentPath(indexItem), out -> renderer.renderTestDocument(testSet, out));
+    } catch (IOException e) {
       throw new RuntimeException(
           "Could not process the test documentation template and data model", e);
     }
+
+    return indexItem;
+  }
+
+  /**
+   * Keeps an existing document that was not generated again, e.g., because its test file did not
+   * change, so that it is listed in the checksum manifest.
+   *
+   * @param indexItem the index item describing the document
+   */
+  public void retainDocument(DocumentIndexItem indexItem) {
+    try {
+      checksums.retain(documentPath(indexItem));
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read the document " + indexItem.getFilename(), e);
+    }
+  }
+
+  /**
+   * Deletes the documents that were generated by the previous build, but neither generated nor
+   * retained by the current one, e.g., the documents of deleted or renamed test classes. Only
+   * documents listed in the checksum manifest of the output directory are deleted, and only if they
+   * were not modified since (see {@link OutputChecksums#deleteStaleDocuments()}).
+   *
+   * <p>The method waits until all documents are written. It has to be called before the checksum
+   * manifest is written (see {@link #writeChecksumManifest()}).
+   *
+   * @return the number of deleted documents
+   */
+  public int deleteStaleDocuments() {
+    flush();
+    try {
+      return checksums.deleteStaleDocuments();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not delete the stale documents", e);
+    }
+  }
+
+  /**
+   * Writes the checksum manifest of the output directory, i.e., the SHA-256 checksums of all
+   * documents that were generated or retained (see {@link OutputChecksums}). Like the documents,
+   * the manifest is only written if its content changed.
+   *
+   * <p>The method waits until all documents are written.
+   */
+  public void writeChecksumManifest() {
+    flush();
+    var manifestFile = checksums.manifestFile();
+    var manifest = checksums.manifest();
+    try {
+      if (!Files.isRegularFile(manifestFile)
+          || !manifest.equals(Files.readString(manifestFile, UTF_8))) {
+        Files.writeString(manifestFile, manifest, UTF_8);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write the checksum manifest", e);
+    }
+  }
+
+  /**
+   * Returns the number of documents that were written because their content changed.
+   *
+   * @return the number of written documents
+   */
+  public int getWrittenDocumentCount() {
+    return checksums.getWrittenCount();
+  }
+
+  /**
+   * Returns the number of generated documents that were not written because their files already had
+   * the same content.
+   *
+   * @return the number of unchanged documents
+   */
+  public int getUnchangedDocumentCount() {
+    return checksums.getUnchangedCount();
+  }
+
+  /**
+   * Adds a generated document to the index so that it is included in the index document later on
+   * (see {@link #generateIndex()}).
+   *
+   * <p>If index creation is disabled in the configuration, the method does nothing.
+   *
+   * @param indexItem the index item describing the document
+   */
+  public void addToIndex(DocumentIndexItem indexItem) {
+    index.ifPresent(index -> index.addToIndex(indexItem));
+  }
+
+  /**
+   * Checks whether the document described by an index item exists in the output directory.
+   *
+   * @param indexItem the index item describing the document
+   * @return {@code true} if the document exists, {@code false} otherwise
+   */
+  public boolean isGenerated(DocumentIndexItem indexItem) {
+    return Files.isRegularFile(documentPath(indexItem));
   }
 
   /**
@@ -118,15 +299,58 @@ public class AsciiDocGenerator {
    */
   public void generateIndex() {
     index.ifPresent(
-        index -> {
-          try (Writer out =
-              new FileWriter(
-                  fullIndexItemDirectory(indexConfiguration.getName()) + ".adoc", UTF_8)) {
-            indexTemplate.process(index, out);
-          } catch (IOException | TemplateException e) {
-            throw new RuntimeException("Could not process the index template and data model", e);
-          }
-        });
+        index -> writeIndex(index, fullIndexItemDirectory(indexConfiguration.getName()) + ".adoc"));
+  }
+
+  /**
+   * Generates an index document for documents from several output directories, e.g., from all
+   * modules of a multi-module build.
+   *
+   * <p>The index document is generated in the output directory. The index items have to specify the
+   * directory of their document relative to the output directory (see {@link
+   * DocumentIndexItem#getDirectory()}).
+   *
+   * @param aggregateIndexConfiguration the configuration of the aggregate index
+   * @param items the index items
+   */
+  public void generateAggregateIndex(
+      Index aggregateIndexConfiguration, List<DocumentIndexItem> items) {
+    var aggregateIndex =
+        new DocumentIndex(
+            aggregateIndexConfiguration.getTitle(), aggregateIndexConfiguration.getName());
+    items.forEach(aggregateIndex::addToIndex);
+
+    writeIndex(
+        aggregateIndex, outputDirectory + "/" + aggregateIndexConfiguration.getName() + ".adoc");
+  }
+
+  /**
+   * Returns the items that were added to the index so far.
+   *
+   * @return the index items, or an empty list if index creation is disabled in the configuration
+   */
+  public List<DocumentIndexItem> getIndexItems() {
+    return index.map(DocumentIndex::getItems).orElse(List.of());
+  }
+
+  /**
+   * Returns the directory the documents are generated in. Depending on whether index creation is
+   * enabled, it is the output directory or the index subdirectory.
+   *
+   * @return the document directory
+   */
+  public Path getDocumentDirectory() {
+    return index
+        .map(i -> Paths.get(fullIndexItemDirectory(i.getDirectory())))
+        .orElse(Paths.get(outputDirectory));
+  }
+
+  private void writeIndex(DocumentIndex documentIndex, String indexFile) {
+    try {
+      write(Paths.get(indexFile), out -> renderer.renderIndexDocument(documentIndex, out));
+    } catch (IOException e) {
+      throw new RuntimeException("Could not process the index template and data model", e);
+    }
   }
 
   /**
@@ -153,23 +377,50 @@ public class AsciiDocGenerator {
         new DocumentIndex(indexConfiguration.getTitle(), relativeItemOutputDirectory));
   }
 
-  private String fullIndexItemDirectory(String relativeItemOutputDirectory) {
-    return outputDirectory + "/" + relativeItemOutputDirectory;
+  /**
+   * Creates the index item describing the document of a test set.
+   *
+   * @param testSet the test set
+   * @return the index item
+   */
+  public DocumentIndexItem indexItem(TestSet testSet) {
+    return DocumentIndexItem.builder()
+        .title(testSet.getTitle())
+        .filename(testSet.getClassName() + ".adoc")
+        .description(testSet.getDescription())
+        .status(testSet.getStatus())
+        .build();
   }
 
   /**
-   * Initializes the template from the given file using the Freemarker configuration.
+   * Returns the path of the document described by an index item. Depending on whether index
+   * creation is enabled, it is located directly in the output directory or in the index
+   * subdirectory.
    *
-   * @param config the configuration
-   * @param templateFile the path to the template file within the template base directory from the
-   *     Freemarker configuration
-   * @return the template
+   * @param indexItem the index item
+   * @return the document path
    */
-  Template initializeTemplate(Configuration config, String templateFile) {
-    try {
-      return config.getTemplate(templateFile);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+  private Path documentPath(DocumentIndexItem indexItem) {
+    return getDocumentDirectory().resolve(indexItem.getFilename());
+  }
+
+  /**
+   * Writes a document, either directly or through the writer for asynchronous output.
+   *
+   * @param path the path of the document
+   * @param content the content of the document
+   * @throws IOException if the document cannot be written
+   */
+  private void write(Path path, DocumentContent content) throws IOException {
+    if (documentWriter != null) {
+      documentWriter.write(path, content);
+      return;
     }
+
+    directWriter.write(path, content);
+  }
+
+  private String fullIndexItemDirectory(String relativeItemOutputDirectory) {
+    return outputDirectory + "/" + relativeItemOutputDirectory;
   }
 }
@@ -0,0 +1,158 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Writes the content of documents to their files, but only if the content changed: The content is
+ * encoded and compared with the existing file, and the file is left untouched, including its
+ * modification time, if it has the same content. The checksum of every document is recorded (see
+ * {@link OutputChecksums}).
+ *
+ * <p>Like a {@link java.io.FileWriter}, the content is encoded in UTF-8, and characters that cannot
+ * be encoded are replaced. The encoder and the buffers are reused for all documents, so an instance
+ * must only be used by one thread at a time.
+ */
+class DocumentFileWriter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Content buffers that grew beyond this size are not reused, so large documents do not pin
+   * memory.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+  private final OutputChecksums checksums;
+
+  private final CharsetEncoder encoder =
+      UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final MessageDigest digest = OutputChecksums.newDigest();
+  private final ByteBuffer existingContent = ByteBuffer.allocate(BUFFER_SIZE);
+  private ByteBuffer content = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /**
+   * Creates the writer.
+   *
+   * @param checksums the checksums to record the documents in
+   */
+  DocumentFileWriter(OutputChecksums checksums) {
+    this.checksums = checksums;
+  }
+
+  /**
+   * Writes a document to its file, unless the file already has the same content.
+   *
+   * @param path the path of the document
+   * @param chars the characters of the document
+   * @param length the number of characters
+   * @throws IOException if the file cannot be read or written
+   */
+  void write(Path path, char[] chars, int length) throws IOException {
+    try {
+      encode(CharBuffer.wrap(chars, 0, length));
+      digest.update(content.duplicate().flip());
+      var checksum = OutputChecksums.HEX.formatHex(digest.digest());
+      var changed = !hasContent(path);
+      if (changed) {
+        try (var channel =
+            FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+          var bytes = content.duplicate().flip();
+          while (bytes.hasRemaining()) {
+            channel.write(bytes);
+          }
+        }
+      }
+      checksums.record(path, checksum, changed);
+    } finally {
+      if (content.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+        content = ByteBuffer.allocate(BUFFER_SIZE);
+      }
+      content.clear();
+    }
+  }
+
+  /** Encodes the characters into the content buffer, which grows as needed. */
+  private void encode(CharBuffer chars) {
+    encoder.reset();
+    content.clear();
+    CoderResult result;
+    do {
+      result = encoder.encode(chars, content, true);
+      if (result.isOverflow()) {
+        grow();
+      }
+    } while (result.isOverflow());
+    while (encoder.flush(content).isOverflow()) {
+      grow();
+    }
+  }
+
+  private void grow() {
+    content = ByteBuffer.allocate(content.capacity() * 2).put(content.flip());
+  }
+
+  /** Checks whether the file exists and has the same content as the content buffer. */
+  private boolean hasContent(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var length = content.position();
+      if (channel.size() != length) {
+        return false;
+      }
+
+      var array = content.array();
+      int compared = 0;
+      while (compared < length) {
+        existingContent.clear();
+        int read = channel.read(existingContent);
+        if (read < 0 || compared + read > length) {
+          return false;
+        }
+        if (!Arrays.equals(existingContent.array(), 0, read, array, compared, compared + read)) {
+          return false;
+        }
+        compared += read;
+      }
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    } finally {
+      existingContent.clear();
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/** Template model for a {@link DocumentIndex}. */
+class DocumentIndexAdapter extends ModelAdapter<DocumentIndex> {
+
+  /**
+   * Creates the template model for a document index.
+   *
+   * @param index the document index
+   * @param wrapper the wrapper for other values of the document index
+   */
+  DocumentIndexAdapter(DocumentIndex index, BeansWrapper wrapper) {
+    super(index, wrapper);
+  }
+
+  @Override
+  public TemplateModel get(String key) throws TemplateModelException {
+    return switch (key) {
+      case "title" -> scalar(object.getTitle());
+      case "directory" -> scalar(object.getDirectory());
+      case "items" -> wrap(object.getItems());
+      case "includesStatus" -> bool(object.getIncludesStatus());
+      default -> bean(key);
+    };
+  }
+}
@@ -0,0 +1,48 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/** Template model for a {@link DocumentIndexItem}. */
+class DocumentIndexItemAdapter extends ModelAdapter<DocumentIndexItem> {
+
+  /**
+   * Creates the template model for a document index item.
+   *
+   * @param item the index item
+   * @param wrapper the wrapper for other values of the index item
+   */
+  DocumentIndexItemAdapter(DocumentIndexItem item, BeansWrapper wrapper) {
+    super(item, wrapper);
+  }
+
+  @Override
+  public TemplateModel get(String key) throws TemplateModelException {
+    return switch (key) {
+      case "title" -> scalar(object.getTitle());
+      case "filename" -> scalar(object.getFilename());
+      case "description" -> scalar(object.getDescription());
+      case "status" -> scalar(object.getStatus());
+      case "directory" -> scalar(object.getDirectory());
+      default -> bean(key);
+    };
+  }
+}
@@ -0,0 +1,49 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Renders the documents of the test documentation.
+ *
+ * <p>Implementations are stateless, so the same instance can render several documents at the same
+ * time.
+ */
+interface DocumentRenderer {
+
+  /**
+   * Renders the document of a test set.
+   *
+   * @param testSet the test set
+   * @param out the writer for the document
+   * @throws IOException if the document cannot be written
+   */
+  void renderTestDocument(TestSet testSet, Writer out) throws IOException;
+
+  /**
+   * Renders an index document.
+   *
+   * @param index the document index
+   * @param out the writer for the document
+   * @throws IOException if the document cannot be written
+   */
+  void renderIndexDocument(DocumentIndex index, Writer out) throws IOException;
+}
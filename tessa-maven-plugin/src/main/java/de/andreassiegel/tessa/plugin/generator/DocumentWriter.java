@@ -0,0 +1,407 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes generated documents to disk on a dedicated thread, so that the latency of the file system
+ * is not on the path of the threads that generate the documents.
+ *
+ * <p>Documents are rendered into in-memory buffers that are reused for later documents. The number
+ * of buffers is fixed, so at most that many documents are held in memory: If all buffers are in
+ * use, {@link #write(Path, DocumentContent)} waits until the writer thread has written a document
+ * and returned its buffer. The writer thread takes the completed documents in batches and writes
+ * them in the order they were completed.
+ *
+ * <p>Documents are only written if their content changed (see {@link DocumentFileWriter}).
+ *
+ * <p>Failures of the writer thread are reported by {@link #flush()} and {@link #close()}, which
+ * wait until all documents are written. Once writing a document failed, no further documents are
+ * accepted. If the writer thread stops before it was closed, e.g., because it was interrupted, the
+ * documents it did not write are discarded and reported as a failure, so that nobody waits for
+ * them.
+ */
+class DocumentWriter implements AutoCloseable {
+
+  /** The maximum number of documents the writer thread takes at once. */
+  private static final int BATCH_SIZE = 16;
+
+  /** The initial capacity of a buffer in characters. */
+  private static final int INITIAL_BUFFER_CAPACITY = 16 * 1024;
+
+  /**
+   * Buffers that grew beyond this capacity are not reused, so large documents do not pin memory.
+   */
+  private static final int MAX_RETAINED_BUFFER_CAPACITY = 1024 * 1024;
+
+  /** Marks the end of the documents for the writer thread. */
+  private static final DocumentBuffer END = new DocumentBuffer(0);
+
+  private final BlockingQueue<DocumentBuffer> freeBuffers;
+  private final BlockingQueue<DocumentBuffer> completedDocuments = new LinkedBlockingQueue<>();
+  private final Thread thread;
+
+  private final DocumentFileWriter fileWriter;
+
+  /** The number of documents that were accepted but not written yet. Guarded by {@code this}. */
+  private int pendingDocuments;
+
+  /** The first failure of the writer thread, if any. Guarded by {@code this}. */
+  private IOException failure;
+
+  /** Whether the writer thread stopped and no longer writes documents. Guarded by {@code this}. */
+  private boolean stopped;
+
+  private volatile boolean closed;
+
+  /**
+   * Creates the writer and starts its thread.
+   *
+   * @param bufferCount the number of buffers, i.e., the maximum number of documents held in memory
+   * @param checksums the checksums to record the documents in
+   */
+  DocumentWriter(int bufferCount, OutputChecksums checksums) {
+    if (bufferCount < 1) {
+      throw new IllegalArgumentException("At least one buffer is required");
+    }
+    fileWriter = new DocumentFileWriter(checksums);
+    freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+    for (int i = 0; i < bufferCount; i++) {
+      freeBuffers.add(new DocumentBuffer(INITIAL_BUFFER_CAPACITY));
+    }
+
+    thread = new Thread(this::writeDocuments, "tessa-document-writer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Renders a document into a buffer and hands it over to the writer thread.
+   *
+   * <p>The method can be called from several threads at the same time. It waits for a free buffer
+   * if all buffers are in use.
+   *
+   * @param path the path of the document
+   * @param content the content of the document
+   * @throws IOException if the content cannot be rendered, if the writer is closed, if writing a
+   *     previous document failed or the writer thread stopped, or if the thread was interrupted
+   *     while waiting for a buffer
+   */
+  void write(Path path, DocumentContent content) throws IOException {
+    if (closed) {
+      throw new IOException("The document writer is closed");
+    }
+    checkFailure();
+
+    DocumentBuffer buffer;
+    try {
+      buffer = freeBuffers.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a document buffer");
+    }
+
+    var accepted = false;
+    try {
+      content.writeTo(buffer);
+      buffer.path = path;
+      synchronized (this) {
+        checkFailure();
+        if (stopped) {
+          throw new IOException("The document writer is closed");
+        }
+        pendingDocuments++;
+        completedDocuments.add(buffer);
+      }
+      accepted = true;
+    } finally {
+      if (!accepted) {
+        release(buffer);
+      }
+    }
+  }
+
+  /**
+   * Waits until all documents that were handed over are written. It does not wait if the writer
+   * thread stopped.
+   *
+   * @throws IOException if writing a document failed, if the writer thread stopped before it wrote
+   *     all documents, or if the thread was interrupted
+   */
+  void flush() throws IOException {
+    synchronized (this) {
+      try {
+        while (pendingDocuments > 0 && failure == null && !stopped) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for documents to be written");
+      }
+    }
+    checkFailure();
+  }
+
+  /**
+   * Waits until all documents are written, and stops the writer thread.
+   *
+   * @throws IOException if writing a document failed, or if the thread was interrupted
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    completedDocuments.add(END);
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for documents to be written");
+    }
+    checkFailure();
+  }
+
+  private synchronized void checkFailure() throws IOException {
+    if (failure != null) {
+      throw new IOException("Could not write document", failure);
+    }
+  }
+
+  /**
+   * Returns the writer thread, e.g., to interrupt it in tests.
+   *
+   * @return the writer thread
+   */
+  Thread thread() {
+    return thread;
+  }
+
+  /**
+   * The loop of the writer thread. Whenever the loop ends before the end of the documents, e.g.,
+   * because the thread was interrupted or writing a document threw an error, the remaining
+   * documents are discarded (see {@link #stop(Deque, IOException)}).
+   */
+  private void writeDocuments() {
+    Deque<DocumentBuffer> batch = new ArrayDeque<>(BATCH_SIZE);
+    var end = false;
+    IOException stopCause =
+        new IOException("The document writer stopped before all documents were written");
+    try {
+      while (!end) {
+        batch.add(completedDocuments.take());
+        completedDocuments.drainTo(batch, BATCH_SIZE - 1);
+
+        DocumentBuffer buffer;
+        while ((buffer = batch.poll()) != null) {
+          if (buffer == END) {
+            end = true;
+          } else {
+            writeDocument(buffer);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      stopCause = new InterruptedIOException("The document writer was interrupted");
+    } finally {
+      stop(batch, end ? null : stopCause);
+    }
+  }
+
+  /**
+   * Marks the writer thread as stopped, and discards the documents it did not write, so that
+   * neither {@link #flush()} nor {@link #write(Path, DocumentContent)} wait for it anymore.
+   *
+   * @param batch the documents the writer thread took, but did not write
+   * @param cause the failure to report, or {@code null} if the end of the documents was reached
+   */
+  private synchronized void stop(Deque<DocumentBuffer> batch, IOException cause) {
+    stopped = true;
+    if (cause != null && failure == null) {
+      failure = cause;
+    }
+
+    completedDocuments.drainTo(batch);
+    for (var buffer : batch) {
+      if (buffer != END) {
+        release(buffer);
+        pendingDocuments--;
+      }
+    }
+    notifyAll();
+  }
+
+  private void writeDocument(DocumentBuffer buffer) {
+    IOException exception = null;
+    try {
+      if (!hasFailed()) {
+        fileWriter.write(buffer.path, buffer.chars, buffer.length);
+      }
+    } catch (IOException e) {
+      exception = e;
+    } catch (RuntimeException e) {
+      exception = new IOException(e);
+    } finally {
+      release(buffer);
+      synchronized (this) {
+        if (exception != null && failure == null) {
+          failure = exception;
+        }
+        pendingDocuments--;
+        notifyAll();
+      }
+    }
+  }
+
+  private synchronized boolean hasFailed() {
+    return failure != null;
+  }
+
+  private void release(DocumentBuffer buffer) {
+    freeBuffers.add(
+        buffer.chars.length > MAX_RETAINED_BUFFER_CAPACITY
+            ? new DocumentBuffer(INITIAL_BUFFER_CAPACITY)
+            : buffer.reset());
+  }
+
+  /**
+   * Writes documents on the calling thread, i.e., without a writer thread. Like the writer thread,
+   * it reuses one buffer and one {@link DocumentFileWriter} for all documents. Writing is
+   * synchronized, so an instance can be shared by several threads.
+   */
+  static class DirectWriter {
+
+    private final DocumentFileWriter fileWriter;
+    private DocumentBuffer buffer = new DocumentBuffer(INITIAL_BUFFER_CAPACITY);
+
+    /**
+     * Creates the writer.
+     *
+     * @param checksums the checksums to record the documents in
+     */
+    DirectWriter(OutputChecksums checksums) {
+      fileWriter = new DocumentFileWriter(checksums);
+    }
+
+    /**
+     * Renders a document into the buffer and writes it.
+     *
+     * @param path the path of the document
+     * @param content the content of the document
+     * @throws IOException if the document cannot be rendered or written
+     */
+    synchronized void write(Path path, DocumentContent content) throws IOException {
+      try {
+        content.writeTo(buffer);
+        fileWriter.write(path, buffer.chars, buffer.length);
+      } finally {
+        buffer =
+            buffer.chars.length > MAX_RETAINED_BUFFER_CAPACITY
+                ? new DocumentBuffer(INITIAL_BUFFER_CAPACITY)
+                : buffer.reset();
+      }
+    }
+  }
+
+  /** The content of a document, which is written to a writer. */
+  @FunctionalInterface
+  interface DocumentContent {
+
+    /**
+     * Writes the content.
+     *
+     * @param out the writer
+     * @throws IOException if the content cannot be written
+     */
+    void writeTo(Writer out) throws IOException;
+  }
+
+  /**
+   * A reusable in-memory buffer for the content of a document. Unlike {@link
+   * java.io.CharArrayWriter}, it is not synchronized, as it is only used by one thread at a time.
+   */
+  static class DocumentBuffer extends Writer {
+
+    private char[] chars;
+    private int length;
+    private Path path;
+
+    DocumentBuffer(int capacity) {
+      chars = new char[capacity];
+    }
+
+    @Override
+    public void write(int c) {
+      ensureCapacity(1);
+      chars[length++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int count) {
+      ensureCapacity(count);
+      System.arraycopy(buffer, offset, chars, length, count);
+      length += count;
+    }
+
+    @Override
+    public void write(String string, int offset, int count) {
+      ensureCapacity(count);
+      string.getChars(offset, offset + count, chars, length);
+      length += count;
+    }
+
+    @Override
+    public void flush() {
+      // the content is written by the writer thread
+    }
+
+    @Override
+    public void close() {
+      // the buffer is reused
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars, 0, length);
+    }
+
+    private DocumentBuffer reset() {
+      length = 0;
+      path = null;
+      return this;
+    }
+
+    private void ensureCapacity(int count) {
+      if (length + count > chars.length) {
+        chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+      }
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.MultiTemplateLoader;
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Renderer that processes FreeMarker templates, i.e., the templates {@code test.ftlh} and {@code
+ * index.ftlh}.
+ *
+ * <p>Templates are loaded from a template directory, if one is configured. Templates that do not
+ * exist in the template directory are loaded from the built-in templates of the plugin.
+ */
+class FreemarkerRenderer implements DocumentRenderer {
+
+  private static final String TEMPLATE_DIRECTORY = "/templates";
+  private static final String TEST_TEMPLATE = "test.ftlh";
+  private static final String INDEX_TEMPLATE = "index.ftlh";
+  private static final SourceTextDirective SOURCE_TEXT_DIRECTIVE = new SourceTextDirective();
+
+  private final Configuration configuration;
+  private final Template testTemplate;
+  private final Template indexTemplate;
+
+  /**
+   * Creates the renderer and loads the templates.
+   *
+   * @param templateDirectory the directory of custom templates, or {@code null} to use the built-in
+   *     templates
+   */
+  FreemarkerRenderer(String templateDirectory) {
+    // Configure FreeMarker
+    configuration = new Configuration(Configuration.VERSION_2_3_31);
+    configuration.setTemplateLoader(templateLoader(templateDirectory));
+    configuration.setObjectWrapper(new ModelObjectWrapper(Configuration.VERSION_2_3_31));
+
+    // Load the templates
+    testTemplate = initializeTemplate(TEST_TEMPLATE);
+    indexTemplate = initializeTemplate(INDEX_TEMPLATE);
+  }
+
+  @Override
+  public void renderTestDocument(TestSet testSet, Writer out) throws IOException {
+    try {
+      var environment = testTemplate.createProcessingEnvironment(testSet, out);
+      // Global variables are resolved before the data model, i.e., without a failed lookup
+      environment.setGlobalVariable(SourceTextDirective.NAME, SOURCE_TEXT_DIRECTIVE);
+      environment.process();
+    } catch (TemplateException e) {
+      throw new RuntimeException(
+          "Could not process the test documentation template and data model", e);
+    }
+  }
+
+  @Override
+  public void renderIndexDocument(DocumentIndex index, Writer out) throws IOException {
+    try {
+      indexTemplate.process(index, out);
+    } catch (TemplateException e) {
+      throw new RuntimeException("Could not process the index template and data model", e);
+    }
+  }
+
+  private TemplateLoader templateLoader(String templateDirectory) {
+    var builtInTemplates = new ClassTemplateLoader(FreemarkerRenderer.class, TEMPLATE_DIRECTORY);
+    if (templateDirectory == null || templateDirectory.isBlank()) {
+      return builtInTemplates;
+    }
+
+    try {
+      return new MultiTemplateLoader(
+          new TemplateLoader[] {
+            new FileTemplateLoader(new File(templateDirectory)), builtInTemplates
+          });
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read templates from " + templateDirectory, e);
+    }
+  }
+
+  /**
+   * Initializes the template from the given file using the Freemarker configuration.
+   *
+   * @param templateFile the path to the template file within the template directory
+   * @return the template
+   */
+  private Template initializeTemplate(String templateFile) {
+    try {
+      return configuration.getTemplate(templateFile);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
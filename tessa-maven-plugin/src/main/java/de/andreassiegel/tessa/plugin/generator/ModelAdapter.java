@@ -0,0 +1,124 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.ext.beans.StringModel;
+import freemarker.template.AdapterTemplateModel;
+import freemarker.template.SimpleNumber;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateBooleanModel;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * Base class for template models that expose an object of the data model to templates without bean
+ * introspection.
+ *
+ * <p>Subclasses return the values that templates use directly from the object (see {@link
+ * #get(String)}). Any other key is looked up in the bean model of the object, so templates can
+ * still access everything they could access with FreeMarker's default object wrapper.
+ *
+ * @param <T> the type of the object
+ */
+abstract class ModelAdapter<T> implements TemplateHashModel, AdapterTemplateModel {
+
+  /** The object exposed by the template model. */
+  protected final T object;
+
+  private final BeansWrapper wrapper;
+  private TemplateHashModel beanModel;
+
+  /**
+   * Creates the template model for an object.
+   *
+   * @param object the object
+   * @param wrapper the wrapper for other values of the object
+   */
+  ModelAdapter(T object, BeansWrapper wrapper) {
+    this.object = object;
+    this.wrapper = wrapper;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return false;
+  }
+
+  @Override
+  public Object getAdaptedObject(Class<?> hint) {
+    return object;
+  }
+
+  /**
+   * Looks up a key in the bean model of the object. The bean model is only created if a template
+   * uses a key that the subclass does not handle itself.
+   *
+   * @param key the key
+   * @return the value, or {@code null} if the object does not have a property or method with that
+   *     name
+   * @throws TemplateModelException if the value cannot be retrieved
+   */
+  protected TemplateModel bean(String key) throws TemplateModelException {
+    if (beanModel == null) {
+      beanModel = new StringModel(object, wrapper);
+    }
+    return beanModel.get(key);
+  }
+
+  /**
+   * Wraps a value with the wrapper of the template model, e.g., a map or a list.
+   *
+   * @param value the value
+   * @return the wrapped value
+   * @throws TemplateModelException if the value cannot be wrapped
+   */
+  protected TemplateModel wrap(Object value) throws TemplateModelException {
+    return wrapper.wrap(value);
+  }
+
+  /**
+   * Wraps a string.
+   *
+   * @param value the string
+   * @return the wrapped string, or {@code null} if the string is {@code null}
+   */
+  protected static TemplateModel scalar(String value) {
+    return value != null ? new SimpleScalar(value) : null;
+  }
+
+  /**
+   * Wraps a number.
+   *
+   * @param value the number
+   * @return the wrapped number
+   */
+  protected static TemplateModel number(int value) {
+    return new SimpleNumber(value);
+  }
+
+  /**
+   * Wraps a boolean value.
+   *
+   * @param value the boolean value
+   * @return the wrapped boolean value
+   */
+  protected static TemplateModel bool(boolean value) {
+    return value ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
+  }
+}
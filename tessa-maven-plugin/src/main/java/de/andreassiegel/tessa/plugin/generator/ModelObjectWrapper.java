@@ -0,0 +1,62 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.TestStep;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.Version;
+
+/**
+ * Object wrapper that exposes the data model to templates through purpose-built template models
+ * (see {@link ModelAdapter}) instead of bean introspection and reflective getter calls.
+ *
+ * <p>Values of other types, e.g., strings, maps, and lists, are wrapped like FreeMarker's default
+ * object wrapper does.
+ */
+class ModelObjectWrapper extends DefaultObjectWrapper {
+
+  /**
+   * Creates the object wrapper.
+   *
+   * @param incompatibleImprovements the FreeMarker version to be compatible with
+   */
+  ModelObjectWrapper(Version incompatibleImprovements) {
+    super(incompatibleImprovements);
+  }
+
+  @Override
+  protected TemplateModel handleUnknownType(Object obj) throws TemplateModelException {
+    if (obj instanceof TestStep testStep) {
+      return new TestStepAdapter(testStep, this);
+    } else if (obj instanceof TestCase testCase) {
+      return new TestCaseAdapter(testCase, this);
+    } else if (obj instanceof TestSet testSet) {
+      return new TestSetAdapter(testSet, this);
+    } else if (obj instanceof DocumentIndexItem item) {
+      return new DocumentIndexItemAdapter(item, this);
+    } else if (obj instanceof DocumentIndex index) {
+      return new DocumentIndexAdapter(index, this);
+    }
+    return super.handleUnknownType(obj);
+  }
+}
@@ -0,0 +1,231 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The checksums of the documents in the output directory, which are written to a manifest file in
+ * the output directory (see {@link #FILE_NAME}).
+ *
+ * <p>The manifest uses the format of {@code sha256sum}, i.e., every line contains the SHA-256
+ * checksum of a document and its path relative to the output directory, so that the documents can
+ * be verified with {@code sha256sum -c checksums.sha256}. Downstream steps can compare the manifest
+ * with the one of a previous build to process only changed documents.
+ *
+ * <p>Checksums can be recorded from several threads at the same time.
+ */
+class OutputChecksums {
+
+  /** The name of the manifest file in the output directory. */
+  static final String FILE_NAME = "checksums.sha256";
+
+  /**
+   * The separator between checksum and path, which marks the path as text for {@code sha256sum}.
+   */
+  private static final String SEPARATOR = "  ";
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  /** The encoding of checksums. */
+  static final HexFormat HEX = HexFormat.of();
+
+  private final Path outputDirectory;
+  private final Map<String, String> previousChecksums;
+  private final Map<String, String> checksums = new ConcurrentHashMap<>();
+  private final AtomicInteger writtenCount = new AtomicInteger();
+  private final AtomicInteger unchangedCount = new AtomicInteger();
+
+  private OutputChecksums(Path outputDirectory, Map<String, String> previousChecksums) {
+    this.outputDirectory = outputDirectory;
+    this.previousChecksums = previousChecksums;
+  }
+
+  /**
+   * Creates the checksums for an output directory. The manifest of the previous build is read, if
+   * it exists, so that the checksums of documents that are not generated again can be kept (see
+   * {@link #retain(Path)}).
+   *
+   * @param outputDirectory the output directory
+   * @return the checksums
+   */
+  static OutputChecksums load(Path outputDirectory) {
+    var outputPath = outputDirectory.toAbsolutePath().normalize();
+    var previousChecksums = new HashMap<String, String>();
+    try {
+      for (var line : Files.readAllLines(outputPath.resolve(FILE_NAME), UTF_8)) {
+        var separator = line.indexOf(SEPARATOR);
+        if (separator > 0) {
+          previousChecksums.put(
+              line.substring(separator + SEPARATOR.length()), line.substring(0, separator));
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // first build
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read the checksum manifest in " + outputDirectory, e);
+    }
+    return new OutputChecksums(outputPath, previousChecksums);
+  }
+
+  /**
+   * Records the checksum of a generated document. Documents outside the output directory are not
+   * recorded.
+   *
+   * @param document the path of the document
+   * @param checksum the checksum of the content
+   * @param written {@code true} if the document was written, {@code false} if the file already had
+   *     the same content
+   */
+  void record(Path document, String checksum, boolean written) {
+    (written ? writtenCount : unchangedCount).incrementAndGet();
+    var name = name(document);
+    if (name != null) {
+      checksums.put(name, checksum);
+    }
+  }
+
+  /**
+   * Records the checksum of an existing document that is still part of the output, but was not
+   * generated again. The checksum from the previous manifest is used, if there is one.
+   *
+   * @param document the path of the document
+   * @throws IOException if the document cannot be read
+   */
+  void retain(Path document) throws IOException {
+    var name = name(document);
+    if (name == null) {
+      return;
+    }
+
+    var checksum = previousChecksums.get(name);
+    if (checksum == null) {
+      checksum = HEX.formatHex(newDigest().digest(Files.readAllBytes(document)));
+    }
+    checksums.put(name, checksum);
+  }
+
+  /**
+   * Deletes the stale documents, i.e., the documents that are listed in the manifest of the
+   * previous build, but were neither generated nor retained in the current build, e.g., the
+   * documents of deleted or renamed test classes.
+   *
+   * <p>A stale document is only deleted if its content still has the checksum from the previous
+   * manifest, so documents that were modified since, or that were written by another build, are
+   * kept.
+   *
+   * @return the number of deleted documents
+   * @throws IOException if a stale document cannot be read or deleted
+   */
+  int deleteStaleDocuments() throws IOException {
+    var deleted = 0;
+    for (var previous : new TreeMap<>(previousChecksums).entrySet()) {
+      if (checksums.containsKey(previous.getKey())) {
+        continue;
+      }
+
+      var document = outputDirectory.resolve(previous.getKey()).normalize();
+      if (name(document) != null
+          && Files.isRegularFile(document)
+          && previous
+              .getValue()
+              .equals(HEX.formatHex(newDigest().digest(Files.readAllBytes(document))))
+          && Files.deleteIfExists(document)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Returns the content of the manifest, i.e., the checksums of all recorded documents, sorted by
+   * path.
+   *
+   * @return the manifest content
+   */
+  String manifest() {
+    var manifest = new StringBuilder();
+    new TreeMap<>(checksums)
+        .forEach(
+            (name, checksum) ->
+                manifest.append(checksum).append(SEPARATOR).append(name).append('\n'));
+    return manifest.toString();
+  }
+
+  /**
+   * Returns the path of the manifest file.
+   *
+   * @return the manifest path
+   */
+  Path manifestFile() {
+    return outputDirectory.resolve(FILE_NAME);
+  }
+
+  /**
+   * Returns the number of documents that were written because their content changed.
+   *
+   * @return the number of written documents
+   */
+  int getWrittenCount() {
+    return writtenCount.get();
+  }
+
+  /**
+   * Returns the number of documents that were not written because the file already had the same
+   * content.
+   *
+   * @return the number of unchanged documents
+   */
+  int getUnchangedCount() {
+    return unchangedCount.get();
+  }
+
+  /**
+   * Creates a new message digest for checksums.
+   *
+   * @return the message digest
+   */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the JVM", e);
+    }
+  }
+
+  /** Returns the path of a document relative to the output directory, or {@code null}. */
+  private String name(Path document) {
+    var path = document.toAbsolutePath().normalize();
+    if (!path.startsWith(outputDirectory) || path.equals(manifestFile())) {
+      return null;
+    }
+    return outputDirectory.relativize(path).toString().replace('\\', '/');
+  }
+}
@@ -0,0 +1,128 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.SourceText;
+import freemarker.core.Environment;
+import freemarker.template.AdapterTemplateModel;
+import freemarker.template.TemplateDirectiveBody;
+import freemarker.template.TemplateDirectiveModel;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Template directive that writes a {@link SourceText} directly to the output of the template, e.g.,
+ * {@code <@text value=section.infoText/>}.
+ *
+ * <p>Unlike an interpolation, the directive does not create a string for the text: The text is
+ * written from its source code, and its indentation is removed while it is written. The text is
+ * escaped for HTML like an interpolation in an {@code .ftlh} template.
+ */
+class SourceTextDirective implements TemplateDirectiveModel {
+
+  /** The name the directive is available under in templates. */
+  static final String NAME = "text";
+
+  private static final String VALUE_PARAMETER = "value";
+
+  @Override
+  public void execute(
+      Environment env,
+      @SuppressWarnings("rawtypes") Map params,
+      TemplateModel[] loopVars,
+      TemplateDirectiveBody body)
+      throws TemplateException, IOException {
+    var value = params.get(VALUE_PARAMETER);
+    if (value instanceof AdapterTemplateModel adapter
+        && adapter.getAdaptedObject(SourceText.class) instanceof SourceText text) {
+      text.writeTo(new HtmlEscapingWriter(env.getOut()));
+    } else if (value != null) {
+      throw new TemplateModelException(
+          "The \"" + VALUE_PARAMETER + "\" parameter of @" + NAME + " must be a source text");
+    }
+  }
+
+  /**
+   * Escapes the characters that FreeMarker escapes for HTML output, and writes everything else as
+   * it is.
+   */
+  static class HtmlEscapingWriter extends FilterWriter {
+
+    HtmlEscapingWriter(Writer out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      var escaped = escape((char) c);
+      if (escaped != null) {
+        out.write(escaped);
+      } else {
+        out.write(c);
+      }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+      int copied = offset;
+      for (int i = offset; i < offset + length; i++) {
+        var escaped = escape(buffer[i]);
+        if (escaped != null) {
+          out.write(buffer, copied, i - copied);
+          out.write(escaped);
+          copied = i + 1;
+        }
+      }
+      out.write(buffer, copied, offset + length - copied);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+      int copied = offset;
+      for (int i = offset; i < offset + length; i++) {
+        var escaped = escape(string.charAt(i));
+        if (escaped != null) {
+          out.write(string, copied, i - copied);
+          out.write(escaped);
+          copied = i + 1;
+        }
+      }
+      out.write(string, copied, offset + length - copied);
+    }
+
+    @Override
+    public void close() {
+      // the output of the template is closed by the generator
+    }
+
+    private static String escape(char c) {
+      return switch (c) {
+        case '<' -> "&lt;";
+        case '>' -> "&gt;";
+        case '&' -> "&amp;";
+        case '"' -> "&quot;";
+        case '\'' -> "&#39;";
+        default -> null;
+      };
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * Template model for a {@link TestCase}.
+ *
+ * <p>Templates look up the sections and their levels once for every section, so the wrapped maps
+ * are kept for the lifetime of the template model.
+ */
+class TestCaseAdapter extends ModelAdapter<TestCase> {
+
+  private TemplateModel sections;
+  private TemplateModel sectionLevels;
+
+  /**
+   * Creates the template model for a test case.
+   *
+   * @param testCase the test case
+   * @param wrapper the wrapper for other values of the test case
+   */
+  TestCaseAdapter(TestCase testCase, BeansWrapper wrapper) {
+    super(testCase, wrapper);
+  }
+
+  @Override
+  public TemplateModel get(String key) throws TemplateModelException {
+    return switch (key) {
+      case "title" -> scalar(object.getTitle());
+      case "methodName" -> scalar(object.getMethodName());
+      case "description" -> scalar(object.getDescription());
+      case "status" -> scalar(object.getStatus());
+      case "disabledNote" -> scalar(object.getDisabledNote());
+      case "furtherInformation" -> scalar(object.getFurtherInformation());
+      case "furtherInformationText" -> wrap(object.getFurtherInformationText());
+      case "sections" -> sections();
+      case "sectionLevels" -> sectionLevels();
+      case "sectioned" -> bool(object.isSectioned());
+      case "beginLine" -> number(object.getBeginLine());
+      case "endLine" -> number(object.getEndLine());
+      default -> bean(key);
+    };
+  }
+
+  private TemplateModel sections() throws TemplateModelException {
+    if (sections == null) {
+      sections = wrap(object.getSections());
+    }
+    return sections;
+  }
+
+  private TemplateModel sectionLevels() throws TemplateModelException {
+    if (sectionLevels == null) {
+      sectionLevels = wrap(object.getSectionLevels());
+    }
+    return sectionLevels;
+  }
+}
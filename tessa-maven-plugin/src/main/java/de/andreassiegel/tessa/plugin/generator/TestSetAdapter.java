@@ -0,0 +1,85 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * Template model for a {@link TestSet}.
+ *
+ * <p>The link to the test file and the path are the same for all test cases of the test set, so
+ * they are computed once instead of for every test case that refers to them. Likewise, the wrapped
+ * test cases and category levels are kept, as templates look them up once for every category.
+ */
+class TestSetAdapter extends ModelAdapter<TestSet> {
+
+  private final TemplateModel path;
+  private final TemplateModel link;
+  private TemplateModel testCases;
+  private TemplateModel categoryLevels;
+
+  /**
+   * Creates the template model for a test set.
+   *
+   * @param testSet the test set
+   * @param wrapper the wrapper for other values of the test set
+   */
+  TestSetAdapter(TestSet testSet, BeansWrapper wrapper) {
+    super(testSet, wrapper);
+    this.path = scalar(testSet.getPath());
+    this.link = scalar(testSet.getLink());
+  }
+
+  @Override
+  public TemplateModel get(String key) throws TemplateModelException {
+    return switch (key) {
+      case "title" -> scalar(object.getTitle());
+      case "className" -> scalar(object.getClassName());
+      case "description" -> scalar(object.getDescription());
+      case "status" -> scalar(object.getStatus());
+      case "disabledNote" -> scalar(object.getDisabledNote());
+      case "setup" -> scalar(object.getSetup());
+      case "cleanup" -> scalar(object.getCleanup());
+      case "furtherInformation" -> scalar(object.getFurtherInformation());
+      case "furtherInformationText" -> wrap(object.getFurtherInformationText());
+      case "testCases" -> testCases();
+      case "categoryLevels" -> categoryLevels();
+      case "categoryNumbers" -> wrap(object.getCategoryNumbers());
+      case "categorized" -> bool(object.isCategorized());
+      case "path" -> path;
+      case "link" -> link;
+      default -> bean(key);
+    };
+  }
+
+  private TemplateModel testCases() throws TemplateModelException {
+    if (testCases == null) {
+      testCases = wrap(object.getTestCases());
+    }
+    return testCases;
+  }
+
+  private TemplateModel categoryLevels() throws TemplateModelException {
+    if (categoryLevels == null) {
+      categoryLevels = wrap(object.getCategoryLevels());
+    }
+    return categoryLevels;
+  }
+}
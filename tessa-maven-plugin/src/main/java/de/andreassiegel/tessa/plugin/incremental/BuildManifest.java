@@ -0,0 +1,275 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The manifest of an incremental build. It records the state of every processed input file, so that
+ * files that did not change since the previous build can be skipped. The test documentation data
+ * models of the files are kept in the {@link ModelCache}, keyed by the content hash recorded here.
+ *
+ * <p>The manifest is stored in a compact binary file. It is only valid for the configuration it was
+ * created with: if the configuration fingerprint changes, e.g., because the output directory or the
+ * plugin version changed, the previous manifest is discarded and all files are processed again.
+ *
+ * <p>Looking up previous entries and recording new ones is thread-safe.
+ */
+public class BuildManifest {
+
+  private static final int MAGIC = 0x54455353; // "TESS"
+  private static final int VERSION = 3;
+
+  private final Path manifestFile;
+  private final String configurationFingerprint;
+
+  private final Map<String, ManifestEntry> previousEntries;
+  private final Map<String, ManifestEntry> currentEntries = new ConcurrentHashMap<>();
+
+  private BuildManifest(
+      Path manifestFile,
+      String configurationFingerprint,
+      Map<String, ManifestEntry> previousEntries) {
+    this.manifestFile = manifestFile;
+    this.configurationFingerprint = configurationFingerprint;
+    this.previousEntries = previousEntries;
+  }
+
+  /**
+   * Loads the manifest of the previous build.
+   *
+   * <p>If there is no manifest file, it cannot be read, or it was created with a different
+   * configuration, the returned manifest does not contain any previous entries, i.e., all files are
+   * considered changed.
+   *
+   * @param manifestFile the path of the manifest file
+   * @param configurationFingerprint the fingerprint of the current configuration
+   * @return the manifest
+   */
+  public static BuildManifest load(Path manifestFile, String configurationFingerprint) {
+    Map<String, ManifestEntry> entries = new HashMap<>();
+    if (Files.isRegularFile(manifestFile)) {
+      try (var in =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)))) {
+        if (in.readInt() == MAGIC
+            && in.readInt() == VERSION
+            && configurationFingerprint.equals(in.readUTF())) {
+          var count = in.readInt();
+          for (int i = 0; i < count; i++) {
+            var entry = readEntry(in);
+            entries.put(entry.getSourceFile(), entry);
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        // an unreadable manifest is treated like a missing one
+        entries.clear();
+      }
+    }
+
+    return new BuildManifest(manifestFile, configurationFingerprint, entries);
+  }
+
+  /**
+   * Finds the entry of the previous build for an input file, if the file did not change since.
+   *
+   * <p>A file is considered unchanged if its size and modification time match the previous entry,
+   * or if its content hash matches. In the latter case, the returned entry is updated with the
+   * current size and modification time.
+   *
+   * @param sourceFile the path of the input file
+   * @param state the current state of the input file
+   * @return an {@link Optional} containing the entry if the file did not change, {@code
+   *     Optional.empty()} otherwise
+   * @throws IOException if the content hash of the file cannot be computed
+   */
+  public Optional<ManifestEntry> findUnchanged(Path sourceFile, FileState state)
+      throws IOException {
+    var previous = previousEntries.get(key(sourceFile));
+    if (previous == null) {
+      return Optional.empty();
+    }
+
+    if (previous.getSize() == state.getSize()
+        && previous.getLastModified() == state.getLastModified()) {
+      return Optional.of(previous);
+    }
+
+    if (previous.getSize() == state.getSize()
+        && previous.getContentHash().equals(state.getContentHash())) {
+      return Optional.of(
+          previous.toBuilder().size(state.getSize()).lastModified(state.getLastModified()).build());
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Finds the entry of an input file from the previous build, regardless of whether the file
+   * changed since.
+   *
+   * @param sourceFile the path of the input file
+   * @return an {@link Optional} containing the entry, or {@code Optional.empty()} if the file was
+   *     not processed in the previous build
+   */
+  public Optional<ManifestEntry> findPrevious(Path sourceFile) {
+    return Optional.ofNullable(previousEntries.get(key(sourceFile)));
+  }
+
+  /**
+   * Finds the hash of the data model of an input file from the previous build, regardless of
+   * whether the file changed since. If the model of a changed file has the same hash, its documents
+   * do not have to be generated again.
+   *
+   * @param sourceFile the path of the input file
+   * @return an {@link Optional} containing the model hash, or {@code Optional.empty()} if the file
+   *     was not processed in the previous build
+   */
+  public Optional<String> findPreviousModelHash(Path sourceFile) {
+    return findPrevious(sourceFile).map(ManifestEntry::getModelHash);
+  }
+
+  /**
+   * Creates a new entry for an input file.
+   *
+   * @param sourceFile the path of the input file
+   * @param state the state of the input file
+   * @return the entry
+   * @throws IOException if the content hash of the file cannot be computed
+   */
+  public static ManifestEntry entry(Path sourceFile, FileState state) throws IOException {
+    return entry(sourceFile, state, null);
+  }
+
+  /**
+   * Creates a new entry for an input file and the hash of its data model.
+   *
+   * @param sourceFile the path of the input file
+   * @param state the state of the input file
+   * @param modelHash the hash of the data model (see {@link ModelHash})
+   * @return the entry
+   * @throws IOException if the content hash of the file cannot be computed
+   */
+  public static ManifestEntry entry(Path sourceFile, FileState state, String modelHash)
+      throws IOException {
+    return ManifestEntry.builder()
+        .sourceFile(key(sourceFile))
+        .size(state.getSize())
+        .lastModified(state.getLastModified())
+        .contentHash(state.getContentHash())
+        .modelHash(modelHash)
+        .build();
+  }
+
+  /**
+   * Records an entry for the current build.
+   *
+   * @param entry the entry
+   */
+  public void record(ManifestEntry entry) {
+    currentEntries.put(entry.getSourceFile(), entry);
+  }
+
+  /**
+   * Writes the entries recorded for the current build to the manifest file. Entries of the previous
+   * build that were not recorded again, e.g., because the input file was deleted, are dropped.
+   *
+   * <p>The file is written to a temporary file first and then moved, so that an interrupted build
+   * never leaves a partially written manifest behind.
+   *
+   * @throws IOException if the manifest cannot be written
+   */
+  public void save() throws IOException {
+    Files.createDirectories(manifestFile.toAbsolutePath().getParent());
+    var tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+
+    List<ManifestEntry> entries = new ArrayList<>(currentEntries.values());
+    entries.sort(Comparator.comparing(ManifestEntry::getSourceFile));
+
+    try (var out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeUTF(configurationFingerprint);
+      out.writeInt(entries.size());
+      for (var entry : entries) {
+        writeEntry(out, entry);
+      }
+    }
+
+    Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static String key(Path sourceFile) {
+    return sourceFile.toAbsolutePath().normalize().toString();
+  }
+
+  private static void writeEntry(DataOutputStream out, ManifestEntry entry) throws IOException {
+    writeString(out, entry.getSourceFile());
+    out.writeLong(entry.getSize());
+    out.writeLong(entry.getLastModified());
+    writeString(out, entry.getContentHash());
+    writeString(out, entry.getModelHash());
+  }
+
+  private static ManifestEntry readEntry(DataInputStream in) throws IOException {
+    return ManifestEntry.builder()
+        .sourceFile(readString(in))
+        .size(in.readLong())
+        .lastModified(in.readLong())
+        .contentHash(readString(in))
+        .modelHash(readString(in))
+        .build();
+  }
+
+  /**
+   * Writes a string that may be {@code null} and is not limited in length, unlike {@link
+   * DataOutputStream#writeUTF(String)}.
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    var bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    var length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new String(in.readNBytes(length), UTF_8);
+  }
+}
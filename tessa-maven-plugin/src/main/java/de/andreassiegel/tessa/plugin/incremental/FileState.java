@@ -0,0 +1,100 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import lombok.Getter;
+
+/**
+ * The state of a file that is used to detect changes between builds: its size, its last
+ * modification time, and the hash of its content.
+ *
+ * <p>The content hash is computed lazily, because size and modification time are usually enough to
+ * tell that a file has not changed.
+ */
+public class FileState {
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  private final Path path;
+
+  @Getter private final long size;
+  @Getter private final long lastModified;
+
+  private String contentHash;
+
+  private FileState(Path path, long size, long lastModified) {
+    this.path = path;
+    this.size = size;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Reads the size and the modification time of a file.
+   *
+   * @param path the file path
+   * @return the file state
+   * @throws IOException if the file attributes cannot be read
+   */
+  public static FileState of(Path path) throws IOException {
+    var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    return new FileState(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+  }
+
+  /**
+   * Returns the hash of the file content. It is computed on first access.
+   *
+   * @return the hex encoded SHA-256 hash of the file content
+   * @throws IOException if the file cannot be read
+   */
+  public String getContentHash() throws IOException {
+    if (contentHash == null) {
+      contentHash = hash(path);
+    }
+    return contentHash;
+  }
+
+  /**
+   * Computes the hash of the content of a file.
+   *
+   * @param path the file path
+   * @return the hex encoded SHA-256 hash of the file content
+   * @throws IOException if the file cannot be read
+   */
+  static String hash(Path path) throws IOException {
+    return HexFormat.of().formatHex(newDigest().digest(Files.readAllBytes(path)));
+  }
+
+  /**
+   * Creates a new message digest for content hashes.
+   *
+   * @return the message digest
+   */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the JVM", e);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * An entry of the {@link BuildManifest}. It describes the state of an input file at the time it was
+ * processed.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ManifestEntry {
+
+  /** The path of the input file. */
+  private String sourceFile;
+
+  /** The size of the input file in bytes. */
+  private long size;
+
+  /** The last modification time of the input file in milliseconds since the epoch. */
+  private long lastModified;
+
+  /** The hex encoded SHA-256 hash of the input file content. */
+  private String contentHash;
+
+  /**
+   * The hex encoded hash of the test documentation data model of the input file (see {@link
+   * ModelHash}), or {@code null} if it is unknown.
+   */
+  private String modelHash;
+}
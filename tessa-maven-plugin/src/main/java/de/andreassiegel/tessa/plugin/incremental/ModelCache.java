@@ -0,0 +1,246 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the test documentation data models of input files, keyed by the content hash of the
+ * input file. It allows to rebuild the index, or any other output that is derived from all test
+ * sets, without parsing unchanged files again.
+ *
+ * <p>The cache is stored in a compact binary file (see {@link ModelCodec}). When it is loaded, the
+ * file is read into memory and only the table of entries is decoded; the models of an entry are
+ * decoded when it is requested. Loading a cache with thousands of entries therefore only takes a
+ * few milliseconds, regardless of the size of the models.
+ *
+ * <p>The file is deliberately not memory-mapped: a mapping is only released on garbage collection,
+ * and on Windows a mapped file cannot be replaced when the cache is saved.
+ *
+ * <p>Only entries that are requested or added during a build are written back when the cache is
+ * saved. Requested entries are copied without decoding them again.
+ *
+ * <p>Looking up and adding entries is thread-safe.
+ */
+public class ModelCache {
+
+  private static final int MAGIC = 0x54534D43; // "TSMC"
+  private static final int VERSION = 3;
+  private static final int HASH_LENGTH = 32;
+
+  private static final HexFormat HEX = HexFormat.of();
+
+  /** The location of an entry in the content of the cache file. */
+  record Slice(int offset, int length) {}
+
+  private final Path cacheFile;
+  private final String configurationFingerprint;
+
+  private final ByteBuffer previousContent;
+  private final Map<String, Slice> previousEntries;
+
+  private final Map<String, Slice> retainedEntries = new ConcurrentHashMap<>();
+  private final Map<String, byte[]> currentEntries = new ConcurrentHashMap<>();
+
+  private ModelCache(
+      Path cacheFile,
+      String configurationFingerprint,
+      ByteBuffer previousContent,
+      Map<String, Slice> previousEntries) {
+    this.cacheFile = cacheFile;
+    this.configurationFingerprint = configurationFingerprint;
+    this.previousContent = previousContent;
+    this.previousEntries = previousEntries;
+  }
+
+  /**
+   * Loads the cache of the previous build.
+   *
+   * <p>If there is no cache file, it cannot be read, or it was created with a different
+   * configuration, the returned cache is empty.
+   *
+   * @param cacheFile the path of the cache file
+   * @param configurationFingerprint the fingerprint of the current configuration
+   * @return the cache
+   */
+  public static ModelCache load(Path cacheFile, String configurationFingerprint) {
+    var content = ByteBuffer.allocate(0);
+    Map<String, Slice> entries = new HashMap<>();
+    if (Files.isRegularFile(cacheFile)) {
+      try {
+        content = ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+        readEntries(content, configurationFingerprint, entries);
+      } catch (IOException | RuntimeException e) {
+        // an unreadable cache is treated like a missing one
+        entries.clear();
+      }
+    }
+
+    return new ModelCache(cacheFile, configurationFingerprint, content, entries);
+  }
+
+  private static void readEntries(
+      ByteBuffer content, String configurationFingerprint, Map<String, Slice> entries) {
+    var in = content.duplicate();
+    if (in.getInt() != MAGIC
+        || in.getInt() != VERSION
+        || !configurationFingerprint.equals(ModelCodec.readString(in))) {
+      return;
+    }
+
+    var count = in.getInt();
+    var hash = new byte[HASH_LENGTH];
+    for (int i = 0; i < count; i++) {
+      in.get(hash);
+      var length = in.getInt();
+      entries.put(HEX.formatHex(hash), new Slice(in.position(), length));
+      in.position(in.position() + length);
+    }
+  }
+
+  /**
+   * Returns the test sets of an input file.
+   *
+   * @param contentHash the hex encoded SHA-256 hash of the input file content
+   * @return an {@link Optional} containing the test sets if the cache contains an entry for the
+   *     hash, {@code Optional.empty()} otherwise
+   */
+  public Optional<List<TestSet>> get(String contentHash) {
+    var testSets = decode(contentHash);
+    var slice = previousEntries.get(contentHash);
+    if (testSets.isPresent() && slice != null && !currentEntries.containsKey(contentHash)) {
+      retainedEntries.put(contentHash, slice);
+    }
+    return testSets;
+  }
+
+  private Optional<List<TestSet>> decode(String contentHash) {
+    var current = currentEntries.get(contentHash);
+    if (current != null) {
+      return Optional.of(ModelCodec.decode(ByteBuffer.wrap(current)));
+    }
+
+    var slice = previousEntries.get(contentHash);
+    if (slice == null) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(ModelCodec.decode(previousContent.slice(slice.offset(), slice.length())));
+    } catch (RuntimeException e) {
+      // a corrupt entry is treated like a missing one
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns the test cases of an input file by their {@link TestCase#getSourceFingerprint() source
+   * fingerprint}, so that they can be reused for unchanged test methods when a changed version of
+   * the file is read.
+   *
+   * <p>Unlike {@link #get(String)}, this does not retain the entry when the cache is saved: the
+   * test cases belong to a superseded version of the file.
+   *
+   * @param contentHash the hex encoded SHA-256 hash of the input file content
+   * @return the test cases by source fingerprint, or an empty map if the cache does not contain an
+   *     entry for the hash
+   */
+  public Map<String, TestCase> getTestCases(String contentHash) {
+    Map<String, TestCase> testCases = new HashMap<>();
+    decode(contentHash).stream()
+        .flatMap(Collection::stream)
+        .flatMap(testSet -> testSet.getTestCases().values().stream())
+        .flatMap(Collection::stream)
+        .filter(testCase -> testCase.getSourceFingerprint() != null)
+        .forEach(testCase -> testCases.putIfAbsent(testCase.getSourceFingerprint(), testCase));
+    return testCases;
+  }
+
+  /**
+   * Adds the test sets of an input file to the cache.
+   *
+   * <p>The test sets are encoded immediately, so they may be modified afterwards.
+   *
+   * @param contentHash the hex encoded SHA-256 hash of the input file content
+   * @param testSets the test sets
+   */
+  public void put(String contentHash, List<TestSet> testSets) {
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      ModelCodec.encode(out, testSets);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to encode test sets", e);
+    }
+    currentEntries.put(contentHash, bytes.toByteArray());
+  }
+
+  /**
+   * Writes the entries that were requested or added during the current build to the cache file.
+   *
+   * <p>The file is written to a temporary file first and then moved, so that an interrupted build
+   * never leaves a partially written cache behind.
+   *
+   * @throws IOException if the cache cannot be written
+   */
+  public void save() throws IOException {
+    Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+    var tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+
+    Map<String, ByteBuffer> entries = new TreeMap<>();
+    retainedEntries.forEach(
+        (hash, slice) -> entries.put(hash, previousContent.slice(slice.offset(), slice.length())));
+    currentEntries.forEach((hash, bytes) -> entries.put(hash, ByteBuffer.wrap(bytes)));
+
+    try (var out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      ModelCodec.writeString(out, configurationFingerprint);
+      out.writeInt(entries.size());
+      var buffer = new byte[8192];
+      for (var entry : entries.entrySet()) {
+        out.write(HEX.parseHex(entry.getKey()));
+        var content = entry.getValue();
+        out.writeInt(content.remaining());
+        while (content.hasRemaining()) {
+          var length = Math.min(buffer.length, content.remaining());
+          content.get(buffer, 0, length);
+          out.write(buffer, 0, length);
+        }
+      }
+    }
+
+    Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+}
@@ -0,0 +1,244 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.TestStep;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of the test documentation data model, i.e., of {@link TestSet}, {@link TestCase}
+ * and {@link TestStep} instances.
+ *
+ * <p>Models are encoded through their public getters. The values returned by the getters already
+ * include fallback values, which are stable when they are passed through the builder again, so a
+ * decoded model renders exactly like the original one. The base URL for links is not part of the
+ * encoding, since it is injected from the plugin configuration. The source fingerprints of test
+ * cases are encoded for the model cache only, since they are not part of the test documentation
+ * (see {@link ModelHash}).
+ *
+ * <p>Decoding reads from a {@link ByteBuffer} so that models can be read directly from a
+ * memory-mapped file.
+ */
+class ModelCodec {
+
+  private ModelCodec() {}
+
+  /**
+   * Encodes a list of test sets.
+   *
+   * @param out the output to write to
+   * @param testSets the test sets
+   * @throws IOException if writing fails
+   */
+  static void encode(DataOutputStream out, List<TestSet> testSets) throws IOException {
+    encode(out, testSets, true);
+  }
+
+  /**
+   * Encodes a list of test sets, optionally without the source fingerprints of the test cases.
+   * Without the fingerprints, the encoding only depends on the test documentation.
+   *
+   * @param out the output to write to
+   * @param testSets the test sets
+   * @param sourceFingerprints whether the source fingerprints are encoded
+   * @throws IOException if writing fails
+   */
+  static void encode(DataOutputStream out, List<TestSet> testSets, boolean sourceFingerprints)
+      throws IOException {
+    out.writeInt(testSets.size());
+    for (var testSet : testSets) {
+      encode(out, testSet, sourceFingerprints);
+    }
+  }
+
+  /**
+   * Decodes a list of test sets.
+   *
+   * @param in the buffer to read from, starting at its current position
+   * @return the test sets
+   */
+  static List<TestSet> decode(ByteBuffer in) {
+    var count = in.getInt();
+    List<TestSet> testSets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      testSets.add(decodeTestSet(in));
+    }
+    return testSets;
+  }
+
+  private static void encode(DataOutputStream out, TestSet testSet, boolean sourceFingerprints)
+      throws IOException {
+    writeString(out, testSet.getPath());
+    writeString(out, testSet.getClassName());
+    writeString(out, testSet.getTitle());
+    writeString(out, testSet.getDescription());
+    writeString(out, testSet.getStatus());
+    writeString(out, testSet.getDisabledNote());
+    writeString(out, testSet.getFurtherInformation());
+    writeString(out, testSet.getSetup());
+    writeString(out, testSet.getCleanup());
+    out.writeBoolean(testSet.isCategorized());
+
+    out.writeInt(testSet.getTestCases().size());
+    for (Map.Entry<String, List<TestCase>> category : testSet.getTestCases().entrySet()) {
+      writeString(out, category.getKey());
+      out.writeInt(testSet.getCategoryLevels().getOrDefault(category.getKey(), 0));
+      out.writeInt(category.getValue().size());
+      for (var testCase : category.getValue()) {
+        encode(out, testCase, sourceFingerprints);
+      }
+    }
+  }
+
+  private static TestSet decodeTestSet(ByteBuffer in) {
+    var builder =
+        TestSet.builder()
+            .path(Paths.get(readString(in)))
+            .className(readString(in))
+            .title(readString(in))
+            .description(readString(in))
+            .status(readString(in))
+            .disabledNote(readString(in))
+            .furtherInformation(readString(in))
+            .setup(readString(in))
+            .cleanup(readString(in))
+            .categorized(in.get() != 0);
+
+    var categoryCount = in.getInt();
+    Map<String, List<TestCase>> testCases = new LinkedHashMap<>();
+    Map<String, Integer> categoryLevels = new LinkedHashMap<>();
+    for (int i = 0; i < categoryCount; i++) {
+      var category = readString(in);
+      categoryLevels.put(category, in.getInt());
+      var testCaseCount = in.getInt();
+      List<TestCase> categoryTestCases = new ArrayList<>(testCaseCount);
+      for (int j = 0; j < testCaseCount; j++) {
+        categoryTestCases.add(decodeTestCase(in));
+      }
+      testCases.put(category, categoryTestCases);
+    }
+
+    return builder.testCases(testCases).categoryLevels(categoryLevels).build();
+  }
+
+  private static void encode(DataOutputStream out, TestCase testCase, boolean sourceFingerprints)
+      throws IOException {
+    writeString(out, testCase.getMethodName());
+    writeString(out, testCase.getTitle());
+    writeString(out, testCase.getDescription());
+    writeString(out, testCase.getStatus());
+    writeString(out, testCase.getDisabledNote());
+    writeString(out, testCase.getFurtherInformation());
+    out.writeBoolean(testCase.isSectioned());
+    out.writeInt(testCase.getBeginLine());
+    out.writeInt(testCase.getEndLine());
+    if (sourceFingerprints) {
+      writeString(out, testCase.getSourceFingerprint());
+    }
+
+    out.writeInt(testCase.getSections().size());
+    for (Map.Entry<String, List<TestStep>> section : testCase.getSections().entrySet()) {
+      writeString(out, section.getKey());
+      out.writeInt(testCase.getSectionLevels().getOrDefault(section.getKey(), 0));
+      out.writeInt(section.getValue().size());
+      for (var testStep : section.getValue()) {
+        writeString(out, testStep.getInfo());
+      }
+    }
+  }
+
+  private static TestCase decodeTestCase(ByteBuffer in) {
+    var builder =
+        TestCase.builder()
+            .methodName(readString(in))
+            .title(readString(in))
+            .description(readString(in))
+            .status(readString(in))
+            .disabledNote(readString(in))
+            .furtherInformation(readString(in))
+            .sectioned(in.get() != 0)
+            .beginLine(in.getInt())
+            .endLine(in.getInt())
+            .sourceFingerprint(readString(in));
+
+    var sectionCount = in.getInt();
+    Map<String, List<TestStep>> sections = new LinkedHashMap<>();
+    Map<String, Integer> sectionLevels = new LinkedHashMap<>();
+    for (int i = 0; i < sectionCount; i++) {
+      var section = readString(in);
+      sectionLevels.put(section, in.getInt());
+      var stepCount = in.getInt();
+      List<TestStep> steps = new ArrayList<>(stepCount);
+      for (int j = 0; j < stepCount; j++) {
+        steps.add(TestStep.builder().info(readString(in)).build());
+      }
+      sections.put(section, steps);
+    }
+
+    return builder.sections(sections).sectionLevels(sectionLevels).build();
+  }
+
+  /**
+   * Writes a string that may be {@code null} and is not limited in length, unlike {@link
+   * DataOutputStream#writeUTF(String)}.
+   *
+   * @param out the output to write to
+   * @param value the string
+   * @throws IOException if writing fails
+   */
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    var bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+   *
+   * @param in the buffer to read from
+   * @return the string, or {@code null}
+   */
+  static String readString(ByteBuffer in) {
+    var length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    if (in.hasArray()) {
+      var value = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8);
+      in.position(in.position() + length);
+      return value;
+    }
+    var bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -0,0 +1,64 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A structural hash of the test documentation data model of a test file, i.e., of everything that
+ * is rendered into its documents: titles, descriptions, statuses, categories, sections, steps, and
+ * line ranges.
+ *
+ * <p>Most changes of test files only affect the implementation of the tests, but not the Javadoc
+ * comments, annotations, and comments the documentation is read from. If the model of a changed
+ * file has the same hash as in the previous build, its documents are still up to date.
+ *
+ * <p>The hash is computed over the binary encoding of the model that is also used by the {@link
+ * ModelCache}, which is deterministic for equal models. The source fingerprints of the test cases
+ * are left out, since they change with the code of the test methods.
+ */
+public class ModelHash {
+
+  private static final HexFormat HEX = HexFormat.of();
+
+  private ModelHash() {}
+
+  /**
+   * Computes the hash of the data model of a test file.
+   *
+   * @param testSets the test sets of the test file
+   * @return the hex encoded SHA-256 hash
+   */
+  public static String of(List<TestSet> testSets) {
+    var digest = FileState.newDigest();
+    try (var out =
+        new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+      ModelCodec.encode(out, testSets, false);
+    } catch (IOException e) {
+      // the null output stream does not throw
+      throw new UncheckedIOException(e);
+    }
+    return HEX.formatHex(digest.digest());
+  }
+}
@@ -0,0 +1,228 @@
+package de.andreassiegel.tessa.plugin.model;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable, ordered map of named groups of values with a nesting level per group, e.g., the
+ * test cases of a test set by category, or the test steps of a test case by section.
+ *
+ * <p>All groups are stored in flat arrays: the names, the levels, the end of each group, and the
+ * values of all groups one after the other. Compared to a map of lists plus a map of levels, this
+ * saves the map entries, the lists and the boxed levels, which add up for large test suites. Group
+ * names are interned, since the same names, e.g., "Arrange", "Act" and "Assert", are used all over
+ * a test suite.
+ *
+ * <p>The map keeps the iteration order of the map it is created from. Lookups by name are linear,
+ * since there are only a few groups.
+ *
+ * @param <T> the type of the values
+ */
+final class GroupedValues<T> extends AbstractMap<String, List<T>> {
+
+  private static final GroupedValues<?> EMPTY =
+      new GroupedValues<>(new String[0], new int[0], new int[0], new Object[0]);
+
+  private final String[] names;
+  private final int[] levels;
+  private final int[] ends;
+  private final Object[] values;
+
+  private GroupedValues(String[] names, int[] levels, int[] ends, Object[] values) {
+    this.names = names;
+    this.levels = levels;
+    this.ends = ends;
+    this.values = values;
+  }
+
+  /**
+   * Creates the grouped values from a map of groups and a map of levels.
+   *
+   * @param groups the values by group name, may be {@code null}
+   * @param levels the levels by group name, may be {@code null}; groups without a level are
+   *     top-level groups
+   * @param <T> the type of the values
+   * @return the grouped values
+   */
+  @SuppressWarnings("unchecked")
+  static <T> GroupedValues<T> of(
+      Map<String, ? extends List<? extends T>> groups, Map<String, Integer> levels) {
+    if (groups instanceof GroupedValues<?> groupedValues
+        && (levels == null || levels.equals(groupedValues.levels()))) {
+      return (GroupedValues<T>) groupedValues;
+    }
+    if (groups == null || groups.isEmpty()) {
+      return (GroupedValues<T>) EMPTY;
+    }
+
+    var names = new String[groups.size()];
+    var groupLevels = new int[groups.size()];
+    var ends = new int[groups.size()];
+    var values = new Object[groups.values().stream().mapToInt(List::size).sum()];
+    int index = 0;
+    int end = 0;
+    for (var group : groups.entrySet()) {
+      names[index] = ModelUtil.intern(group.getKey());
+      groupLevels[index] = levels == null ? 0 : levels.getOrDefault(group.getKey(), 0);
+      for (var value : group.getValue()) {
+        values[end++] = value;
+      }
+      ends[index++] = end;
+    }
+    return new GroupedValues<>(names, groupLevels, ends, values);
+  }
+
+  /**
+   * Returns the name of a group.
+   *
+   * @param index the index of the group
+   * @return the name
+   */
+  String name(int index) {
+    return names[index];
+  }
+
+  /**
+   * Returns the nesting level of a group.
+   *
+   * @param index the index of the group
+   * @return the level, {@code 0} for top-level groups
+   */
+  int level(int index) {
+    return levels[index];
+  }
+
+  /**
+   * Returns the values of a group.
+   *
+   * @param index the index of the group
+   * @return an unmodifiable view of the values
+   */
+  @SuppressWarnings("unchecked")
+  List<T> group(int index) {
+    var start = index == 0 ? 0 : ends[index - 1];
+    return Collections.unmodifiableList(
+        (List<T>) Arrays.asList(values).subList(start, ends[index]));
+  }
+
+  /**
+   * Returns the nesting levels of all groups.
+   *
+   * @return an unmodifiable view of the levels by group name
+   */
+  Map<String, Integer> levels() {
+    return new AbstractMap<>() {
+      @Override
+      public Integer get(Object key) {
+        var index = indexOf(key);
+        return index < 0 ? null : levels[index];
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+      }
+
+      @Override
+      public Set<Entry<String, Integer>> entrySet() {
+        return new Entries<>(index -> levels[index]);
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return names.length;
+  }
+
+  @Override
+  public List<T> get(Object key) {
+    var index = indexOf(key);
+    return index < 0 ? null : group(index);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public Set<Entry<String, List<T>>> entrySet() {
+    return new Entries<>(this::group);
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < names.length; i++) {
+      if (Objects.equals(names[i], key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The entries of the groups, in their order.
+   *
+   * @param <V> the type of the entry values
+   */
+  private final class Entries<V> extends AbstractSet<Entry<String, V>> {
+
+    private final IntFunction<V> value;
+
+    Entries(IntFunction<V> value) {
+      this.value = value;
+    }
+
+    @Override
+    public int size() {
+      return names.length;
+    }
+
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+      return new Iterator<>() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return index < names.length;
+        }
+
+        @Override
+        public Entry<String, V> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          var entry = new SimpleImmutableEntry<>(names[index], value.apply(index));
+          index++;
+          return entry;
+        }
+      };
+    }
+  }
+}
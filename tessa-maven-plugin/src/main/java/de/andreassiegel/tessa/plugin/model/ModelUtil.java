@@ -33,4 +33,29 @@ public class ModelUtil {
   static String valueOrFallback(String value, String fallbackValue) {
     return value == null || value.isEmpty() || value.isBlank() ? fallbackValue : value;
   }
+
+  /**
+   * Returns the text if it is neither {@code null}, nor blank.
+   *
+   * @param value the text
+   * @param fallbackValue the fallback value, may be {@code null}
+   * @return either the provided text or the fallback
+   */
+  static SourceText valueOrFallback(SourceText value, SourceText fallbackValue) {
+    return value == null || value.isBlank() ? fallbackValue : value;
+  }
+
+  /**
+   * Returns the canonical representation of a value that is repeated across many models, e.g., a
+   * section name or a status.
+   *
+   * <p>Values read from test files are separate instances even if they are equal, so without
+   * interning a large test suite keeps many copies of the same few values.
+   *
+   * @param value the value, may be {@code null}
+   * @return the canonical representation of the value, or {@code null}
+   */
+  static String intern(String value) {
+    return value == null ? null : value.intern();
+  }
 }
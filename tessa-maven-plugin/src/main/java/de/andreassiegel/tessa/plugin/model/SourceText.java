@@ -0,0 +1,221 @@
+package de.andreassiegel.tessa.plugin.model;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * A text of the data model that is a slice of the source code of a test file, e.g., the content of
+ * a comment, optionally without the indentation of its lines.
+ *
+ * <p>The text refers to the source code instead of copying it, so no strings are created between
+ * parsing and rendering: The indentation is skipped while the text is written with {@link
+ * #writeTo(Writer)}. A string is only created if the text is requested as such, see {@link
+ * #toString()}. The source code is either a string, e.g., the content of a comment node, or a
+ * buffer that is shared by all texts of a file.
+ *
+ * <p>Indentation means spaces and tabs at the beginning of a line, as matched by the regular
+ * expression {@code (?m)^[ \t]+}. Linebreaks are left intact.
+ */
+public final class SourceText {
+
+  private final CharSequence source;
+  private final int begin;
+  private final int end;
+  private final boolean stripIndentation;
+
+  private SourceText(CharSequence source, int begin, int end, boolean stripIndentation) {
+    this.source = source;
+    this.begin = begin;
+    this.end = end;
+    this.stripIndentation = stripIndentation;
+  }
+
+  /**
+   * Creates the text of a string as it is.
+   *
+   * @param source the string
+   * @return the text, or {@code null} if the string is {@code null}
+   */
+  public static SourceText of(String source) {
+    return source == null ? null : new SourceText(source, 0, source.length(), false);
+  }
+
+  /**
+   * Creates the text of a string without indentation.
+   *
+   * @param source the string
+   * @return the text
+   */
+  public static SourceText withoutIndentation(String source) {
+    return new SourceText(source, 0, source.length(), true);
+  }
+
+  /**
+   * Creates the text of a range of a source code buffer without indentation.
+   *
+   * @param source the source code buffer, which must not be modified afterwards
+   * @param begin the begin of the range (inclusive)
+   * @param end the end of the range (exclusive)
+   * @return the text
+   */
+  public static SourceText withoutIndentation(char[] source, int begin, int end) {
+    return new SourceText(CharBuffer.wrap(source), begin, end, true);
+  }
+
+  /**
+   * Returns the text without leading and trailing whitespace, like {@link String#trim()}.
+   *
+   * @return the trimmed text
+   */
+  public SourceText trim() {
+    int trimmedBegin = begin;
+    int trimmedEnd = end;
+    while (trimmedBegin < trimmedEnd && source.charAt(trimmedBegin) <= ' ') {
+      trimmedBegin++;
+    }
+    while (trimmedEnd > trimmedBegin && source.charAt(trimmedEnd - 1) <= ' ') {
+      trimmedEnd--;
+    }
+    return trimmedBegin == begin && trimmedEnd == end
+        ? this
+        : new SourceText(source, trimmedBegin, trimmedEnd, stripIndentation);
+  }
+
+  /**
+   * Checks whether the text is empty or consists of whitespace only, like {@link String#isBlank()}.
+   *
+   * @return {@code true} if the text is blank, {@code false} otherwise
+   */
+  public boolean isBlank() {
+    for (int i = begin; i < end; i++) {
+      if (!Character.isWhitespace(source.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the text without indentation.
+   *
+   * @param out the writer to write to
+   * @throws IOException if writing fails
+   */
+  public void writeTo(Writer out) throws IOException {
+    int copied = begin;
+    int position = begin;
+    while (position < end) {
+      int indentationEnd = indentationEnd(position);
+      if (indentationEnd > position) {
+        write(out, copied, position);
+        copied = indentationEnd;
+        position = indentationEnd;
+      }
+      position = lineEnd(position);
+    }
+    write(out, copied, end);
+  }
+
+  /**
+   * Returns the text without indentation as a string.
+   *
+   * @return the text
+   */
+  @Override
+  public String toString() {
+    if (source instanceof String string
+        && begin == 0
+        && end == string.length()
+        && !hasIndentation()) {
+      return string;
+    }
+
+    var result = new StringBuilder(end - begin);
+    int position = begin;
+    while (position < end) {
+      position = indentationEnd(position);
+      int lineEnd = lineEnd(position);
+      result.append(source, position, lineEnd);
+      position = lineEnd;
+    }
+    return result.toString();
+  }
+
+  private boolean hasIndentation() {
+    if (!stripIndentation) {
+      return false;
+    }
+    for (int position = begin; position < end; position = lineEnd(position)) {
+      if (indentationEnd(position) > position) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Skips the spaces and tabs at the beginning of a line, if the indentation is removed.
+   *
+   * @param lineBegin the beginning of the line
+   * @return the position after the indentation
+   */
+  private int indentationEnd(int lineBegin) {
+    if (!stripIndentation) {
+      return lineBegin;
+    }
+    int position = lineBegin;
+    while (position < end && (source.charAt(position) == ' ' || source.charAt(position) == '\t')) {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * Finds the beginning of the next line.
+   *
+   * @param position a position in the current line
+   * @return the position after the next line terminator, or the end of the text
+   */
+  private int lineEnd(int position) {
+    while (position < end) {
+      if (isLineTerminator(source.charAt(position++))) {
+        return position;
+      }
+    }
+    return end;
+  }
+
+  private void write(Writer out, int from, int to) throws IOException {
+    if (from >= to) {
+      return;
+    }
+    if (source instanceof String string) {
+      out.write(string, from, to - from);
+    } else if (source instanceof CharBuffer buffer && buffer.hasArray()) {
+      out.write(buffer.array(), buffer.arrayOffset() + from, to - from);
+    } else {
+      out.append(source, from, to);
+    }
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
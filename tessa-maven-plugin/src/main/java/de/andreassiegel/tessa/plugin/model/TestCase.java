@@ -16,26 +16,26 @@ package de.andreassiegel.tessa.plugin.model;
  * limitations under the License.
  */
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Builder;
-import lombok.Builder.Default;
 import lombok.Getter;
 
 /**
  * The data model for test cases. A test case is the representation of a test method may contain
  * several steps.
  *
+ * <p>Test cases are immutable. Fallback values are applied once when a test case is built, and the
+ * test steps are stored in a compact form (see {@link GroupedValues}).
+ *
  * @see TestStep
  */
-@Builder
 public class TestCase {
 
   // region Field Declarations
 
   /** The name of the test method. */
-  @Getter private String methodName;
+  @Getter private final String methodName;
 
   /**
    * The title of the test case.
@@ -43,14 +43,14 @@ public class TestCase {
    * <p>The value is read from the {@code DisplayName} annotation of the test method (at method
    * level).
    */
-  private String title;
+  private final String title;
 
   /**
    * The description of the test.
    *
    * <p>The content is read from the Javadoc comment of the test method.
    */
-  private String description;
+  private final String description;
 
   /**
    * The status of the test case, e.g., {@code DRAFT}, {@code IN REVIEW}, {@code DOCUMENTED}, or
@@ -58,28 +58,28 @@ public class TestCase {
    *
    * <p>The value is read from the {@code Status} annotation of the test method (at method level).
    */
-  private String status;
+  private final String status;
 
   /**
    * The optional warning for a disabled test case.
    *
    * <p>The value is read from the {@code Disabled} annotation of the test method (at method level).
    */
-  private String disabledNote;
+  private final String disabledNote;
 
   /**
    * Further details about the tes case, e.g., additional information.
    *
    * <p>The information is read from the first block comment inside the test method.
    */
-  private String furtherInformation;
+  private final SourceText furtherInformation;
 
   /** Flag indicating whether test steps are organized in sections. */
-  @Getter private boolean sectioned;
+  @Getter private final boolean sectioned;
 
   /**
-   * The specific test steps. Test steps are organized in sections, e.g., "Arrange", "Act" or
-   * "Assert".
+   * The specific test steps and the nesting levels of their sections. Test steps are organized in
+   * sections, e.g., "Arrange", "Act" or "Assert".
    *
    * <p>Sections are derived from regions in the test methods that are used to structure the test
    * implementation in the method. A region is defined by line comments:
@@ -93,14 +93,100 @@ public class TestCase {
    * }</pre>
    *
    * <p>If no regions are used in a test method, test steps get added to a default section.
+   *
+   * <p>Regions can be nested, and every nested region results in a section that follows its
+   * enclosing section, with a nesting level starting at {@code 0} for top-level sections.
    */
-  @Getter @Default private Map<String, List<TestStep>> sections = new HashMap<>();
+  private final GroupedValues<TestStep> sections;
 
   /** The line number of the begin of the test method. */
-  @Getter private Integer beginLine;
+  @Getter private final int beginLine;
 
   /** The line number of the end of the test method. */
-  @Getter private Integer endLine;
+  @Getter private final int endLine;
+
+  /**
+   * The fingerprint of the source code the test case was read from, i.e., of the test method and
+   * its comment, or {@code null} if it is unknown.
+   *
+   * <p>Test cases with the same fingerprint are read from the same source code, so a test case can
+   * be reused for an unchanged method of a changed file, even if the method moved to other lines.
+   * The fingerprint is not part of the test documentation.
+   */
+  @Getter private final String sourceFingerprint;
+
+  // endregion
+
+  /**
+   * Creates a test case. Use {@link #builder()} to build test cases.
+   *
+   * @param methodName the name of the test method
+   * @param title the title
+   * @param description the description
+   * @param status the status
+   * @param disabledNote the note about a disabled test case
+   * @param furtherInformation further information
+   * @param sectioned flag indicating whether test steps are organized in sections
+   * @param sections the test steps by section
+   * @param sectionLevels the nesting levels of the sections; sections without a level are top-level
+   *     sections
+   * @param beginLine the line number of the begin of the test method
+   * @param endLine the line number of the end of the test method
+   * @param sourceFingerprint the fingerprint of the source code of the test method
+   */
+  @Builder
+  private TestCase(
+      String methodName,
+      String title,
+      String description,
+      String status,
+      String disabledNote,
+      SourceText furtherInformation,
+      boolean sectioned,
+      Map<String, List<TestStep>> sections,
+      Map<String, Integer> sectionLevels,
+      int beginLine,
+      int endLine,
+      String sourceFingerprint) {
+    this.methodName = methodName;
+    this.title = ModelUtil.valueOrFallback(title, methodName);
+    this.description = ModelUtil.valueOrFallback(description, "N/A");
+    this.status = ModelUtil.intern(ModelUtil.valueOrFallback(status, null));
+    this.disabledNote = ModelUtil.intern(ModelUtil.valueOrFallback(disabledNote, null));
+    this.furtherInformation = ModelUtil.valueOrFallback(furtherInformation, null);
+    this.sectioned = sectioned;
+    this.sections = GroupedValues.of(sections, sectionLevels);
+    this.beginLine = beginLine;
+    this.endLine = endLine;
+    this.sourceFingerprint = sourceFingerprint;
+  }
+
+  private TestCase(TestCase testCase, int beginLine) {
+    this.methodName = testCase.methodName;
+    this.title = testCase.title;
+    this.description = testCase.description;
+    this.status = testCase.status;
+    this.disabledNote = testCase.disabledNote;
+    this.furtherInformation = testCase.furtherInformation;
+    this.sectioned = testCase.sectioned;
+    this.sections = testCase.sections;
+    this.beginLine = beginLine;
+    this.endLine = testCase.endLine + beginLine - testCase.beginLine;
+    this.sourceFingerprint = testCase.sourceFingerprint;
+  }
+
+  // region Helper Methods
+
+  /**
+   * Returns a copy of the test case for a test method that begins at another line, e.g., because
+   * lines were added or removed above the unchanged method.
+   *
+   * @param beginLine the line number of the begin of the test method
+   * @return the test case, or this instance if the line number did not change
+   */
+  public TestCase withBeginLine(int beginLine) {
+    return beginLine == this.beginLine ? this : new TestCase(this, beginLine);
+  }
 
   // endregion
 
@@ -112,7 +198,7 @@ public class TestCase {
    * @return the title.
    */
   public String getTitle() {
-    return ModelUtil.valueOrFallback(title, methodName);
+    return title;
   }
 
   /**
@@ -121,7 +207,7 @@ public class TestCase {
    * @return the description
    */
   public String getDescription() {
-    return ModelUtil.valueOrFallback(description, "N/A");
+    return description;
   }
 
   /**
@@ -130,7 +216,7 @@ public class TestCase {
    * @return the status
    */
   public String getStatus() {
-    return ModelUtil.valueOrFallback(status, null);
+    return status;
   }
 
   /**
@@ -140,7 +226,7 @@ public class TestCase {
    * @return the note
    */
   public String getDisabledNote() {
-    return ModelUtil.valueOrFallback(disabledNote, null);
+    return disabledNote;
   }
 
   /**
@@ -149,8 +235,61 @@ public class TestCase {
    * @return the additional information
    */
   public String getFurtherInformation() {
-    return ModelUtil.valueOrFallback(furtherInformation, null);
+    return furtherInformation == null ? null : furtherInformation.toString();
   }
 
-  // region
+  /**
+   * Returns further information about the test case as text that can be written without creating a
+   * string for it. If there are none, {@code null} is returned.
+   *
+   * @return the additional information
+   */
+  public SourceText getFurtherInformationText() {
+    return furtherInformation;
+  }
+
+  /**
+   * Returns the test steps by section, in the order of the sections.
+   *
+   * @return an unmodifiable map of the test steps by section name
+   */
+  public Map<String, List<TestStep>> getSections() {
+    return sections;
+  }
+
+  /**
+   * Returns the nesting levels of the sections, starting at {@code 0} for top-level sections.
+   *
+   * @return an unmodifiable map of the levels by section name
+   */
+  public Map<String, Integer> getSectionLevels() {
+    return sections.levels();
+  }
+
+  // endregion
+
+  /** The builder for test cases. */
+  public static class TestCaseBuilder {
+
+    /**
+     * Sets further information about the test case.
+     *
+     * @param furtherInformation the information
+     * @return the builder
+     */
+    public TestCaseBuilder furtherInformation(SourceText furtherInformation) {
+      this.furtherInformation = furtherInformation;
+      return this;
+    }
+
+    /**
+     * Sets further information about the test case.
+     *
+     * @param furtherInformation the information
+     * @return the builder
+     */
+    public TestCaseBuilder furtherInformation(String furtherInformation) {
+      return furtherInformation(SourceText.of(furtherInformation));
+    }
+  }
 }
@@ -16,32 +16,38 @@ package de.andreassiegel.tessa.plugin.model;
  * limitations under the License.
  */
 
+import static de.andreassiegel.tessa.plugin.model.ModelUtil.intern;
 import static de.andreassiegel.tessa.plugin.model.ModelUtil.valueOrFallback;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Builder;
-import lombok.Builder.Default;
 import lombok.Getter;
 
 /**
  * The data model for test sets. A test set is the representation of a test class that contains test
  * cases.
  *
+ * <p>Test sets are immutable once they are built. They do not refer to the parsed source code, so
+ * that the syntax tree of a test file can be released as soon as its test sets have been built.
+ * Fallback values are applied once when a test set is built, and the test cases are stored in a
+ * compact form (see {@link GroupedValues}).
+ *
  * @see TestCase
  */
-@Builder
 public class TestSet {
 
   // region Field Declarations
 
   /** The path of the source file the test is documented and implemented in. */
-  private Path path;
+  private final Path path;
 
   /** The name of the test class. */
-  private String className;
+  private final String className;
 
   /**
    * The title of the test.
@@ -49,14 +55,14 @@ public class TestSet {
    * <p>The value is read from the {@code DisplayName} annotation of the test class (at class
    * level).
    */
-  private String title;
+  private final String title;
 
   /**
    * The description of the test.
    *
    * <p>The content is read from the Javadoc comment of the test class.
    */
-  private String description;
+  private final String description;
 
   /**
    * The status of the test, e.g., {@code DRAFT}, {@code IN REVIEW}, {@code DOCUMENTED}, or {@code
@@ -64,14 +70,14 @@ public class TestSet {
    *
    * <p>The value is read from the {@code Status} annotation of the test class (at class level).
    */
-  private String status;
+  private final String status;
 
   /**
    * The optional warning for disabled tests.
    *
    * <p>The value is read from the {@code Status} annotation of the test class (at class level).
    */
-  private String disabledNote;
+  private final String disabledNote;
 
   /**
    * Further details about the test, e.g., prerequisites or other additional information.
@@ -79,7 +85,7 @@ public class TestSet {
    * <p>The information is read from the first block comment inside the test class, outside the
    * method scope.
    */
-  private String furtherInformation;
+  private final SourceText furtherInformation;
 
   /**
    * The setup information or steps of the test.
@@ -87,18 +93,18 @@ public class TestSet {
    * <p>The content is read from the Javadoc comment of the method annotated with
    * {@code @BeforeAll}.
    */
-  @Default private String setup = "None";
+  private final String setup;
 
   /**
    * The cleanup information or steps of the test.
    *
    * <p>The content is read from the Javadoc comment of the method annotated with {@code @AfterAll}.
    */
-  @Default private String cleanup = "None";
+  private final String cleanup;
 
   /**
-   * The specific test cases. Test cases are organized in categories, e.g., "Happy Cases" or
-   * "Failure Cases".
+   * The specific test cases and the nesting levels of their categories. Test cases are organized in
+   * categories, e.g., "Happy Cases" or "Failure Cases".
    *
    * <p>Categories are derived from regions in the test file that are used to organize the
    * individual test methods annotated with {@code @Test} or {@code ParameterizedTest}. A region is
@@ -114,30 +120,102 @@ public class TestSet {
    * }</pre>
    *
    * <p>If no regions are used in a test file, test cases get added to a default region.
+   *
+   * <p>Regions can be nested, and every nested region results in a category that follows its
+   * enclosing category, with a nesting level starting at {@code 0} for top-level categories.
    */
-  @Getter @Default private Map<String, List<TestCase>> testCases = new HashMap<>();
+  private final GroupedValues<TestCase> testCases;
 
   /** Flag indicating whether test cases are organized in categories. */
-  @Getter private boolean categorized;
+  @Getter private final boolean categorized;
 
   /** The base URL for links to the test implemntation. */
-  private String linkBaseUrl;
+  private final String linkBaseUrl;
 
   // endregion
 
+  /**
+   * Creates a test set. Use {@link #builder()} to build test sets.
+   *
+   * @param path the path of the source file
+   * @param className the name of the test class
+   * @param title the title
+   * @param description the description
+   * @param status the status
+   * @param disabledNote the note about disabled tests
+   * @param furtherInformation further information
+   * @param setup the setup information
+   * @param cleanup the cleanup information
+   * @param testCases the test cases by category
+   * @param categoryLevels the nesting levels of the categories; categories without a level are
+   *     top-level categories
+   * @param categorized flag indicating whether test cases are organized in categories
+   * @param linkBaseUrl the base URL for links
+   */
+  @Builder
+  private TestSet(
+      Path path,
+      String className,
+      String title,
+      String description,
+      String status,
+      String disabledNote,
+      SourceText furtherInformation,
+      String setup,
+      String cleanup,
+      Map<String, List<TestCase>> testCases,
+      Map<String, Integer> categoryLevels,
+      boolean categorized,
+      String linkBaseUrl) {
+    this.path = path;
+    this.className =
+        valueOrFallback(className, null) != null ? className : path.getFileName().toString();
+    this.title = valueOrFallback(title, this.className);
+    this.description = valueOrFallback(description, "N/A");
+    this.status = intern(valueOrFallback(status, null));
+    this.disabledNote = intern(valueOrFallback(disabledNote, null));
+    this.furtherInformation = valueOrFallback(furtherInformation, null);
+    this.setup = valueOrFallback(setup, "None");
+    this.cleanup = valueOrFallback(cleanup, "None");
+    this.testCases = GroupedValues.of(testCases, categoryLevels);
+    this.categorized = categorized;
+    this.linkBaseUrl = linkBaseUrl;
+  }
+
+  /**
+   * Creates a copy of a test set with another base URL for links.
+   *
+   * @param testSet the test set
+   * @param linkBaseUrl the base URL for links
+   */
+  private TestSet(TestSet testSet, String linkBaseUrl) {
+    this.path = testSet.path;
+    this.className = testSet.className;
+    this.title = testSet.title;
+    this.description = testSet.description;
+    this.status = testSet.status;
+    this.disabledNote = testSet.disabledNote;
+    this.furtherInformation = testSet.furtherInformation;
+    this.setup = testSet.setup;
+    this.cleanup = testSet.cleanup;
+    this.testCases = testSet.testCases;
+    this.categorized = testSet.categorized;
+    this.linkBaseUrl = linkBaseUrl;
+  }
+
   // region Helper Methods
 
   /**
-   * Injects the base URL for links into the model.
+   * Returns a copy of the test set with the base URL for links.
    *
-   * <p>The URL usually is read from the plugin configuration.
+   * <p>The URL usually is read from the plugin configuration. Test sets are immutable, so the same
+   * instance can be cached and rendered with different configurations.
    *
    * @param linkBaseUrl the base URL for links
-   * @return the updated test set data model
+   * @return the test set data model with the base URL
    */
-  public TestSet injectLinkBaseUrl(String linkBaseUrl) {
-    this.linkBaseUrl = linkBaseUrl;
-    return this;
+  public TestSet withLinkBaseUrl(String linkBaseUrl) {
+    return new TestSet(this, linkBaseUrl);
   }
 
   // endregion
@@ -150,7 +228,7 @@ public class TestSet {
    * @return the title.
    */
   public String getTitle() {
-    return valueOrFallback(title, getClassName());
+    return title;
   }
 
   /**
@@ -160,7 +238,7 @@ public class TestSet {
    * @return the class name
    */
   public String getClassName() {
-    return valueOrFallback(className, path.getFileName().toString());
+    return className;
   }
 
   /**
@@ -169,7 +247,7 @@ public class TestSet {
    * @return the description
    */
   public String getDescription() {
-    return valueOrFallback(description, "N/A");
+    return description;
   }
 
   /**
@@ -179,7 +257,7 @@ public class TestSet {
    * @return the status
    */
   public String getStatus() {
-    return valueOrFallback(status, null);
+    return status;
   }
 
   /**
@@ -189,7 +267,7 @@ public class TestSet {
    * @return the note
    */
   public String getDisabledNote() {
-    return valueOrFallback(disabledNote, null);
+    return disabledNote;
   }
 
   /**
@@ -198,7 +276,7 @@ public class TestSet {
    * @return the setup information
    */
   public String getSetup() {
-    return valueOrFallback(setup, "None");
+    return setup;
   }
 
   /**
@@ -208,7 +286,7 @@ public class TestSet {
    * @return the cleanup information
    */
   public String getCleanup() {
-    return valueOrFallback(cleanup, "None");
+    return cleanup;
   }
 
   /**
@@ -217,7 +295,72 @@ public class TestSet {
    * @return the additional information
    */
   public String getFurtherInformation() {
-    return valueOrFallback(furtherInformation, null);
+    return furtherInformation == null ? null : furtherInformation.toString();
+  }
+
+  /**
+   * Returns further information about the test set as text that can be written without creating a
+   * string for it. If there are none, {@code null} is returned.
+   *
+   * @return the additional information
+   */
+  public SourceText getFurtherInformationText() {
+    return furtherInformation;
+  }
+
+  /**
+   * Returns the test cases by category, in the order of the categories.
+   *
+   * @return an unmodifiable map of the test cases by category name
+   */
+  public Map<String, List<TestCase>> getTestCases() {
+    return testCases;
+  }
+
+  /**
+   * Returns the nesting levels of the categories, starting at {@code 0} for top-level categories.
+   *
+   * @return an unmodifiable map of the levels by category name
+   */
+  public Map<String, Integer> getCategoryLevels() {
+    return testCases.levels();
+  }
+
+  /**
+   * Returns the numbers of the categories, e.g., {@code 1}, {@code 2}, or {@code 2.3}.
+   *
+   * <p>Top-level categories are numbered consecutively. Nested categories are numbered after the
+   * test cases of their enclosing category, i.e., the first nested category of a category with two
+   * test cases gets the number {@code <category number>.3}.
+   *
+   * @return the category numbers by category name
+   */
+  public Map<String, String> getCategoryNumbers() {
+    Map<String, String> categoryNumbers = new HashMap<>();
+    Deque<String> enclosingNumbers = new ArrayDeque<>();
+    Deque<Integer> enclosingCounts = new ArrayDeque<>();
+    int topLevelCount = 0;
+    for (int i = 0; i < testCases.size(); i++) {
+      int level = testCases.level(i);
+      while (enclosingNumbers.size() > level) {
+        enclosingNumbers.pop();
+        enclosingCounts.pop();
+      }
+
+      String number;
+      if (enclosingNumbers.isEmpty()) {
+        number = String.valueOf(++topLevelCount);
+      } else {
+        int count = enclosingCounts.pop() + 1;
+        enclosingCounts.push(count);
+        number = enclosingNumbers.peek() + "." + count;
+      }
+
+      categoryNumbers.put(testCases.name(i), number);
+      enclosingNumbers.push(number);
+      enclosingCounts.push(testCases.group(i).size());
+    }
+    return categoryNumbers;
   }
 
   /**
@@ -242,4 +385,29 @@ public class TestSet {
   }
 
   // endregion
+
+  /** The builder for test sets. */
+  public static class TestSetBuilder {
+
+    /**
+     * Sets further information about the test set.
+     *
+     * @param furtherInformation the information
+     * @return the builder
+     */
+    public TestSetBuilder furtherInformation(SourceText furtherInformation) {
+      this.furtherInformation = furtherInformation;
+      return this;
+    }
+
+    /**
+     * Sets further information about the test set.
+     *
+     * @param furtherInformation the information
+     * @return the builder
+     */
+    public TestSetBuilder furtherInformation(String furtherInformation) {
+      return furtherInformation(SourceText.of(furtherInformation));
+    }
+  }
 }
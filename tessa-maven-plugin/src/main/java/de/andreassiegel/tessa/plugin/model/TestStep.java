@@ -17,7 +17,6 @@ package de.andreassiegel.tessa.plugin.model;
  */
 
 import lombok.Builder;
-import lombok.Getter;
 
 /**
  * The data model for a test step. A test step represents something inside a test case.
@@ -30,7 +29,52 @@ public class TestStep {
   /**
    * The information about the test step.
    *
-   * <p>The value is retrieved from line comments and block comments inside a test method.
+   * <p>The value is retrieved from line comments and block comments inside a test method. It refers
+   * to the content of the comment in the source code, see {@link SourceText}.
    */
-  @Getter private String info;
+  private final SourceText info;
+
+  /**
+   * Returns the information about the test step.
+   *
+   * @return the information, or {@code null} if there is none
+   */
+  public String getInfo() {
+    return info == null ? null : info.toString();
+  }
+
+  /**
+   * Returns the information about the test step as text that can be written without creating a
+   * string for it.
+   *
+   * @return the information, or {@code null} if there is none
+   */
+  public SourceText getInfoText() {
+    return info;
+  }
+
+  /** The builder for test steps. */
+  public static class TestStepBuilder {
+
+    /**
+     * Sets the information about the test step.
+     *
+     * @param info the information
+     * @return the builder
+     */
+    public TestStepBuilder info(SourceText info) {
+      this.info = info;
+      return this;
+    }
+
+    /**
+     * Sets the information about the test step.
+     *
+     * @param info the information
+     * @return the builder
+     */
+    public TestStepBuilder info(String info) {
+      return info(SourceText.of(info));
+    }
+  }
 }
@@ -21,7 +21,7 @@ import lombok.Getter;
 
 /** The data model for document index items. */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class DocumentIndexItem {
 
   /** The item title. */
@@ -35,4 +35,10 @@ public class DocumentIndexItem {
 
   /** The status from the index item. */
   private String status;
+
+  /**
+   * The directory containing the item file, relative to the index file. If it is not set, the item
+   * file is located in the directory of the index.
+   */
+  private String directory;
 }
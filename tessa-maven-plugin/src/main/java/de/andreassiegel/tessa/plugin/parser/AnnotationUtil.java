@@ -22,6 +22,8 @@ import com.github.javaparser.ast.expr.MemberValuePair;
 import com.github.javaparser.ast.expr.NormalAnnotationExpr;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import java.util.HashMap;
+import java.util.Map;
 
 /** Utilities for handling annotations in the code, and for retrieving information from them. */
 class AnnotationUtil {
@@ -56,6 +58,42 @@ class AnnotationUtil {
         .orElse("");
   }
 
+  /**
+   * Retrieves the value of an annotation from a map of annotations by name (see {@link
+   * #annotationsByName(NodeWithAnnotations)}).
+   *
+   * @param annotations the annotations by name
+   * @param annotationName the name of the annotation
+   * @return the value of the annotation, or an empty string if the annotation is missing or invalid
+   */
+  static String annotationValueOf(Map<String, AnnotationExpr> annotations, String annotationName) {
+    var annotation = annotations.get(annotationName);
+    return annotation != null ? annotationValue(annotation) : "";
+  }
+
+  /**
+   * Collects the annotations of an annotated node by their simple name, so that several annotations
+   * can be looked up without scanning the annotations again. Annotations written with their
+   * qualified name, e.g., {@code @org.junit.jupiter.api.Test}, are keyed by their simple name as
+   * well. If an annotation occurs several times, the first occurrence is kept, like in {@link
+   * NodeWithAnnotations#getAnnotationByName(String)}.
+   *
+   * @param node the node
+   * @return the annotations by name
+   */
+  static <N extends Node> Map<String, AnnotationExpr> annotationsByName(
+      NodeWithAnnotations<N> node) {
+    if (node == null) {
+      return Map.of();
+    }
+
+    Map<String, AnnotationExpr> annotations = new HashMap<>();
+    for (var annotation : node.getAnnotations()) {
+      annotations.putIfAbsent(annotation.getName().getIdentifier(), annotation);
+    }
+    return annotations;
+  }
+
   /**
    * Retrieves the value from an annotation. This can either be the value of the {@code value}
    * attribute or the only content of the annotation.
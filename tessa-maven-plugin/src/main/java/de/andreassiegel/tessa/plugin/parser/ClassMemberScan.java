@@ -0,0 +1,148 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The information about the members of a class that is needed to document its tests, collected in a
+ * single pass over the members.
+ *
+ * <p>The scan collects the annotations of the class and of every method by name, the first methods
+ * annotated with {@code @BeforeAll} and {@code @AfterAll}, and the test methods. It also orders the
+ * child nodes of the class once, so that regions can select their children without sorting them
+ * again. Test methods are converted to {@link ParsedTestMethod} instances only once, even if they
+ * belong to several (nested) regions.
+ */
+class ClassMemberScan {
+
+  private final Map<String, AnnotationExpr> classAnnotations;
+  private final List<Node> orderedChildNodes;
+
+  private MethodDeclaration beforeAllMethod;
+  private MethodDeclaration afterAllMethod;
+  private final List<MethodDeclaration> testMethods = new ArrayList<>();
+
+  // Syntax tree nodes compare and hash by their content, so they are looked up by identity
+  private final IdentityHashMap<MethodDeclaration, Map<String, AnnotationExpr>>
+      testMethodAnnotations = new IdentityHashMap<>();
+  private final IdentityHashMap<MethodDeclaration, ParsedTestMethod> parsedTestMethods =
+      new IdentityHashMap<>();
+
+  /**
+   * Scans the members of a class declaration.
+   *
+   * @param classDeclaration the class declaration
+   */
+  ClassMemberScan(ClassOrInterfaceDeclaration classDeclaration) {
+    this.classAnnotations = AnnotationUtil.annotationsByName(classDeclaration);
+
+    for (var member : classDeclaration.getMembers()) {
+      if (member instanceof MethodDeclaration method) {
+        scanMethod(method);
+      }
+    }
+
+    this.orderedChildNodes = RegionTree.orderedNodes(classDeclaration.getChildNodes());
+  }
+
+  private void scanMethod(MethodDeclaration method) {
+    var annotations = AnnotationUtil.annotationsByName(method);
+    if (beforeAllMethod == null && annotations.containsKey("BeforeAll")) {
+      beforeAllMethod = method;
+    }
+    if (afterAllMethod == null && annotations.containsKey("AfterAll")) {
+      afterAllMethod = method;
+    }
+    if (MethodDeclarationUtil.hasTestAnnotation(annotations)) {
+      testMethods.add(method);
+      testMethodAnnotations.put(method, annotations);
+    }
+  }
+
+  /**
+   * Retrieves the value of an annotation of the class.
+   *
+   * @param annotationName the name of the annotation
+   * @return the value of the annotation, or an empty string if the annotation is missing or invalid
+   */
+  String classAnnotationValue(String annotationName) {
+    return AnnotationUtil.annotationValueOf(classAnnotations, annotationName);
+  }
+
+  /**
+   * Returns the first method that is annotated with {@code @BeforeAll}.
+   *
+   * @return an {@link Optional} containing the method, {@code Optional.empty()} otherwise
+   */
+  Optional<MethodDeclaration> getBeforeAllMethod() {
+    return Optional.ofNullable(beforeAllMethod);
+  }
+
+  /**
+   * Returns the first method that is annotated with {@code @AfterAll}.
+   *
+   * @return an {@link Optional} containing the method, {@code Optional.empty()} otherwise
+   */
+  Optional<MethodDeclaration> getAfterAllMethod() {
+    return Optional.ofNullable(afterAllMethod);
+  }
+
+  /**
+   * Returns the test methods of the class in declaration order.
+   *
+   * @return the test methods
+   */
+  List<MethodDeclaration> getTestMethods() {
+    return testMethods;
+  }
+
+  /**
+   * Returns the child nodes of the class that have a range, ordered by their begin.
+   *
+   * @return the ordered child nodes
+   */
+  List<Node> getOrderedChildNodes() {
+    return orderedChildNodes;
+  }
+
+  /**
+   * Returns the parsed test methods among the given nodes, in the order of the nodes.
+   *
+   * @param nodes the nodes, e.g., the child nodes of a region
+   * @return the parsed test methods
+   */
+  List<ParsedTestMethod> parsedTestMethods(List<Node> nodes) {
+    List<ParsedTestMethod> methods = new ArrayList<>();
+    for (var node : nodes) {
+      if (node instanceof MethodDeclaration method && testMethodAnnotations.containsKey(method)) {
+        methods.add(
+            parsedTestMethods.computeIfAbsent(
+                method, m -> new ParsedTestMethod(m, testMethodAnnotations.get(m))));
+      }
+    }
+    return methods;
+  }
+}
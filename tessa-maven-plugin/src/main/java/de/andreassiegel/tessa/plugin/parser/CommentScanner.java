@@ -0,0 +1,166 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.SourceText;
+
+/**
+ * Scanner for the content of comments that detects region markers, extracts region names, and
+ * removes indentation without regular expressions.
+ *
+ * <p>Every method makes a single pass over the characters of the comment content, and new strings
+ * are only created for results that differ from the input. The results are the same as for the
+ * regular expressions {@code ^region\s+.*} and {@code ^endregion} on the trimmed content, and
+ * {@code (?m)^[ \t]+} for indentation.
+ */
+class CommentScanner {
+
+  private static final String REGION = "region";
+  private static final String END_REGION = "endregion";
+
+  private CommentScanner() {}
+
+  /**
+   * Checks whether the content of a line comment marks the begin of a region, i.e., it starts with
+   * the {@code region} keyword, followed by whitespaces and a region name.
+   *
+   * @param content the content of the comment
+   * @return {@code true} if the content is the begin of a region, {@code false} otherwise
+   */
+  static boolean isBeginRegion(String content) {
+    return regionNameBegin(content) >= 0;
+  }
+
+  /**
+   * Checks whether the content of a line comment marks the end of a region, i.e., it consists of
+   * the {@code endregion} keyword only.
+   *
+   * @param content the content of the comment
+   * @return {@code true} if the content is the end of a region, {@code false} otherwise
+   */
+  static boolean isEndRegion(String content) {
+    int begin = trimmedBegin(content);
+    int end = trimmedEnd(content, begin);
+    return end - begin == END_REGION.length() && content.startsWith(END_REGION, begin);
+  }
+
+  /**
+   * Extracts the region name from the content of a line comment that marks the begin of a region.
+   *
+   * @param content the content of the comment
+   * @return the name of the region, or an empty string if the content is not the begin of a region
+   */
+  static String regionName(String content) {
+    int nameBegin = regionNameBegin(content);
+    if (nameBegin < 0) {
+      return "";
+    }
+    return content.substring(nameBegin, trimmedEnd(content, nameBegin));
+  }
+
+  /**
+   * Removes leading spaces and tabs from each line of a comment. Linebreaks are left intact.
+   *
+   * <p>Test documentation keeps comment content as {@link SourceText}, which removes the
+   * indentation when it is written. This method creates the same result as a string.
+   *
+   * @param content the content of the comment
+   * @return the content without indentation
+   */
+  static String stripIndentation(String content) {
+    return SourceText.withoutIndentation(content).toString();
+  }
+
+  /**
+   * Determines where the region name begins in the content of a line comment.
+   *
+   * @param content the content of the comment
+   * @return the index of the region name, or {@code -1} if the content is not the begin of a region
+   */
+  private static int regionNameBegin(String content) {
+    int begin = trimmedBegin(content);
+    if (!content.startsWith(REGION, begin)) {
+      return -1;
+    }
+
+    int end = trimmedEnd(content, begin);
+    int nameBegin = begin + REGION.length();
+    while (nameBegin < end && isWhitespace(content.charAt(nameBegin))) {
+      nameBegin++;
+    }
+    if (nameBegin == begin + REGION.length()) {
+      return -1; // no whitespace after the keyword
+    }
+
+    for (int i = nameBegin; i < end; i++) {
+      if (isLineTerminator(content.charAt(i))) {
+        return -1;
+      }
+    }
+    return nameBegin;
+  }
+
+  /**
+   * Returns the index of the first character that would remain after {@link String#trim()}.
+   *
+   * @param content the content
+   * @return the index
+   */
+  private static int trimmedBegin(String content) {
+    int begin = 0;
+    while (begin < content.length() && content.charAt(begin) <= ' ') {
+      begin++;
+    }
+    return begin;
+  }
+
+  /**
+   * Returns the index after the last character that would remain after {@link String#trim()}.
+   *
+   * @param content the content
+   * @param begin the index of the first character that would remain
+   * @return the index
+   */
+  private static int trimmedEnd(String content, int begin) {
+    int end = content.length();
+    while (end > begin && content.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Checks whether a character is a whitespace character, as matched by {@code \s} in regular
+   * expressions.
+   *
+   * @param c the character
+   * @return {@code true} if the character is a whitespace, {@code false} otherwise
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /**
+   * Checks whether a character is a line terminator, as recognized by regular expressions.
+   *
+   * @param c the character
+   * @return {@code true} if the character terminates a line, {@code false} otherwise
+   */
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
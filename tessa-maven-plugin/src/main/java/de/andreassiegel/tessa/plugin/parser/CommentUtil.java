@@ -22,8 +22,7 @@ import com.github.javaparser.ast.comments.BlockComment;
 import com.github.javaparser.ast.comments.Comment;
 import com.github.javaparser.ast.comments.JavadocComment;
 import com.github.javaparser.ast.comments.LineComment;
-import com.github.javaparser.javadoc.Javadoc;
-import com.github.javaparser.javadoc.description.JavadocDescription;
+import de.andreassiegel.tessa.plugin.model.SourceText;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -32,9 +31,6 @@ import java.util.stream.Collectors;
 /** Utilities for handling comments in the code, and for retrieving information from them. */
 class CommentUtil {
 
-  private static final String BEGIN_REGION_REGEX = "^region\\s+";
-  private static final String END_REGION_REGEX = "^endregion";
-
   private CommentUtil() {}
 
   /**
@@ -53,14 +49,22 @@ class CommentUtil {
 
     return node.getComment()
         .filter(Comment::isJavadocComment)
-        .map(Comment::asJavadocComment)
-        .map(JavadocComment::parse)
-        .map(Javadoc::getDescription)
-        .map(JavadocDescription::toText)
-        .map(String::trim)
+        .map(Comment::getContent)
+        .map(CommentUtil::javadocDescription)
         .orElse("");
   }
 
+  /**
+   * Retrieves the main description from the content of a Javadoc comment, i.e., without the
+   * documentation of parameters, return values, throws declarations, etc.
+   *
+   * @param content the content of the Javadoc comment
+   * @return the text of the main description
+   */
+  static String javadocDescription(String content) {
+    return new JavadocComment(content).parse().getDescription().toText().trim();
+  }
+
   /**
    * Retrieves the first block comment from a node.
    *
@@ -71,8 +75,20 @@ class CommentUtil {
    * @return the comment or an empty string if no block comment is found.
    */
   static String firstBlockComment(Node node) {
+    var text = firstBlockCommentText(node);
+    return text != null ? text.toString() : "";
+  }
+
+  /**
+   * Retrieves the first block comment from a node, as a slice of the comment content that is only
+   * turned into a string when needed (see {@link #firstBlockComment(Node)}).
+   *
+   * @param node the node
+   * @return the comment or {@code null} if no block comment is found.
+   */
+  static SourceText firstBlockCommentText(Node node) {
     if (node == null) {
-      return "";
+      return null;
     }
 
     if (node instanceof MethodDeclaration methodDeclaration) {
@@ -87,9 +103,9 @@ class CommentUtil {
         .map(n -> (BlockComment) n)
         .findFirst()
         .map(Comment::getContent)
-        .map(s -> s.replaceAll("(?m)^[ \\t]+", "")) // remove indentation
-        .map(String::trim)
-        .orElse("");
+        .map(SourceText::withoutIndentation)
+        .map(SourceText::trim)
+        .orElse(null);
   }
 
   /**
@@ -177,7 +193,7 @@ class CommentUtil {
   static boolean isRegionComment(LineComment lineComment) {
     return lineComment != null
         && (isBeginRegionComment(lineComment)
-            || lineComment.getContent().trim().matches(END_REGION_REGEX));
+            || CommentScanner.isEndRegion(lineComment.getContent()));
   }
 
   /**
@@ -189,8 +205,7 @@ class CommentUtil {
    *     the comment is {@code null}).
    */
   static boolean isBeginRegionComment(LineComment lineComment) {
-    return lineComment != null
-        && lineComment.getContent().trim().matches(BEGIN_REGION_REGEX + ".*");
+    return lineComment != null && CommentScanner.isBeginRegion(lineComment.getContent());
   }
 
   /**
@@ -200,10 +215,10 @@ class CommentUtil {
    * @return the name of the region, or an empty string if no name can be found in the comment.
    */
   static String regionName(LineComment lineComment) {
-    if (!isBeginRegionComment(lineComment)) {
+    if (lineComment == null) {
       return "";
     }
 
-    return lineComment.getContent().trim().replaceFirst(BEGIN_REGION_REGEX, "");
+    return CommentScanner.regionName(lineComment.getContent());
   }
 }
@@ -0,0 +1,136 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The engines that can be used to extract the test documentation data model from test files.
+ *
+ * <p>Both engines extract the same data model from the same file.
+ */
+public enum ExtractionEngine {
+
+  /**
+   * An engine that parses the file into an abstract syntax tree with JavaParser (see {@link
+   * ParsedTestFile}).
+   *
+   * <p>The engine always reads all test methods, since the whole file is parsed anyway.
+   */
+  AST {
+    @Override
+    public TestFile read(Path filePath, Path basePath, ParserProfile parserProfile)
+        throws IOException {
+      return new ParsedTestFile(filePath, basePath, parserProfile);
+    }
+
+    @Override
+    public List<TestSet> readTestSets(
+        Path filePath,
+        Path basePath,
+        ParserProfile parserProfile,
+        Map<String, TestCase> previousTestCases)
+        throws IOException {
+      return ParsedTestFile.readTestSets(filePath, basePath, parserProfile);
+    }
+  },
+
+  /**
+   * An engine that only tokenizes the file and recognizes the structure of classes, methods and
+   * statements from the tokens (see {@link LexedTestFile}).
+   *
+   * <p>Files whose structure cannot be recognized are read with {@link #AST} instead. Test cases of
+   * test methods whose source code did not change are reused.
+   */
+  LEXER {
+    @Override
+    public TestFile read(Path filePath, Path basePath, ParserProfile parserProfile)
+        throws IOException {
+      try {
+        return new LexedTestFile(filePath, basePath);
+      } catch (SourceStructure.UnrecognizedStructureException e) {
+        return AST.read(filePath, basePath, parserProfile);
+      }
+    }
+
+    @Override
+    public List<TestSet> readTestSets(
+        Path filePath,
+        Path basePath,
+        ParserProfile parserProfile,
+        Map<String, TestCase> previousTestCases)
+        throws IOException {
+      try {
+        return LexedTestFile.readTestSets(filePath, basePath, previousTestCases);
+      } catch (SourceStructure.UnrecognizedStructureException e) {
+        return AST.readTestSets(filePath, basePath, parserProfile);
+      }
+    }
+  };
+
+  /**
+   * Reads a test file with the engine.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @param parserProfile the profile of the parser configuration, if the engine uses a parser
+   * @return the test file
+   * @throws IOException if the file cannot be read
+   */
+  public abstract TestFile read(Path filePath, Path basePath, ParserProfile parserProfile)
+      throws IOException;
+
+  /**
+   * Reads a test file with the engine and converts it straight into test sets. Unlike {@link
+   * #read(Path, Path, ParserProfile)}, nothing of the read file is kept once the test sets have
+   * been built.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @param parserProfile the profile of the parser configuration, if the engine uses a parser
+   * @return the test sets, or an empty list if the file does not contain tests
+   * @throws IOException if the file cannot be read
+   */
+  public List<TestSet> readTestSets(Path filePath, Path basePath, ParserProfile parserProfile)
+      throws IOException {
+    return readTestSets(filePath, basePath, parserProfile, Map.of());
+  }
+
+  /**
+   * Reads a test file with the engine and converts it straight into test sets, like {@link
+   * #readTestSets(Path, Path, ParserProfile)}. Engines may reuse the test cases that were read from
+   * a previous version of the file for test methods whose source code did not change.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @param parserProfile the profile of the parser configuration, if the engine uses a parser
+   * @param previousTestCases the test cases read from a previous version of the file, by their
+   *     {@link TestCase#getSourceFingerprint() source fingerprint}
+   * @return the test sets, or an empty list if the file does not contain tests
+   * @throws IOException if the file cannot be read
+   */
+  public abstract List<TestSet> readTestSets(
+      Path filePath,
+      Path basePath,
+      ParserProfile parserProfile,
+      Map<String, TestCase> previousTestCases)
+      throws IOException;
+}
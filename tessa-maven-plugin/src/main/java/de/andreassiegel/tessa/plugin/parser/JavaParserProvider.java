@@ -0,0 +1,105 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Provides the {@link JavaParser} instances that are used to parse test files.
+ *
+ * <p>A {@link JavaParser} is not thread-safe, but it can be reused for any number of files. Each
+ * thread therefore gets its own parser per {@link ParserProfile}, which is created on first use and
+ * reused afterwards. Unlike {@code StaticJavaParser}, no configuration is shared across the JVM, so
+ * several threads or plugin executions can parse files at the same time.
+ *
+ * <p>A parser keeps the tokens of the last parsed file, and with them the entire syntax tree, until
+ * it parses the next file. Since parsers are reused per thread, the syntax tree would stay in
+ * memory while the documents of the file are generated, and after the last file until the thread
+ * ends. The parser is therefore reset with empty source code after every parse.
+ */
+class JavaParserProvider {
+
+  private static final ThreadLocal<Map<ParserProfile, JavaParser>> PARSERS =
+      ThreadLocal.withInitial(() -> new EnumMap<>(ParserProfile.class));
+
+  /** The source code that is parsed to release the tokens of the last parsed file. */
+  private static final String EMPTY_SOURCE = "";
+
+  private JavaParserProvider() {}
+
+  /**
+   * Parses the file at the given path with the default parser of the current thread.
+   *
+   * @param path the path of the file
+   * @return the compilation unit
+   * @throws IOException if the file cannot be read
+   * @throws ParseProblemException if the file cannot be parsed
+   */
+  static CompilationUnit parse(Path path) throws IOException {
+    return parse(path, ParserProfile.DEFAULT);
+  }
+
+  /**
+   * Parses the file at the given path with the parser of the current thread that uses the given
+   * profile.
+   *
+   * <p>If the file cannot be parsed with a profile other than {@link ParserProfile#DEFAULT}, it is
+   * parsed again with the default profile, so that the result and any reported problems are the
+   * same as without a specific profile.
+   *
+   * @param path the path of the file
+   * @param profile the parser profile
+   * @return the compilation unit
+   * @throws IOException if the file cannot be read
+   * @throws ParseProblemException if the file cannot be parsed
+   */
+  static CompilationUnit parse(Path path, ParserProfile profile) throws IOException {
+    var parser = parser(profile);
+    ParseResult<CompilationUnit> result;
+    try {
+      result = parser.parse(path);
+    } finally {
+      parser.parse(EMPTY_SOURCE);
+    }
+    if (result.isSuccessful() && result.getResult().isPresent()) {
+      return result.getResult().get();
+    }
+
+    if (profile != ParserProfile.DEFAULT) {
+      return parse(path, ParserProfile.DEFAULT);
+    }
+
+    throw new ParseProblemException(result.getProblems());
+  }
+
+  /**
+   * Returns the parser of the current thread for the given profile.
+   *
+   * @param profile the parser profile
+   * @return the parser
+   */
+  static JavaParser parser(ParserProfile profile) {
+    return PARSERS.get().computeIfAbsent(profile, p -> new JavaParser(p.configuration()));
+  }
+}
@@ -0,0 +1,366 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import de.andreassiegel.tessa.plugin.model.SourceText;
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.TestStep;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Representation of a test class whose structure has been recognized from its tokens. It reads the
+ * same information from the class as {@link ParsedTestClass} and {@link ParsedTestMethod}, and
+ * converts it into the same data model.
+ */
+class LexedTestClass {
+
+  private static final String DEFAULT_REGION = "Default";
+
+  private final SourceStructure structure;
+  private final SourceTokens tokens;
+
+  private final String className;
+  private final String displayName;
+  private final String status;
+  private final String disabledNote;
+  private final String description;
+  private final SourceText furtherInformation;
+
+  private final String setup;
+  private final String cleanup;
+
+  private final List<SourceStructure.Method> testMethods = new ArrayList<>();
+  private final IdentityHashMap<SourceStructure.Method, TestCase> testCases =
+      new IdentityHashMap<>();
+  private final Map<String, TestCase> previousTestCases;
+  private final Map<String, Region<SourceStructure.Method>> categories;
+
+  /**
+   * Reads all relevant information from a class.
+   *
+   * @param structure the structure of the file
+   * @param type the class
+   */
+  LexedTestClass(SourceStructure structure, SourceStructure.Type type) {
+    this(structure, type, Map.of());
+  }
+
+  /**
+   * Reads all relevant information from a class, reusing the test cases of test methods whose
+   * source code did not change.
+   *
+   * @param structure the structure of the file
+   * @param type the class
+   * @param previousTestCases the test cases read from a previous version of the file, by their
+   *     {@link TestCase#getSourceFingerprint() source fingerprint}
+   */
+  LexedTestClass(
+      SourceStructure structure,
+      SourceStructure.Type type,
+      Map<String, TestCase> previousTestCases) {
+    this.structure = structure;
+    this.tokens = structure.getTokens();
+    this.previousTestCases = previousTestCases;
+
+    var annotations = annotationsByName(type.getAnnotations());
+    this.className = type.getName();
+    this.displayName = annotationValueOf(annotations, "DisplayName");
+    this.status = annotationValueOf(annotations, "Status");
+    this.disabledNote = annotationValueOf(annotations, "Disabled");
+    this.description = javadocComment(type);
+    this.furtherInformation = firstBlockComment(type.getOrphanComments());
+
+    SourceStructure.Method beforeAllMethod = null;
+    SourceStructure.Method afterAllMethod = null;
+    for (var method : type.getMethods()) {
+      var methodAnnotations = annotationsByName(method.getAnnotations());
+      if (beforeAllMethod == null && methodAnnotations.containsKey("BeforeAll")) {
+        beforeAllMethod = method;
+      }
+      if (afterAllMethod == null && methodAnnotations.containsKey("AfterAll")) {
+        afterAllMethod = method;
+      }
+      if (method.isTest()) {
+        testMethods.add(method);
+      }
+    }
+    this.setup = beforeAllMethod != null ? javadocComment(beforeAllMethod) : "";
+    this.cleanup = afterAllMethod != null ? javadocComment(afterAllMethod) : "";
+
+    this.categories =
+        regionsOrDefault(
+            type.getOrphanComments(), testMethods, method -> tokens.begin(method.getFirst()), null);
+    categories.values().forEach(category -> category.items.forEach(this::testCase));
+  }
+
+  /**
+   * Checks whether the test class includes any test methods/cases.
+   *
+   * @return {@code true} if the test class includes any tests, {@code false} otherwise
+   */
+  boolean hasTestMethods() {
+    return !testMethods.isEmpty();
+  }
+
+  /**
+   * Converts the class into a test documentation data model, like {@link
+   * ParsedTestClass#toDocumentDataModel(Path, Path)}.
+   *
+   * @param filePath the path of the original test file
+   * @param basePath the path of the project base directory that is used to relativize file paths
+   * @return the test data model
+   */
+  TestSet toDocumentDataModel(Path filePath, Path basePath) {
+    Map<String, List<TestCase>> categoryTestCases = new LinkedHashMap<>();
+    Map<String, Integer> categoryLevels = new LinkedHashMap<>();
+    categories.values().stream()
+        .filter(Region::containsItems)
+        .forEach(
+            c -> {
+              categoryTestCases.put(c.name, c.items.stream().map(this::testCase).toList());
+              categoryLevels.put(c.name, c.level);
+            });
+
+    return TestSet.builder()
+        .path(basePath.relativize(filePath))
+        .className(className)
+        .title(displayName)
+        .status(status)
+        .disabledNote(disabledNote)
+        .description(description)
+        .furtherInformation(furtherInformation)
+        .setup(setup)
+        .cleanup(cleanup)
+        .testCases(categoryTestCases)
+        .categoryLevels(categoryLevels)
+        .categorized(isCategorized(categories))
+        .build();
+  }
+
+  /**
+   * Converts a test method into a test case, like {@link ParsedTestMethod#toTestCase()}. Every
+   * method is converted only once, even if it belongs to several (nested) regions.
+   *
+   * <p>The test case only depends on the source code of the method and its comment. If a previous
+   * test case was read from the same source code, it is reused and only moved to the lines of the
+   * method.
+   *
+   * @param method the test method
+   * @return the test case
+   */
+  private TestCase testCase(SourceStructure.Method method) {
+    return testCases.computeIfAbsent(method, this::readTestCase);
+  }
+
+  private TestCase readTestCase(SourceStructure.Method method) {
+    var begin = tokens.begin(method.getFirst());
+    var end = tokens.end(method.getLast());
+    var comment = method.getComment();
+    if (comment >= 0) {
+      begin = Math.min(begin, tokens.commentBegin(comment));
+      end = Math.max(end, tokens.commentEnd(comment));
+    }
+    var fingerprint = tokens.fingerprint(begin, end);
+
+    var previous = previousTestCases.get(fingerprint);
+    if (previous != null) {
+      return previous.withBeginLine(tokens.line(method.getFirst()));
+    }
+    return toTestCase(method, fingerprint);
+  }
+
+  private TestCase toTestCase(SourceStructure.Method method, String fingerprint) {
+    var annotations = annotationsByName(method.getAnnotations());
+    Map<String, Region<Integer>> sections =
+        method.getBodyOpen() < 0
+            ? Map.of()
+            : regionsOrDefault(method.getOrphanComments(), List.of(), comment -> 0, i -> i);
+
+    Map<String, List<TestStep>> steps = new LinkedHashMap<>();
+    Map<String, Integer> sectionLevels = new LinkedHashMap<>();
+    sections.values().stream()
+        .filter(Region::containsItems)
+        .forEach(
+            s -> {
+              steps.put(s.name, s.items.stream().map(this::testStep).toList());
+              sectionLevels.put(s.name, s.level);
+            });
+
+    return TestCase.builder()
+        .methodName(method.getName())
+        .beginLine(tokens.line(method.getFirst()))
+        .endLine(tokens.endLine(method.getLast()))
+        .title(annotationValueOf(annotations, "DisplayName"))
+        .description(javadocComment(method))
+        .status(annotationValueOf(annotations, "Status"))
+        .disabledNote(annotationValueOf(annotations, "Disabled"))
+        .furtherInformation(firstBlockComment(method.getOrphanComments()))
+        .sections(steps)
+        .sectionLevels(sectionLevels)
+        .sectioned(isCategorized(sections))
+        .sourceFingerprint(fingerprint)
+        .build();
+  }
+
+  private TestStep testStep(int comment) {
+    return TestStep.builder().info(tokens.commentText(comment)).build();
+  }
+
+  // region regions
+
+  /** A region in a sequence of items and comments, see {@link RegionTree}. */
+  private static class Region<T> {
+
+    private final String name;
+    private final int level;
+    private final List<T> items = new ArrayList<>();
+    private final List<Region<T>> subregions = new ArrayList<>();
+
+    private Region(String name, int level) {
+      this.name = name;
+      this.level = level;
+    }
+
+    private boolean containsItems() {
+      return !items.isEmpty() || subregions.stream().anyMatch(Region::containsItems);
+    }
+  }
+
+  /**
+   * Builds the regions of a sequence of items and orphan comments, like {@link
+   * RegionTree#parsedRegions(List, java.util.function.Function)}. If there are no regions, or the
+   * region comments are invalid, all items belong to the default region.
+   *
+   * @param comments the orphan comments, ordered by their begin
+   * @param items the items, ordered by their begin
+   * @param begin the function that returns the begin of an item
+   * @param commentItem the function that converts a comment that is not a region comment into an
+   *     item, or {@code null} if comments are not items
+   * @return the regions by name, ordered by their begin
+   * @param <T> the type of items
+   */
+  private <T> Map<String, Region<T>> regionsOrDefault(
+      List<Integer> comments, List<T> items, ToIntFunction<T> begin, IntFunction<T> commentItem) {
+    try {
+      var regions = regions(comments, items, begin, commentItem);
+      if (!regions.isEmpty()) {
+        return regions;
+      }
+    } catch (RuntimeException e) {
+      // fall back to the default region, like the parsed test class and method
+    }
+
+    var region = new Region<T>(DEFAULT_REGION, 0);
+    if (commentItem != null) {
+      comments.forEach(comment -> region.items.add(commentItem.apply(comment)));
+    }
+    region.items.addAll(items);
+    return Map.of(DEFAULT_REGION, region);
+  }
+
+  private <T> Map<String, Region<T>> regions(
+      List<Integer> comments, List<T> items, ToIntFunction<T> begin, IntFunction<T> commentItem) {
+    Map<String, Region<T>> regions = new LinkedHashMap<>();
+    Deque<Region<T>> openRegions = new ArrayDeque<>();
+    var itemIndex = 0;
+    for (int comment : comments) {
+      for (;
+          itemIndex < items.size()
+              && begin.applyAsInt(items.get(itemIndex)) < tokens.commentBegin(comment);
+          itemIndex++) {
+        if (!openRegions.isEmpty()) {
+          openRegions.peek().items.add(items.get(itemIndex));
+        }
+      }
+
+      var content =
+          tokens.commentKind(comment) == SourceTokens.LINE_COMMENT
+              ? tokens.commentContent(comment)
+              : null;
+      if (content != null && CommentScanner.isBeginRegion(content)) {
+        var region = new Region<T>(CommentScanner.regionName(content), openRegions.size());
+        if (!openRegions.isEmpty()) {
+          openRegions.peek().subregions.add(region);
+        }
+        regions.put(region.name, region);
+        openRegions.push(region);
+      } else if (content != null && CommentScanner.isEndRegion(content)) {
+        if (openRegions.isEmpty()) {
+          throw new RuntimeException("Invalid regions: endregion without region");
+        }
+        openRegions.pop();
+      } else if (commentItem != null && !openRegions.isEmpty()) {
+        openRegions.peek().items.add(commentItem.apply(comment));
+      }
+    }
+    if (!openRegions.isEmpty()) {
+      throw new RuntimeException("Invalid regions: region without endregion");
+    }
+    return regions;
+  }
+
+  private static boolean isCategorized(Map<String, ? extends Region<?>> regions) {
+    return !regions.isEmpty() && !(regions.size() == 1 && regions.containsKey(DEFAULT_REGION));
+  }
+
+  // endregion
+
+  // region comments and annotations
+
+  private String javadocComment(SourceStructure.Element element) {
+    var comment = element.getComment();
+    return comment >= 0 && tokens.commentKind(comment) == SourceTokens.JAVADOC_COMMENT
+        ? CommentUtil.javadocDescription(tokens.commentContent(comment))
+        : "";
+  }
+
+  private SourceText firstBlockComment(List<Integer> orphanComments) {
+    for (int comment : orphanComments) {
+      if (tokens.commentKind(comment) == SourceTokens.BLOCK_COMMENT) {
+        return tokens.commentText(comment).trim();
+      }
+    }
+    return null;
+  }
+
+  private static Map<String, SourceStructure.Annotation> annotationsByName(
+      List<SourceStructure.Annotation> annotations) {
+    Map<String, SourceStructure.Annotation> annotationsByName = new HashMap<>();
+    for (var annotation : annotations) {
+      annotationsByName.putIfAbsent(annotation.getSimpleName(), annotation);
+    }
+    return annotationsByName;
+  }
+
+  private String annotationValueOf(
+      Map<String, SourceStructure.Annotation> annotations, String annotationName) {
+    var annotation = annotations.get(annotationName);
+    return annotation != null ? structure.annotationValue(annotation) : "";
+  }
+
+  // endregion
+}
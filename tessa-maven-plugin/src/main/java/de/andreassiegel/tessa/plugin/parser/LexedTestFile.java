@@ -0,0 +1,126 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Getter;
+
+/**
+ * Representation of a test file whose structure has been recognized from its tokens, without
+ * parsing it into a syntax tree (see {@link SourceStructure}). It provides the same test
+ * documentation data model as {@link ParsedTestFile}.
+ *
+ * @see LexedTestClass
+ */
+public class LexedTestFile implements TestFile {
+
+  private final Map<String, LexedTestClass> testClasses;
+
+  @Getter private final Path filePath;
+  @Getter private final Path basePath;
+
+  /**
+   * Instantiates the test file.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @throws IOException if the file cannot be read
+   * @throws SourceStructure.UnrecognizedStructureException if the structure of the file cannot be
+   *     recognized, i.e., it has to be parsed instead
+   */
+  public LexedTestFile(Path filePath, Path basePath) throws IOException {
+    this.filePath = filePath;
+    this.basePath = basePath;
+
+    var structure = readStructure(filePath);
+    this.testClasses =
+        structure.getTypes().stream()
+            .filter(SourceStructure.Type::isClass)
+            .collect(
+                Collectors.toMap(
+                    SourceStructure.Type::getName, type -> new LexedTestClass(structure, type)));
+  }
+
+  /**
+   * Reads a test file and converts it straight into test sets, without keeping the structure of the
+   * file. The result is the same as from {@link #toDocumentDataModel()} if the file {@link
+   * #containsTests() contains tests}.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @return the test sets, or an empty list if the file does not contain tests
+   * @throws IOException if the file cannot be read
+   * @throws SourceStructure.UnrecognizedStructureException if the structure of the file cannot be
+   *     recognized, i.e., it has to be parsed instead
+   */
+  public static List<TestSet> readTestSets(Path filePath, Path basePath) throws IOException {
+    return readTestSets(filePath, basePath, Map.of());
+  }
+
+  /**
+   * Reads a test file and converts it straight into test sets, like {@link #readTestSets(Path,
+   * Path)}, but reuses the test cases of test methods whose source code did not change since a
+   * previous version of the file. Only the changed methods are read again.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @param previousTestCases the test cases read from a previous version of the file, by their
+   *     {@link TestCase#getSourceFingerprint() source fingerprint}
+   * @return the test sets, or an empty list if the file does not contain tests
+   * @throws IOException if the file cannot be read
+   * @throws SourceStructure.UnrecognizedStructureException if the structure of the file cannot be
+   *     recognized, i.e., it has to be parsed instead
+   */
+  public static List<TestSet> readTestSets(
+      Path filePath, Path basePath, Map<String, TestCase> previousTestCases) throws IOException {
+    var structure = readStructure(filePath);
+    var testSets = new TestSetCollector(filePath, basePath);
+    structure.getTypes().stream()
+        .filter(SourceStructure.Type::isClass)
+        .forEach(
+            type -> {
+              var testClass = new LexedTestClass(structure, type, previousTestCases);
+              testSets.add(
+                  type.getName(), testClass.hasTestMethods(), testClass::toDocumentDataModel);
+            });
+    return testSets.toList();
+  }
+
+  private static SourceStructure readStructure(Path filePath) throws IOException {
+    var source = new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8);
+    return new SourceStructure(new SourceTokens(source.toCharArray()));
+  }
+
+  @Override
+  public boolean containsTests() {
+    return testClasses.values().stream().anyMatch(LexedTestClass::hasTestMethods);
+  }
+
+  @Override
+  public List<TestSet> toDocumentDataModel() {
+    return testClasses.values().stream()
+        .map(testClass -> testClass.toDocumentDataModel(filePath, basePath))
+        .toList();
+  }
+}
@@ -17,13 +17,16 @@ package de.andreassiegel.tessa.plugin.parser;
  */
 
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /** Utilities for handling methods in the code, and for retrieving information from them. */
 class MethodDeclarationUtil {
 
-  private static final List<String> TEST_ANNOTATION_NAMES = List.of("Test", "ParameterizedTest");
+  /** The names of the annotations that identify test methods. */
+  static final List<String> TEST_ANNOTATION_NAMES = List.of("Test", "ParameterizedTest");
 
   private MethodDeclarationUtil() {}
 
@@ -43,4 +46,20 @@ class MethodDeclarationUtil {
         .map(methodDeclaration::getAnnotationByName)
         .anyMatch(Optional::isPresent);
   }
+
+  /**
+   * Checks whether a method is a test method based on its annotations by name (see {@link
+   * AnnotationUtil#annotationsByName(com.github.javaparser.ast.nodeTypes.NodeWithAnnotations)}).
+   *
+   * @param annotations the annotations of the method by name
+   * @return {@code true} if the method is a test method, {@code false} otherwise
+   */
+  static boolean hasTestAnnotation(Map<String, AnnotationExpr> annotations) {
+    for (var name : TEST_ANNOTATION_NAMES) {
+      if (annotations.containsKey(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
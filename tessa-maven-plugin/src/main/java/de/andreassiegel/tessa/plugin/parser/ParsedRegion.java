@@ -18,6 +18,7 @@ package de.andreassiegel.tessa.plugin.parser;
 
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.comments.LineComment;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 
@@ -35,11 +36,13 @@ import lombok.Getter;
 abstract class ParsedRegion<T> {
 
   protected final String name;
+  protected final int level;
   protected final LineComment begin;
   protected final LineComment end;
   protected final List<Node> childNodes;
 
   protected final List<T> relevantChildren;
+  protected final List<ParsedRegion<T>> subregions = new ArrayList<>();
 
   /**
    * Instantiates a new parsed region.
@@ -51,12 +54,40 @@ abstract class ParsedRegion<T> {
    */
   ParsedRegion(String name, LineComment begin, LineComment end, List<Node> childNodes) {
     this.name = name;
+    this.level = 0;
     this.begin = begin;
     this.end = end;
     this.childNodes = childNodes;
     this.relevantChildren = initializeRelevantChildren(childNodes);
   }
 
+  /**
+   * Instantiates a new parsed region in a region tree with relevant children that were already
+   * determined, e.g., while scanning the enclosing node.
+   *
+   * @param name the name of the region
+   * @param level the nesting level of the region, {@code 0} for top-level regions
+   * @param begin the begin region line comment
+   * @param end the end region line comment
+   * @param childNodes the nodes in the region
+   * @param relevantChildren the relevant children among the nodes that are not part of any nested
+   *     region
+   */
+  ParsedRegion(
+      String name,
+      int level,
+      LineComment begin,
+      LineComment end,
+      List<Node> childNodes,
+      List<T> relevantChildren) {
+    this.name = name;
+    this.level = level;
+    this.begin = begin;
+    this.end = end;
+    this.childNodes = childNodes;
+    this.relevantChildren = relevantChildren;
+  }
+
   /**
    * Instantiates a new parsed region without line numbers.
    *
@@ -100,6 +131,16 @@ abstract class ParsedRegion<T> {
     return !relevantChildren.isEmpty();
   }
 
+  /**
+   * Boolean flag indicating whether the region or any of its nested regions includes relevant child
+   * nodes.
+   *
+   * @return {@code true} if there are relevant children in the region tree, {@code false} otherwise
+   */
+  boolean containsRelevantChildren() {
+    return isNotEmpty() || subregions.stream().anyMatch(ParsedRegion::containsRelevantChildren);
+  }
+
   /**
    * Converts a line comment into its line number.
    *
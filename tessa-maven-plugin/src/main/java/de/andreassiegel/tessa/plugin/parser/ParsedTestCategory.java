@@ -39,6 +39,16 @@ class ParsedTestCategory extends ParsedRegion<ParsedTestMethod> {
     super(name, begin, end, childNodes);
   }
 
+  ParsedTestCategory(
+      String name,
+      int level,
+      LineComment begin,
+      LineComment end,
+      List<Node> childNodes,
+      List<ParsedTestMethod> testMethods) {
+    super(name, level, begin, end, childNodes, testMethods);
+  }
+
   /**
    * Filters test methods from the provided child nodes and converts them to {@link
    * ParsedTestMethod} instances.
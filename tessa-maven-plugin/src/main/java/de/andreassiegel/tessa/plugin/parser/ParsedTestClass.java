@@ -18,19 +18,13 @@ package de.andreassiegel.tessa.plugin.parser;
 
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.comments.LineComment;
-import com.github.javaparser.ast.nodeTypes.NodeWithMembers;
+import de.andreassiegel.tessa.plugin.model.SourceText;
 import de.andreassiegel.tessa.plugin.model.TestCase;
 import de.andreassiegel.tessa.plugin.model.TestSet;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Stream;
 import lombok.AccessLevel;
 import lombok.Getter;
 
@@ -46,12 +40,13 @@ public class ParsedTestClass {
   private static final String DEFAULT_CATEGORY = "Default";
 
   private final ClassOrInterfaceDeclaration classDeclaration;
+  private final ClassMemberScan memberScan;
 
   private final String className;
   private final String displayName;
   private final String status;
   private final String description;
-  private final String furtherInformation;
+  private final SourceText furtherInformation;
 
   private final String setup;
   private final String cleanup;
@@ -65,25 +60,26 @@ public class ParsedTestClass {
    * Creates an instance of a parsed test class based on the provided class declaration.
    *
    * <p>The constructor reads all relevant information from the class that is later on needed to
-   * generate the test documentation for the test cases defined in the class.
+   * generate the test documentation for the test cases defined in the class. The members of the
+   * class are scanned only once (see {@link ClassMemberScan}).
    *
    * @param classDeclaration the class declaration
    */
   public ParsedTestClass(ClassOrInterfaceDeclaration classDeclaration) {
     this.classDeclaration = classDeclaration;
+    this.memberScan = new ClassMemberScan(classDeclaration);
 
     this.className = classDeclaration.getNameAsString();
-    this.displayName = AnnotationUtil.annotationValue(classDeclaration, "DisplayName");
-    this.status = AnnotationUtil.annotationValue(classDeclaration, "Status");
-    this.disabledNote = AnnotationUtil.annotationValue(classDeclaration, "Disabled");
+    this.displayName = memberScan.classAnnotationValue("DisplayName");
+    this.status = memberScan.classAnnotationValue("Status");
+    this.disabledNote = memberScan.classAnnotationValue("Disabled");
     this.description = CommentUtil.javadocComment(classDeclaration);
-    this.furtherInformation = CommentUtil.firstBlockComment(classDeclaration);
-    this.setup = firstAnnotatedMethod("BeforeAll").map(CommentUtil::javadocComment).orElse("");
-    this.cleanup = firstAnnotatedMethod("AfterAll").map(CommentUtil::javadocComment).orElse("");
+    this.furtherInformation = CommentUtil.firstBlockCommentText(classDeclaration);
+    this.setup = memberScan.getBeforeAllMethod().map(CommentUtil::javadocComment).orElse("");
+    this.cleanup = memberScan.getAfterAllMethod().map(CommentUtil::javadocComment).orElse("");
 
     this.categories = initializeTestCategories();
-    this.testMethods =
-        classDeclaration.getMethods().stream().filter(MethodDeclarationUtil::isTestMethod).toList();
+    this.testMethods = memberScan.getTestMethods();
   }
 
   /**
@@ -106,10 +102,9 @@ public class ParsedTestClass {
    */
   Map<String, ParsedTestCategory> initializeTestCategories() {
     try {
-      List<LineComment> comments =
-          CommentUtil.regionLineComments(classDeclaration.getOrphanComments());
-      if (comments.size() > 1) {
-        return categorizedTestCases(comments);
+      var testCategories = categorizedTestCases();
+      if (!testCategories.isEmpty()) {
+        return testCategories;
       }
     } catch (Exception e) {
       // swallow the exception, we fall back to uncategorized test cases
@@ -125,50 +120,36 @@ public class ParsedTestClass {
    * @return the map containing the default section
    */
   private Map<String, ParsedTestCategory> uncategorizedTestCases() {
+    var childNodes = classDeclaration.getChildNodes();
     return Map.of(
         DEFAULT_CATEGORY,
-        new ParsedTestCategory(DEFAULT_CATEGORY, classDeclaration.getChildNodes()));
+        new ParsedTestCategory(
+            DEFAULT_CATEGORY, 0, null, null, childNodes, memberScan.parsedTestMethods(childNodes)));
   }
 
   /**
    * Initializes the categories using the region line comments.
    *
-   * <p>The method first finds the last begin of a region (because it could be a nested region),
-   * takes the next endregion comment and creates a category with all the nodes between these
-   * comments.
+   * <p>The method builds the tree of regions in a single pass over the child nodes of the class
+   * (see {@link RegionTree}). Regions may be nested, and each test method belongs to the innermost
+   * category that contains it.
    *
-   * <p>The categories also get ordered by their begin in the code.
+   * <p>The categories are ordered by their begin in the code, i.e., every category is followed by
+   * its nested categories.
    *
-   * @param comments the region comments
    * @return the map of categories
    */
-  private Map<String, ParsedTestCategory> categorizedTestCases(List<LineComment> comments) {
-    List<ParsedTestCategory> testCategories = new ArrayList<>();
-    while (!comments.isEmpty()) {
-      int lastBeginIndex = CommentUtil.findLastRegionBeginIndex(comments);
-
-      LineComment begin = comments.get(lastBeginIndex);
-      LineComment end = comments.get(lastBeginIndex + 1);
-
-      comments.remove(lastBeginIndex + 1); // remove end
-      comments.remove(lastBeginIndex); // remove end
-
-      var name = CommentUtil.regionName(begin);
-      var region =
-          new ParsedTestCategory(
-              name,
-              begin,
-              end,
-              NodeUtil.childrenInRegion(classDeclaration.getChildNodes(), begin, end));
-      testCategories.add(region);
-    }
-
-    Map<String, ParsedTestCategory> orderedTestCategories = new LinkedHashMap<>();
-    testCategories.stream()
-        .sorted(Comparator.comparingInt(ParsedRegion::getBeginLine))
-        .forEach(s -> orderedTestCategories.put(s.getName(), s));
-
-    return orderedTestCategories;
+  private Map<String, ParsedTestCategory> categorizedTestCases() {
+    return RegionTree.parsedRegions(
+        memberScan.getOrderedChildNodes(),
+        region ->
+            new ParsedTestCategory(
+                region.getName(),
+                region.getLevel(),
+                region.getBegin(),
+                region.getEnd(),
+                region.getChildNodes(),
+                memberScan.parsedTestMethods(region.getOwnNodes())));
   }
 
   /**
@@ -182,31 +163,6 @@ public class ParsedTestClass {
         && !(categories.size() == 1 && categories.containsKey(DEFAULT_CATEGORY));
   }
 
-  /**
-   * Retrieves the first method declaration in the class that is annotated with the given
-   * annotation.
-   *
-   * @param annotationName the name of the annotation
-   * @return an {@link Optional} containing the matching method declaration, {@code
-   *     Optional.empty()} otherwise
-   */
-  Optional<MethodDeclaration> firstAnnotatedMethod(String annotationName) {
-    return streamAnnotatedMethods(annotationName).findFirst();
-  }
-
-  /**
-   * Retrieves a stream of relevant method declarations from the class declaration, i.e., methods
-   * that are annotated with the given annotation.
-   *
-   * @param annotationName the name of the annotation to filter for
-   * @return a stream of method declarations
-   */
-  Stream<MethodDeclaration> streamAnnotatedMethods(String annotationName) {
-    return Optional.ofNullable(classDeclaration).map(NodeWithMembers::getMethods).stream()
-        .flatMap(Collection::stream)
-        .filter(methodDeclaration -> methodDeclaration.isAnnotationPresent(annotationName));
-  }
-
   /**
    * Converts a single class from the test file into a test documentation data model.
    *
@@ -216,9 +172,14 @@ public class ParsedTestClass {
    */
   TestSet toDocumentDataModel(Path filePath, Path basePath) {
     Map<String, List<TestCase>> testCases = new LinkedHashMap<>();
+    Map<String, Integer> categoryLevels = new LinkedHashMap<>();
     categories.values().stream()
-        .filter(ParsedTestCategory::isNotEmpty)
-        .forEach(c -> testCases.put(c.getName(), c.getTestCases()));
+        .filter(ParsedTestCategory::containsRelevantChildren)
+        .forEach(
+            c -> {
+              testCases.put(c.getName(), c.getTestCases());
+              categoryLevels.put(c.getName(), c.getLevel());
+            });
 
     return TestSet.builder()
         .path(basePath.relativize(filePath))
@@ -231,6 +192,7 @@ public class ParsedTestClass {
         .setup(setup)
         .cleanup(cleanup)
         .testCases(testCases)
+        .categoryLevels(categoryLevels)
         .categorized(hasCategories())
         .build();
   }
@@ -16,7 +16,6 @@ package de.andreassiegel.tessa.plugin.parser;
  * limitations under the License.
  */
 
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
@@ -38,7 +37,7 @@ import lombok.Getter;
  *
  * @see ParsedTestClass
  */
-public class ParsedTestFile {
+public class ParsedTestFile implements TestFile {
 
   private final CompilationUnit compilationUnit;
   private final Map<String, ParsedTestClass> testClasses;
@@ -54,12 +53,54 @@ public class ParsedTestFile {
    * @throws IOException if the file cannot be parsed
    */
   public ParsedTestFile(Path filePath, Path basePath) throws IOException {
+    this(filePath, basePath, ParserProfile.DEFAULT);
+  }
+
+  /**
+   * Instantiates the parsed test file using a specific parser profile.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @param parserProfile the profile of the parser configuration
+   * @throws IOException if the file cannot be parsed
+   */
+  public ParsedTestFile(Path filePath, Path basePath, ParserProfile parserProfile)
+      throws IOException {
     this.filePath = filePath;
     this.basePath = basePath;
-    this.compilationUnit = StaticJavaParser.parse(filePath);
+    this.compilationUnit = JavaParserProvider.parse(filePath, parserProfile);
     this.testClasses = parseTestClasses();
   }
 
+  /**
+   * Parses a test file and converts it straight into test sets, without keeping the parsed file.
+   *
+   * <p>Each class is converted as soon as it has been read, so only the syntax tree of the file and
+   * a single {@link ParsedTestClass} are referenced at a time, and nothing of either is referenced
+   * by the test sets. The result is the same as from {@link #toDocumentDataModel()} if the file
+   * {@link #containsTests() contains tests}.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   * @param parserProfile the profile of the parser configuration
+   * @return the test sets, or an empty list if the file does not contain tests
+   * @throws IOException if the file cannot be parsed
+   */
+  public static List<TestSet> readTestSets(
+      Path filePath, Path basePath, ParserProfile parserProfile) throws IOException {
+    var testSets = new TestSetCollector(filePath, basePath);
+    streamClassDeclarations(JavaParserProvider.parse(filePath, parserProfile))
+        .forEach(
+            classDeclaration -> {
+              var testClass = new ParsedTestClass(classDeclaration);
+              testSets.add(
+                  classDeclaration.getNameAsString(),
+                  testClass.hasTestMethods(),
+                  testClass::toDocumentDataModel);
+            });
+    return testSets.toList();
+  }
+
   /**
    * Returns the names of all relevant test classes that have been retrieved from the parsed Java
    * file.
@@ -103,11 +144,23 @@ public class ParsedTestFile {
    * @return a map pf class declarations, using the class name as the key
    */
   Map<String, ParsedTestClass> parseTestClasses() {
+    return streamClassDeclarations(compilationUnit)
+        .collect(Collectors.toMap(NodeWithSimpleName::getNameAsString, ParsedTestClass::new));
+  }
+
+  /**
+   * Retrieves a stream of all relevant class declarations of a compilation unit, i.e., all classes
+   * but no interfaces.
+   *
+   * @param compilationUnit the compilation unit
+   * @return the stream of class declarations
+   */
+  private static Stream<ClassOrInterfaceDeclaration> streamClassDeclarations(
+      CompilationUnit compilationUnit) {
     return compilationUnit.getChildNodes().stream()
         .filter(node -> node instanceof ClassOrInterfaceDeclaration)
         .map(node -> (ClassOrInterfaceDeclaration) node)
-        .filter(classDeclaration -> !classDeclaration.isInterface())
-        .collect(Collectors.toMap(NodeWithSimpleName::getNameAsString, ParsedTestClass::new));
+        .filter(classDeclaration -> !classDeclaration.isInterface());
   }
 
   /**
@@ -116,6 +169,7 @@ public class ParsedTestFile {
    *
    * @return {@code true} if any class includes tests, {@code false} otherwise
    */
+  @Override
   public boolean containsTests() {
     return streamTestClasses().anyMatch(ParsedTestClass::hasTestMethods);
   }
@@ -131,6 +185,7 @@ public class ParsedTestFile {
    *
    * @return the list of test sets
    */
+  @Override
   public List<TestSet> toDocumentDataModel() {
     var path = getFilePath();
     return streamTestClasses()
@@ -16,20 +16,13 @@ package de.andreassiegel.tessa.plugin.parser;
  * limitations under the License.
  */
 
-import static de.andreassiegel.tessa.plugin.parser.CommentUtil.findLastRegionBeginIndex;
-import static de.andreassiegel.tessa.plugin.parser.CommentUtil.regionLineComments;
-import static de.andreassiegel.tessa.plugin.parser.CommentUtil.regionName;
-import static de.andreassiegel.tessa.plugin.parser.NodeUtil.childrenInRegion;
-
-import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import de.andreassiegel.tessa.plugin.model.SourceText;
 import de.andreassiegel.tessa.plugin.model.TestCase;
 import de.andreassiegel.tessa.plugin.model.TestStep;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -50,7 +43,7 @@ public class ParsedTestMethod {
   private final String description;
   private final String status;
   private final String disabledNote;
-  private final String furtherInformation;
+  private final SourceText furtherInformation;
 
   private final Map<String, ParsedTestSection> sections;
 
@@ -63,14 +56,25 @@ public class ParsedTestMethod {
    * @param methodDeclaration the method declaration
    */
   ParsedTestMethod(MethodDeclaration methodDeclaration) {
+    this(methodDeclaration, AnnotationUtil.annotationsByName(methodDeclaration));
+  }
+
+  /**
+   * Creates an instance of a parsed test method based on the provided method declaration and its
+   * annotations that were already collected by name.
+   *
+   * @param methodDeclaration the method declaration
+   * @param annotations the annotations of the method by name
+   */
+  ParsedTestMethod(MethodDeclaration methodDeclaration, Map<String, AnnotationExpr> annotations) {
     this.methodDeclaration = methodDeclaration;
 
     this.methodName = methodDeclaration.getNameAsString();
-    this.displayName = AnnotationUtil.annotationValue(methodDeclaration, "DisplayName");
+    this.displayName = AnnotationUtil.annotationValueOf(annotations, "DisplayName");
     this.description = CommentUtil.javadocComment(methodDeclaration);
-    this.status = AnnotationUtil.annotationValue(methodDeclaration, "Status");
-    this.disabledNote = AnnotationUtil.annotationValue(methodDeclaration, "Disabled");
-    this.furtherInformation = CommentUtil.firstBlockComment(methodDeclaration);
+    this.status = AnnotationUtil.annotationValueOf(annotations, "Status");
+    this.disabledNote = AnnotationUtil.annotationValueOf(annotations, "Disabled");
+    this.furtherInformation = CommentUtil.firstBlockCommentText(methodDeclaration);
 
     this.sections = initializeSections();
   }
@@ -88,9 +92,9 @@ public class ParsedTestMethod {
 
     BlockStmt methodBody = methodDeclaration.getBody().get();
     try {
-      List<LineComment> comments = regionLineComments(methodBody.getOrphanComments());
-      if (comments.size() > 1) {
-        return categorizedChildren(methodBody, comments);
+      var sections = categorizedChildren(methodBody);
+      if (!sections.isEmpty()) {
+        return sections;
       }
     } catch (Exception e) {
       // swallow the exception, we fall back to uncategorized test cases
@@ -114,41 +118,19 @@ public class ParsedTestMethod {
   /**
    * Initializes the sections using the region line comments.
    *
-   * <p>The method first finds the last begin of a region (because it could be a nested region),
-   * takes the next endregion comment and creates a section with all the nodes between these
-   * comments.
+   * <p>The method builds the tree of regions in a single pass over the child nodes of the method
+   * body (see {@link RegionTree}). Regions may be nested, and each comment belongs to the innermost
+   * section that contains it.
    *
-   * <p>The sections also get ordered by their begin in the code.
+   * <p>The sections are ordered by their begin in the code, i.e., every section is followed by its
+   * nested sections.
    *
    * @param methodBody the method body
-   * @param comments the region comments
    * @return the map of sections
    */
-  private Map<String, ParsedTestSection> categorizedChildren(
-      BlockStmt methodBody, List<LineComment> comments) {
-    List<Node> nodes = methodBody.getChildNodes();
-
-    List<ParsedTestSection> sections = new ArrayList<>();
-    while (!comments.isEmpty()) {
-      int lastBeginIndex = findLastRegionBeginIndex(comments);
-
-      LineComment begin = comments.get(lastBeginIndex);
-      LineComment end = comments.get(lastBeginIndex + 1);
-
-      comments.remove(lastBeginIndex + 1); // remove end
-      comments.remove(lastBeginIndex); // remove end
-
-      var name = regionName(begin);
-      var section = new ParsedTestSection(name, begin, end, childrenInRegion(nodes, begin, end));
-      sections.add(section);
-    }
-
-    Map<String, ParsedTestSection> orderedSections = new LinkedHashMap<>();
-    sections.stream()
-        .sorted(Comparator.comparingInt(ParsedRegion::getBeginLine))
-        .forEach(s -> orderedSections.put(s.getName(), s));
-
-    return orderedSections;
+  private Map<String, ParsedTestSection> categorizedChildren(BlockStmt methodBody) {
+    return RegionTree.parsedRegions(
+        RegionTree.orderedNodes(methodBody.getChildNodes()), ParsedTestSection::new);
   }
 
   /**
@@ -168,9 +150,14 @@ public class ParsedTestMethod {
    */
   public TestCase toTestCase() {
     Map<String, List<TestStep>> steps = new LinkedHashMap<>();
+    Map<String, Integer> sectionLevels = new LinkedHashMap<>();
     sections.values().stream()
-        .filter(ParsedTestSection::isNotEmpty)
-        .forEach(s -> steps.put(s.getName(), s.getTestSteps()));
+        .filter(ParsedTestSection::containsRelevantChildren)
+        .forEach(
+            s -> {
+              steps.put(s.getName(), s.getTestSteps());
+              sectionLevels.put(s.getName(), s.getLevel());
+            });
 
     return TestCase.builder()
         .methodName(methodName)
@@ -182,6 +169,7 @@ public class ParsedTestMethod {
         .disabledNote(disabledNote)
         .furtherInformation(furtherInformation)
         .sections(steps)
+        .sectionLevels(sectionLevels)
         .sectioned(hasSections())
         .build();
   }
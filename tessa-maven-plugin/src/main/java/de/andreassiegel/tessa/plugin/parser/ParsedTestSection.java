@@ -19,6 +19,7 @@ package de.andreassiegel.tessa.plugin.parser;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.comments.Comment;
 import com.github.javaparser.ast.comments.LineComment;
+import de.andreassiegel.tessa.plugin.model.SourceText;
 import de.andreassiegel.tessa.plugin.model.TestStep;
 import java.util.List;
 
@@ -36,6 +37,16 @@ class ParsedTestSection extends ParsedRegion<Comment> {
     super(name, begin, end, childNodes);
   }
 
+  ParsedTestSection(RegionTree.Region region) {
+    super(
+        region.getName(),
+        region.getLevel(),
+        region.getBegin(),
+        region.getEnd(),
+        region.getChildNodes(),
+        comments(region.getOwnNodes()));
+  }
+
   /**
    * Filters comments from the provided child nodes.
    *
@@ -44,7 +55,17 @@ class ParsedTestSection extends ParsedRegion<Comment> {
    */
   @Override
   List<Comment> initializeRelevantChildren(List<Node> childNodes) {
-    return childNodes.stream()
+    return comments(childNodes);
+  }
+
+  /**
+   * Filters comments from the provided nodes.
+   *
+   * @param nodes the nodes
+   * @return the list of comments
+   */
+  private static List<Comment> comments(List<Node> nodes) {
+    return nodes.stream()
         .filter(node -> node instanceof Comment)
         .map(node -> (Comment) node)
         .toList();
@@ -53,16 +74,15 @@ class ParsedTestSection extends ParsedRegion<Comment> {
   /**
    * Converts and returns the comments as test steps.
    *
-   * <p>The method extracts the content of the comment, regardless of comment types, and removes
-   * indentation.
+   * <p>The method extracts the content of the comment, regardless of comment types. The indentation
+   * is removed when the test steps are written (see {@link SourceText}).
    *
    * @return the test steps
    */
   List<TestStep> getTestSteps() {
     return relevantChildren.stream()
         .map(Comment::getContent)
-        .map(content -> content.replaceAll("(?m)^[ \\t]+", "")) // remove indentation
-        .map(content -> TestStep.builder().info(content).build())
+        .map(content -> TestStep.builder().info(SourceText.withoutIndentation(content)).build())
         .toList();
   }
 }
@@ -0,0 +1,94 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+
+/**
+ * The configuration profiles that can be used to parse test files.
+ *
+ * <p>Tessa only reads comments, annotations, names and line ranges from the parsed code, so most of
+ * the work the parser does by default is not needed. Note that token storage cannot be turned off:
+ * the parser derives node ranges from the stored tokens, and without ranges neither line numbers
+ * nor comment attribution work.
+ */
+public enum ParserProfile {
+
+  /** The default configuration of JavaParser. */
+  DEFAULT {
+    @Override
+    ParserConfiguration configuration() {
+      return new ParserConfiguration();
+    }
+  },
+
+  /**
+   * A configuration that skips the work Tessa does not rely on: syntax validation for a specific
+   * language level and the detection of the original line separator.
+   *
+   * <p>Files that cannot be parsed with this profile are parsed again with {@link #DEFAULT}.
+   */
+  LEAN {
+    @Override
+    ParserConfiguration configuration() {
+      return new ParserConfiguration()
+          .setLanguageLevel(LanguageLevel.RAW)
+          .setDetectOriginalLineSeparator(false)
+          .setLexicalPreservationEnabled(false);
+    }
+  },
+
+  /**
+   * A configuration like {@link #LEAN} that also replaces JavaParser's comment attribution with a
+   * positional attribution of only the comments Tessa reads (see {@link
+   * PositionalCommentAttribution}).
+   *
+   * <p>Files that cannot be parsed with this profile are parsed again with {@link #DEFAULT}.
+   */
+  POSITIONAL {
+    @Override
+    ParserConfiguration configuration() {
+      var configuration = LEAN.configuration().setAttributeComments(false);
+      configuration.getProcessors().add(() -> new PositionalCommentAttribution(configuration));
+      return configuration;
+    }
+  },
+
+  /**
+   * A configuration like {@link #POSITIONAL} that also skips the bodies of all methods that are not
+   * test methods, so that only the declarations and the bodies of test methods are parsed (see
+   * {@link SkeletonSource}).
+   *
+   * <p>Files that cannot be parsed with this profile are parsed again with {@link #DEFAULT}.
+   */
+  SKELETON {
+    @Override
+    ParserConfiguration configuration() {
+      var configuration = POSITIONAL.configuration();
+      configuration.getProcessors().add(SkeletonSource::new);
+      return configuration;
+    }
+  };
+
+  /**
+   * Creates a new parser configuration for the profile.
+   *
+   * @return the parser configuration
+   */
+  abstract ParserConfiguration configuration();
+}
@@ -0,0 +1,281 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.Processor;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.utils.PositionUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Attributes comments to the nodes Tessa reads them from, as a replacement for the comment
+ * attribution of JavaParser.
+ *
+ * <p>The processor is used with parser configurations that have comment attribution turned off. It
+ * takes the sorted list of all comments in a file and distributes it in one sweep per level: to the
+ * compilation unit, its classes, their methods, and the method bodies. A comment is attributed to
+ * the same node, or becomes an orphan comment of the same node, as with JavaParser's attribution,
+ * using the same rules based on line and column positions:
+ *
+ * <ul>
+ *   <li>a line comment on the line where a node ends is attributed to the node that begins on that
+ *       line,
+ *   <li>a comment is attributed to the following node if there is no empty line in between,
+ *   <li>all other comments are orphan comments of the enclosing node.
+ * </ul>
+ *
+ * <p>Unlike JavaParser, comments inside other nodes, e.g., inside statements, fields or nested
+ * classes, are not attributed at all, because they are never read. They are neither test steps nor
+ * descriptions.
+ */
+class PositionalCommentAttribution extends Processor {
+
+  private final boolean ignoreAnnotations;
+  private final boolean doNotAssignCommentsPrecedingEmptyLines;
+
+  /**
+   * Creates the processor for a parser configuration.
+   *
+   * <p>The options of the configuration that control JavaParser's comment attribution are applied
+   * the same way, even though JavaParser's comment attribution is turned off.
+   *
+   * @param configuration the parser configuration
+   */
+  PositionalCommentAttribution(ParserConfiguration configuration) {
+    this.ignoreAnnotations = configuration.isIgnoreAnnotationsWhenAttributingComments();
+    this.doNotAssignCommentsPrecedingEmptyLines =
+        configuration.isDoNotAssignCommentsPrecedingEmptyLines();
+  }
+
+  @Override
+  public void postProcess(ParseResult<? extends Node> result, ParserConfiguration configuration) {
+    if (result.getResult().orElse(null) instanceof CompilationUnit compilationUnit) {
+      result
+          .getCommentsCollection()
+          .ifPresent(comments -> attribute(compilationUnit, List.copyOf(comments.getComments())));
+    }
+  }
+
+  /**
+   * Attributes comments to the nodes of a compilation unit.
+   *
+   * @param compilationUnit the compilation unit
+   * @param comments all comments in the compilation unit, ordered by their begin
+   */
+  void attribute(CompilationUnit compilationUnit, List<Comment> comments) {
+    if (comments.isEmpty()) {
+      return;
+    }
+
+    List<Comment> remaining = new ArrayList<>(comments);
+    var packageDeclaration = compilationUnit.getPackageDeclaration();
+    if (packageDeclaration.isPresent()
+        && PositionUtils.areInOrder(remaining.get(0), packageDeclaration.get())) {
+      compilationUnit.setComment(remaining.remove(0));
+    }
+    attributeComments(compilationUnit, remaining);
+  }
+
+  /**
+   * Attributes comments to a node and its children.
+   *
+   * @param node the node
+   * @param comments the comments inside the node, ordered by their begin
+   */
+  private void attributeComments(Node node, List<Comment> comments) {
+    if (comments.isEmpty()) {
+      return;
+    }
+
+    List<Node> children = new ArrayList<>();
+    for (var child : node.getChildNodes()) {
+      if (!(child instanceof Modifier) && child.hasRange()) {
+        children.add(child);
+      }
+    }
+    PositionUtils.sortByBeginPosition(children, ignoreAnnotations);
+
+    List<Comment> remaining = new ArrayList<>();
+    IdentityHashMap<Node, List<Comment>> commentsInChildren = new IdentityHashMap<>();
+    int childIndex = 0;
+    for (var comment : comments) {
+      while (childIndex < children.size() && endsBefore(children.get(childIndex), comment)) {
+        childIndex++;
+      }
+      if (childIndex < children.size()
+          && PositionUtils.nodeContains(children.get(childIndex), comment, ignoreAnnotations)) {
+        commentsInChildren
+            .computeIfAbsent(children.get(childIndex), c -> new ArrayList<>())
+            .add(comment);
+      } else {
+        remaining.add(comment);
+      }
+    }
+    commentsInChildren.forEach(
+        (child, childComments) -> attributeInside(node, child, childComments));
+
+    attributeLineCommentsOnSameLine(remaining, children);
+
+    if (!remaining.isEmpty() && isOnNextLine(remaining.get(0), node)) {
+      node.setComment(remaining.remove(0));
+    }
+
+    attributePrecedingComments(node, children, remaining);
+  }
+
+  /**
+   * Attributes the comments inside a child node, if the child node is read by Tessa.
+   *
+   * @param parent the parent node
+   * @param child the child node
+   * @param comments the comments inside the child node, ordered by their begin
+   */
+  private void attributeInside(Node parent, Node child, List<Comment> comments) {
+    if (parent instanceof CompilationUnit && child instanceof ClassOrInterfaceDeclaration) {
+      attributeComments(child, comments);
+    } else if (parent instanceof ClassOrInterfaceDeclaration
+        && child instanceof MethodDeclaration methodDeclaration
+        && methodDeclaration.getBody().isPresent()) {
+      var body = methodDeclaration.getBody().get();
+      attributeComments(
+          body,
+          comments.stream()
+              .filter(comment -> PositionUtils.nodeContains(body, comment, ignoreAnnotations))
+              .toList());
+    }
+  }
+
+  /**
+   * Attributes line comments to the node that begins on the line where a child node ends, i.e.,
+   * trailing comments.
+   *
+   * @param comments the comments to attribute, attributed comments are removed from the list
+   * @param children the child nodes
+   */
+  private void attributeLineCommentsOnSameLine(List<Comment> comments, List<Node> children) {
+    Set<Comment> attributed = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (var comment : comments) {
+      if (comment instanceof LineComment lineComment) {
+        for (var child : children) {
+          if (endLine(child) == beginLine(lineComment)
+              && attributeLineCommentToNodeOrChild(child, lineComment)) {
+            attributed.add(lineComment);
+          }
+        }
+      }
+    }
+    comments.removeIf(attributed::contains);
+  }
+
+  /**
+   * Attributes a line comment to a node, or to the last of its descendants, that begins on the line
+   * of the comment.
+   *
+   * @param node the node
+   * @param lineComment the line comment
+   * @return {@code true} if a node begins on the line of the comment, {@code false} otherwise
+   */
+  private static boolean attributeLineCommentToNodeOrChild(Node node, LineComment lineComment) {
+    if (!node.hasRange()) {
+      return false;
+    }
+
+    if (beginLine(node) == beginLine(lineComment) && node.getComment().isEmpty()) {
+      if (!(node instanceof Comment)) {
+        node.setComment(lineComment);
+      }
+      return true;
+    }
+
+    List<Node> children = new ArrayList<>(node.getChildNodes());
+    PositionUtils.sortByBeginPosition(children);
+    for (int i = children.size() - 1; i >= 0; i--) {
+      if (attributeLineCommentToNodeOrChild(children.get(i), lineComment)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Attributes each comment to the following child node, unless there are empty lines in between
+   * (depending on the parser configuration). All other comments become orphan comments of the node.
+   *
+   * @param node the node
+   * @param children the child nodes
+   * @param comments the comments to attribute
+   */
+  private void attributePrecedingComments(Node node, List<Node> children, List<Comment> comments) {
+    List<Node> childrenAndComments = new ArrayList<>(children.size() + comments.size());
+    childrenAndComments.addAll(children);
+    childrenAndComments.addAll(comments);
+    PositionUtils.sortByBeginPosition(childrenAndComments, ignoreAnnotations);
+
+    Comment previousComment = null;
+    for (var child : childrenAndComments) {
+      if (child instanceof Comment comment) {
+        previousComment = comment.isOrphan() ? comment : null;
+      } else if (previousComment != null
+          && child.getComment().isEmpty()
+          && !(doNotAssignCommentsPrecedingEmptyLines && areLinesBetween(previousComment, child))) {
+        child.setComment(previousComment);
+        previousComment = null;
+      }
+    }
+
+    for (var comment : comments) {
+      if (comment.isOrphan()) {
+        node.addOrphanComment(comment);
+      }
+    }
+  }
+
+  private static boolean endsBefore(Node node, Comment comment) {
+    return node.getEnd().get().isBefore(comment.getBegin().get());
+  }
+
+  private static boolean isOnNextLine(Comment comment, Node node) {
+    return node.hasRange() && endLine(comment) + 1 == beginLine(node);
+  }
+
+  private static boolean areLinesBetween(Node a, Node b) {
+    if (!PositionUtils.areInOrder(a, b)) {
+      return areLinesBetween(b, a);
+    }
+    return endLine(a) + 1 < beginLine(b);
+  }
+
+  private static int beginLine(Node node) {
+    return node.getBegin().get().line;
+  }
+
+  private static int endLine(Node node) {
+    return node.getEnd().get().line;
+  }
+}
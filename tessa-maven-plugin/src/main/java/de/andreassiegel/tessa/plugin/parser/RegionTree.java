@@ -0,0 +1,167 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.comments.LineComment;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * The tree of regions in a sequence of nodes, e.g., the child nodes of a class or method body, that
+ * are marked with {@code // region My region} and {@code // endregion} comments.
+ *
+ * <p>The tree is built in a single pass over the nodes: region comments open and close regions on a
+ * stack, so nested regions are paired correctly, and every other node is assigned to the innermost
+ * region that contains it.
+ */
+class RegionTree {
+
+  private static final Comparator<Node> BY_BEGIN =
+      Comparator.comparing(node -> node.getRange().get().begin);
+
+  /** A region in the tree. */
+  @Getter
+  static class Region {
+
+    /** The name of the region. */
+    private final String name;
+
+    /** The nesting level of the region, starting at {@code 0} for top-level regions. */
+    private final int level;
+
+    /** The region begin comment. */
+    private final LineComment begin;
+
+    /** The region end comment. */
+    private LineComment end;
+
+    /** All nodes between the begin and end comments, including those of nested regions. */
+    private List<Node> childNodes;
+
+    /** The nodes that belong to this region, but not to any nested region. */
+    private final List<Node> ownNodes = new ArrayList<>();
+
+    /** The parent region, or {@code null} for top-level regions. */
+    private final Region parent;
+
+    private final int firstChildIndex;
+
+    private Region(String name, int level, LineComment begin, Region parent, int firstChildIndex) {
+      this.name = name;
+      this.level = level;
+      this.begin = begin;
+      this.parent = parent;
+      this.firstChildIndex = firstChildIndex;
+    }
+  }
+
+  private RegionTree() {}
+
+  /**
+   * Builds the region tree for a list of nodes.
+   *
+   * @param orderedNodes the nodes, ordered by their begin
+   * @return the regions in the order of their begin comments, i.e., every region is followed by its
+   *     nested regions
+   * @throws RuntimeException if the region comments are invalid, i.e., there is no {@code
+   *     endregion} line comment for each {@code region} comment, or vice-versa.
+   */
+  static List<Region> build(List<Node> orderedNodes) {
+    List<Region> regions = new ArrayList<>();
+    Deque<Region> openRegions = new ArrayDeque<>();
+
+    for (int i = 0; i < orderedNodes.size(); i++) {
+      var node = orderedNodes.get(i);
+      var marker = node instanceof LineComment lineComment ? lineComment : null;
+
+      if (CommentUtil.isBeginRegionComment(marker)) {
+        var region =
+            new Region(
+                CommentUtil.regionName(marker),
+                openRegions.size(),
+                marker,
+                openRegions.peek(),
+                i + 1);
+        regions.add(region);
+        openRegions.push(region);
+      } else if (CommentUtil.isRegionComment(marker)) {
+        if (openRegions.isEmpty()) {
+          throw new RuntimeException("Invalid regions: endregion without region");
+        }
+        var region = openRegions.pop();
+        region.end = marker;
+        region.childNodes = orderedNodes.subList(region.firstChildIndex, i);
+      } else if (!openRegions.isEmpty()) {
+        openRegions.peek().ownNodes.add(node);
+      }
+    }
+
+    if (!openRegions.isEmpty()) {
+      throw new RuntimeException("Invalid regions: region without endregion");
+    }
+
+    return regions;
+  }
+
+  /**
+   * Builds the region tree for a list of nodes and converts the regions into parsed regions.
+   *
+   * <p>Parsed regions are linked to the parsed regions of their parents, see {@link
+   * ParsedRegion#getSubregions()}.
+   *
+   * @param orderedNodes the nodes, ordered by their begin
+   * @param factory the function that creates the parsed region for a region
+   * @return the map of parsed regions by name, ordered by their begin
+   * @param <T> the type of relevant nodes within the regions
+   * @param <R> the type of parsed regions
+   * @throws RuntimeException if the region comments are invalid
+   */
+  static <T, R extends ParsedRegion<T>> Map<String, R> parsedRegions(
+      List<Node> orderedNodes, Function<Region, R> factory) {
+    Map<Region, R> parsedRegions = new HashMap<>();
+    Map<String, R> parsedRegionsByName = new LinkedHashMap<>();
+    for (var region : build(orderedNodes)) {
+      var parsedRegion = factory.apply(region);
+      if (region.parent != null) {
+        parsedRegions.get(region.parent).subregions.add(parsedRegion);
+      }
+      parsedRegions.put(region, parsedRegion);
+      parsedRegionsByName.put(region.name, parsedRegion);
+    }
+    return parsedRegionsByName;
+  }
+
+  /**
+   * Orders nodes by their begin, as expected by {@link #build(List)}. Nodes without a range are
+   * omitted.
+   *
+   * @param nodes the nodes
+   * @return the ordered nodes
+   */
+  static List<Node> orderedNodes(List<Node> nodes) {
+    return nodes.stream().filter(Node::hasRange).sorted(BY_BEGIN).toList();
+  }
+}
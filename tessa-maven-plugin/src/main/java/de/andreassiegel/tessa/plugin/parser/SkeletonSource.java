@@ -0,0 +1,384 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.github.javaparser.Processor;
+import com.github.javaparser.Provider;
+import com.github.javaparser.StringProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Reduces the source code of a file to a skeleton before it is parsed.
+ *
+ * <p>Tessa reads the bodies of test methods only. Of all other methods, e.g., helpers, lifecycle
+ * methods, or constructors, it reads nothing but the declaration and its Javadoc. The processor
+ * therefore blanks the bodies of all methods that are not annotated with a test annotation (see
+ * {@link MethodDeclarationUtil#TEST_ANNOTATION_NAMES}), so that the parser only creates an empty
+ * block for them. Every character of such a body is replaced by a space, except for line
+ * terminators and other whitespace, so all remaining nodes and comments keep their positions. The
+ * blank body is then enclosed in a block comment, which is never read.
+ *
+ * <p>The source code is only scanned for braces, parentheses and the tokens of declarations,
+ * skipping comments and literals. A body is kept as it is whenever it cannot be blanked without
+ * possibly changing the result of the parser:
+ *
+ * <ul>
+ *   <li>if the declaration has an annotation with the simple name of a test annotation, in simple
+ *       or qualified form,
+ *   <li>if the body contains a unicode escape, since it may stand for a line terminator,
+ *   <li>if there is any other content on the line of the closing brace before the brace, since a
+ *       line comment after the brace is attributed based on the nodes on that line.
+ * </ul>
+ */
+class SkeletonSource extends Processor {
+
+  @Override
+  public Provider preProcess(Provider provider) {
+    try (provider) {
+      var source = read(provider);
+      blankNonTestMethodBodies(source);
+      return new StringProvider(new String(source));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Blanks the bodies of all methods of the given source code that are not test methods.
+   *
+   * @param source the source code, which is modified in place
+   */
+  static void blankNonTestMethodBodies(char[] source) {
+    var declaration = new Declaration();
+    var position = 0;
+    while (position < source.length) {
+      var c = source[position];
+      if (isWhitespace(c)) {
+        position++;
+      } else if (c == '/' && position + 1 < source.length && source[position + 1] == '/') {
+        position = skipLineComment(source, position);
+      } else if (c == '/' && position + 1 < source.length && source[position + 1] == '*') {
+        position = skipBlockComment(source, position);
+      } else if (c == '"' || c == '\'') {
+        position = skipLiteral(source, position);
+        declaration.symbol(c);
+      } else if (Character.isJavaIdentifierStart(c)) {
+        var end = position + 1;
+        while (end < source.length && Character.isJavaIdentifierPart(source[end])) {
+          end++;
+        }
+        declaration.word(new String(source, position, end - position));
+        position = end;
+      } else if (c == '{') {
+        position = openBlock(source, position, declaration);
+      } else {
+        declaration.symbol(c);
+        position++;
+      }
+    }
+  }
+
+  /**
+   * Handles the opening brace of a block in a class body or outside of classes.
+   *
+   * @param source the source code
+   * @param open the position of the opening brace
+   * @param declaration the declaration that precedes the block
+   * @return the position after the opening brace if the block is a class body, or the position
+   *     after the closing brace otherwise
+   */
+  private static int openBlock(char[] source, int open, Declaration declaration) {
+    if (declaration.isClass()) {
+      declaration.reset();
+      return open + 1;
+    }
+
+    var close = skipBlock(source, open);
+    if (close < 0) {
+      return source.length;
+    }
+
+    if (declaration.isMethod()) {
+      if (!declaration.isTest() && canBeBlanked(source, open, close)) {
+        blank(source, open + 1, close);
+      }
+      declaration.reset();
+    } else if (declaration.isInitializer()) {
+      declaration.reset();
+    }
+    return close + 1;
+  }
+
+  private static boolean canBeBlanked(char[] source, int open, int close) {
+    for (int i = open + 1; i < close - 1; i++) {
+      if (source[i] == '\\' && source[i + 1] == 'u') {
+        return false;
+      }
+    }
+
+    var position = close - 1;
+    while (position > open
+        && isWhitespace(source[position])
+        && !isLineTerminator(source[position])) {
+      position--;
+    }
+    return position == open || isLineTerminator(source[position]);
+  }
+
+  /**
+   * Blanks the given range of the source code. If possible, the blank range is turned into a block
+   * comment, since the parser creates a single token for a comment, but one token per whitespace
+   * character.
+   *
+   * @param source the source code
+   * @param start the start of the range (inclusive)
+   * @param end the end of the range (exclusive)
+   */
+  private static void blank(char[] source, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!isWhitespace(source[i])) {
+        source[i] = ' ';
+      }
+    }
+
+    var commentStart = start;
+    while (commentStart + 1 < end
+        && !(source[commentStart] == ' ' && source[commentStart + 1] == ' ')) {
+      commentStart++;
+    }
+    var commentEnd = end - 1;
+    while (commentEnd > commentStart + 2
+        && !(source[commentEnd] == ' ' && source[commentEnd - 1] == ' ')) {
+      commentEnd--;
+    }
+    if (commentEnd > commentStart + 2) {
+      source[commentStart] = '/';
+      source[commentStart + 1] = '*';
+      source[commentEnd - 1] = '*';
+      source[commentEnd] = '/';
+    }
+  }
+
+  /**
+   * Finds the closing brace of a block, skipping nested blocks, comments and literals.
+   *
+   * @param source the source code
+   * @param open the position of the opening brace
+   * @return the position of the closing brace, or {@code -1} if the block is not closed
+   */
+  private static int skipBlock(char[] source, int open) {
+    var depth = 0;
+    var position = open;
+    while (position < source.length) {
+      var c = source[position];
+      if (c == '/' && position + 1 < source.length && source[position + 1] == '/') {
+        position = skipLineComment(source, position);
+      } else if (c == '/' && position + 1 < source.length && source[position + 1] == '*') {
+        position = skipBlockComment(source, position);
+      } else if (c == '"' || c == '\'') {
+        position = skipLiteral(source, position);
+      } else {
+        if (c == '{') {
+          depth++;
+        } else if (c == '}' && --depth == 0) {
+          return position;
+        }
+        position++;
+      }
+    }
+    return -1;
+  }
+
+  private static int skipLineComment(char[] source, int start) {
+    var position = start + 2;
+    while (position < source.length && !isLineTerminator(source[position])) {
+      position++;
+    }
+    return position;
+  }
+
+  private static int skipBlockComment(char[] source, int start) {
+    for (int position = start + 2; position + 1 < source.length; position++) {
+      if (source[position] == '*' && source[position + 1] == '/') {
+        return position + 2;
+      }
+    }
+    return source.length;
+  }
+
+  /**
+   * Skips a string, character or text block literal.
+   *
+   * @param source the source code
+   * @param start the position of the opening quote
+   * @return the position after the closing quote
+   */
+  private static int skipLiteral(char[] source, int start) {
+    var quote = source[start];
+    var textBlock =
+        quote == '"'
+            && start + 2 < source.length
+            && source[start + 1] == '"'
+            && source[start + 2] == '"';
+    var position = textBlock ? start + 3 : start + 1;
+    while (position < source.length) {
+      var c = source[position];
+      if (c == '\\') {
+        position += 2;
+      } else if (textBlock) {
+        if (c == '"'
+            && position + 2 < source.length
+            && source[position + 1] == '"'
+            && source[position + 2] == '"') {
+          return position + 3;
+        }
+        position++;
+      } else if (c == quote || isLineTerminator(c)) {
+        return position + 1;
+      } else {
+        position++;
+      }
+    }
+    return source.length;
+  }
+
+  private static char[] read(Provider provider) throws IOException {
+    var buffer = new char[8192];
+    var length = 0;
+    int count;
+    while ((count = provider.read(buffer, length, buffer.length - length)) >= 0) {
+      length += count;
+      if (length == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    }
+    return Arrays.copyOf(buffer, length);
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\f' || isLineTerminator(c);
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r';
+  }
+
+  /**
+   * The tokens of the declaration that precedes the next block in a class body, or outside of
+   * classes, as far as they are needed to tell what the block is.
+   */
+  private static class Declaration {
+
+    private int parenthesesDepth;
+    private boolean assignment;
+    private boolean typeDeclaration;
+    private boolean afterParameters;
+    private boolean afterThrows;
+    private boolean test;
+    private boolean annotationExpected;
+    private String annotationName;
+    private String previousWord;
+
+    void reset() {
+      parenthesesDepth = 0;
+      assignment = false;
+      typeDeclaration = false;
+      afterParameters = false;
+      afterThrows = false;
+      test = false;
+      annotationExpected = false;
+      annotationName = null;
+      previousWord = null;
+    }
+
+    void word(String word) {
+      if (annotationExpected && !"interface".equals(word)) {
+        annotationExpected = false;
+        annotationName = word;
+        return;
+      }
+      endAnnotation();
+
+      if (parenthesesDepth == 0) {
+        switch (word) {
+          case "class", "interface", "enum" -> typeDeclaration = true;
+          default -> typeDeclaration |= "record".equals(previousWord);
+        }
+        if ("throws".equals(word) && afterParameters) {
+          afterThrows = true;
+        } else if (!afterThrows) {
+          afterParameters = false;
+        }
+      }
+      previousWord = word;
+    }
+
+    void symbol(char symbol) {
+      if (symbol == '.' && annotationName != null) {
+        annotationExpected = true;
+        return;
+      }
+      endAnnotation();
+      previousWord = null;
+
+      switch (symbol) {
+        case '@' -> annotationExpected = parenthesesDepth == 0;
+        case '(' -> parenthesesDepth++;
+        case ')' -> afterParameters = --parenthesesDepth == 0;
+        case ';' -> {
+          if (parenthesesDepth == 0) {
+            reset();
+          }
+        }
+        case '=' -> assignment |= parenthesesDepth == 0;
+        case '}' -> reset();
+        default -> {
+          if (!(afterThrows && (symbol == '.' || symbol == ','))) {
+            afterParameters = false;
+            afterThrows = false;
+          }
+        }
+      }
+    }
+
+    private void endAnnotation() {
+      if (annotationName != null) {
+        test |= MethodDeclarationUtil.TEST_ANNOTATION_NAMES.contains(annotationName);
+        annotationName = null;
+      }
+      annotationExpected = false;
+    }
+
+    boolean isClass() {
+      endAnnotation();
+      return parenthesesDepth == 0 && !assignment && typeDeclaration;
+    }
+
+    boolean isMethod() {
+      return parenthesesDepth == 0 && !assignment && !typeDeclaration && afterParameters;
+    }
+
+    boolean isInitializer() {
+      return parenthesesDepth == 0 && !assignment;
+    }
+
+    boolean isTest() {
+      return test;
+    }
+  }
+}
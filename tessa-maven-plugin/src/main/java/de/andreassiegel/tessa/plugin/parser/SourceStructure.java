@@ -0,0 +1,930 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.github.javaparser.ast.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.Getter;
+
+/**
+ * The structure of Java source code, recognized from its tokens (see {@link SourceTokens}) without
+ * parsing it into a syntax tree.
+ *
+ * <p>Only the structure Tessa reads is recognized: the top-level types of a file, the members of
+ * classes, the annotations of classes and methods, and the statements of test methods. Everything
+ * else, e.g., field initializers, expressions, or the bodies of other methods, is skipped as a
+ * balanced sequence of tokens.
+ *
+ * <p>Comments are attributed to the elements of the structure with the same rules as by {@link
+ * PositionalCommentAttribution}, i.e., as by JavaParser, for the comments Tessa reads: the comments
+ * of top-level classes and the comments in the bodies of their test methods.
+ *
+ * <p>The structure is not validated beyond what is needed to recognize it. If the tokens do not
+ * have the expected structure, an {@link UnrecognizedStructureException} is thrown.
+ */
+class SourceStructure {
+
+  private static final Set<String> MODIFIERS =
+      Set.of(
+          "public",
+          "protected",
+          "private",
+          "static",
+          "final",
+          "abstract",
+          "native",
+          "synchronized",
+          "transient",
+          "volatile",
+          "strictfp",
+          "default",
+          "sealed");
+
+  /** The identifiers and keywords that do not begin a node, e.g., because they continue one. */
+  private static final Set<String> CONTINUING_KEYWORDS =
+      Set.of("else", "finally", "extends", "implements", "throws", "permits", "instanceof");
+
+  @Getter private final SourceTokens tokens;
+  private final int[] matchingBrackets;
+
+  private final List<Element> children = new ArrayList<>();
+  @Getter private final List<Type> types = new ArrayList<>();
+
+  /**
+   * Recognizes the structure of the tokens and attributes the comments.
+   *
+   * @param tokens the tokens of the source code
+   * @throws UnrecognizedStructureException if the structure cannot be recognized
+   */
+  SourceStructure(SourceTokens tokens) {
+    this.tokens = tokens;
+    this.matchingBrackets = matchBrackets();
+    parseCompilationUnit();
+    attributeComments();
+  }
+
+  /** Signals that the structure of source code cannot be recognized from its tokens. */
+  static class UnrecognizedStructureException extends RuntimeException {
+
+    UnrecognizedStructureException(String message) {
+      super(message);
+    }
+  }
+
+  /** An element of the source code that is a node of the syntax tree. */
+  @Getter
+  static class Element {
+
+    /** The index of the first token. */
+    private final int first;
+
+    /** The index of the last token. */
+    private final int last;
+
+    /** The index of the comment attributed to the element, or {@code -1} if there is none. */
+    private int comment = -1;
+
+    Element(int first, int last) {
+      this.first = first;
+      this.last = last;
+    }
+  }
+
+  /** An annotation of a type or method. */
+  @Getter
+  static class Annotation extends Element {
+
+    /** The name of the annotation, qualified as written. */
+    private final String name;
+
+    /** The index of the opening parenthesis, or {@code -1} if there are no parentheses. */
+    private final int open;
+
+    Annotation(int first, int last, String name, int open) {
+      super(first, last);
+      this.name = name;
+      this.open = open;
+    }
+
+    /**
+     * Returns the simple name of the annotation, i.e., the last segment of a qualified name such as
+     * {@code org.junit.jupiter.api.Test}.
+     *
+     * @return the simple name
+     */
+    String getSimpleName() {
+      return name.substring(name.lastIndexOf('.') + 1);
+    }
+  }
+
+  /** A method declaration in the body of a class. */
+  @Getter
+  static class Method extends Element {
+
+    private final String name;
+    private final List<Annotation> annotations;
+
+    /** Whether the method is annotated with a test annotation. */
+    private final boolean test;
+
+    /** The index of the opening brace of the body, or {@code -1} if there is no body. */
+    private final int bodyOpen;
+
+    /** The orphan comments of the body, only attributed for test methods. */
+    private List<Integer> orphanComments = List.of();
+
+    Method(int first, int last, String name, List<Annotation> annotations, int bodyOpen) {
+      super(first, last);
+      this.name = name;
+      this.annotations = annotations;
+      this.test =
+          annotations.stream()
+              .anyMatch(
+                  a -> MethodDeclarationUtil.TEST_ANNOTATION_NAMES.contains(a.getSimpleName()));
+      this.bodyOpen = bodyOpen;
+    }
+  }
+
+  /** A type declaration, i.e., a class, interface, enum, record, or annotation declaration. */
+  @Getter
+  static class Type extends Element {
+
+    /** The keyword of the declaration, e.g., {@code class} or {@code @interface}. */
+    private final String keyword;
+
+    private final String name;
+    private final List<Annotation> annotations;
+
+    /** The index of the opening brace of the body. */
+    private final int bodyOpen;
+
+    /** The elements of the header, i.e., the annotations, the name, and the rest of the header. */
+    private final List<Element> header = new ArrayList<>();
+
+    /** The members of the body, only recognized for classes. */
+    private final List<Element> members = new ArrayList<>();
+
+    /** The orphan comments of the type, only attributed for classes. */
+    private List<Integer> orphanComments = List.of();
+
+    Type(int first, int last, String keyword, String name, List<Annotation> annotations, int open) {
+      super(first, last);
+      this.keyword = keyword;
+      this.name = name;
+      this.annotations = annotations;
+      this.bodyOpen = open;
+    }
+
+    /**
+     * Checks whether the type is a class, i.e., neither an interface, enum, record, nor annotation.
+     *
+     * @return {@code true} if the type is a class, {@code false} otherwise
+     */
+    boolean isClass() {
+      return "class".equals(keyword);
+    }
+
+    /**
+     * Returns the methods of the class in declaration order.
+     *
+     * @return the methods
+     */
+    List<Method> getMethods() {
+      return members.stream().filter(Method.class::isInstance).map(Method.class::cast).toList();
+    }
+  }
+
+  // region structure
+
+  private int[] matchBrackets() {
+    var matching = new int[tokens.size()];
+    var open = new int[64];
+    var depth = 0;
+    for (int token = 0; token < tokens.size(); token++) {
+      if (tokens.kind(token) != SourceTokens.SYMBOL) {
+        continue;
+      }
+      var symbol = tokens.symbol(token);
+      if (symbol == '(' || symbol == '[' || symbol == '{') {
+        if (depth == open.length) {
+          open = Arrays.copyOf(open, depth * 2);
+        }
+        open[depth++] = token;
+      } else if (symbol == ')' || symbol == ']' || symbol == '}') {
+        if (depth == 0 || tokens.symbol(open[depth - 1]) != opening(symbol)) {
+          throw new UnrecognizedStructureException("Unbalanced '" + symbol + "'");
+        }
+        var opening = open[--depth];
+        matching[opening] = token;
+        matching[token] = opening;
+      }
+    }
+    if (depth != 0) {
+      throw new UnrecognizedStructureException("Unbalanced brackets");
+    }
+    return matching;
+  }
+
+  private static char opening(char closing) {
+    return switch (closing) {
+      case ')' -> '(';
+      case ']' -> '[';
+      default -> '{';
+    };
+  }
+
+  private boolean isOpening(int token) {
+    return tokens.isSymbol(token, '(')
+        || tokens.isSymbol(token, '[')
+        || tokens.isSymbol(token, '{');
+  }
+
+  /**
+   * Finds the next occurrence of a symbol, skipping everything in brackets.
+   *
+   * @param from the index of the first token to look at
+   * @param to the index of the token to stop at (exclusive)
+   * @param symbol the symbol
+   * @return the index of the symbol
+   * @throws UnrecognizedStructureException if the symbol is not found
+   */
+  private int find(int from, int to, char symbol) {
+    for (int token = from; token < to; token++) {
+      if (tokens.isSymbol(token, symbol)) {
+        return token;
+      }
+      if (isOpening(token)) {
+        token = matchingBrackets[token];
+      }
+    }
+    throw new UnrecognizedStructureException("Expected '" + symbol + "'");
+  }
+
+  private void parseCompilationUnit() {
+    var token = 0;
+    while (token < tokens.size()) {
+      if (tokens.isSymbol(token, ';')) {
+        token++;
+      } else if (tokens.isWord(token, "package") || tokens.isWord(token, "import")) {
+        var end = find(token, tokens.size(), ';');
+        children.add(new Element(token, end));
+        token = end + 1;
+      } else {
+        var type = parseType(token, tokens.size());
+        children.add(type);
+        types.add(type);
+        token = type.getLast() + 1;
+      }
+    }
+  }
+
+  /**
+   * Recognizes a type declaration, and the members of its body if it is a class.
+   *
+   * @param start the index of the first token of the declaration
+   * @param to the index of the token to stop at (exclusive)
+   * @return the type declaration
+   */
+  private Type parseType(int start, int to) {
+    List<Annotation> annotations = new ArrayList<>();
+    var token = skipModifiers(start, to, annotations);
+    String keyword;
+    if (isAnnotationDeclaration(token)) {
+      keyword = "@interface";
+      token += 2;
+    } else if (isTypeKeyword(token)) {
+      keyword = tokens.text(token);
+      token++;
+    } else {
+      throw new UnrecognizedStructureException("Expected a type declaration");
+    }
+    if (!tokens.isIdentifier(token)) {
+      throw new UnrecognizedStructureException("Expected the name of a type");
+    }
+
+    var name = token;
+    var bodyOpen = find(name + 1, to, '{');
+    var bodyClose = matchingBrackets[bodyOpen];
+    var type = new Type(start, bodyClose, keyword, tokens.text(name), annotations, bodyOpen);
+    type.header.addAll(annotations);
+    type.header.add(new Element(name, name));
+    if (bodyOpen > name + 1) {
+      type.header.add(new Element(name + 1, bodyOpen - 1));
+    }
+    if (type.isClass()) {
+      parseMembers(type.members, bodyOpen + 1, bodyClose);
+    }
+    return type;
+  }
+
+  private boolean isTypeKeyword(int token) {
+    return tokens.isWord(token, "class")
+        || tokens.isWord(token, "interface")
+        || tokens.isWord(token, "enum")
+        || (tokens.isWord(token, "record") && tokens.isIdentifier(token + 1));
+  }
+
+  private boolean isAnnotationDeclaration(int token) {
+    return tokens.isSymbol(token, '@') && tokens.isWord(token + 1, "interface");
+  }
+
+  /**
+   * Skips the modifiers and annotations of a declaration.
+   *
+   * @param from the index of the first token of the declaration
+   * @param to the index of the token to stop at (exclusive)
+   * @param annotations the list the annotations are added to
+   * @return the index of the first token after the modifiers and annotations
+   */
+  private int skipModifiers(int from, int to, List<Annotation> annotations) {
+    var token = from;
+    while (token < to) {
+      if (tokens.isSymbol(token, '@') && !isAnnotationDeclaration(token)) {
+        var annotation = parseAnnotation(token);
+        annotations.add(annotation);
+        token = annotation.getLast() + 1;
+      } else if (tokens.isIdentifier(token) && MODIFIERS.contains(tokens.text(token))) {
+        token++;
+      } else if (tokens.isWord(token, "non")
+          && tokens.isSymbol(token + 1, '-')
+          && tokens.isWord(token + 2, "sealed")) {
+        token += 3;
+      } else {
+        break;
+      }
+    }
+    return token;
+  }
+
+  private Annotation parseAnnotation(int at) {
+    var nameEnd = at + 1;
+    if (!tokens.isIdentifier(nameEnd)) {
+      throw new UnrecognizedStructureException("Expected the name of an annotation");
+    }
+    var name = new StringBuilder(tokens.text(nameEnd));
+    while (tokens.isSymbol(nameEnd + 1, '.') && tokens.isIdentifier(nameEnd + 2)) {
+      name.append('.').append(tokens.text(nameEnd + 2));
+      nameEnd += 2;
+    }
+
+    if (tokens.isSymbol(nameEnd + 1, '(')) {
+      var open = nameEnd + 1;
+      return new Annotation(at, matchingBrackets[open], name.toString(), open);
+    }
+    return new Annotation(at, nameEnd, name.toString(), -1);
+  }
+
+  private void parseMembers(List<Element> members, int from, int to) {
+    var token = from;
+    while (token < to) {
+      if (tokens.isSymbol(token, ';')) {
+        token++;
+      } else {
+        var member = parseMember(token, to);
+        members.add(member);
+        token = member.getLast() + 1;
+      }
+    }
+  }
+
+  /**
+   * Recognizes a member of a class body: an initializer, a nested type, a constructor, a method, or
+   * a field.
+   *
+   * @param start the index of the first token of the member
+   * @param to the index of the closing brace of the class body
+   * @return the member, which is a {@link Method} for methods
+   */
+  private Element parseMember(int start, int to) {
+    List<Annotation> annotations = new ArrayList<>();
+    var token = skipModifiers(start, to, annotations);
+    if (tokens.isSymbol(token, '{')) {
+      return new Element(start, matchingBrackets[token]);
+    }
+    if (isTypeKeyword(token) || isAnnotationDeclaration(token)) {
+      return new Element(start, matchingBrackets[find(token, to, '{')]);
+    }
+    if (tokens.isSymbol(token, '<')) {
+      // annotations after the type parameters are annotations of the method as well
+      token = skipModifiers(skipTypeParameters(token, to), to, annotations);
+    }
+    if (tokens.isIdentifier(token) && tokens.isSymbol(token + 1, '(')) {
+      return new Element(start, declarationEnd(matchingBrackets[token + 1] + 1, to)[1]);
+    }
+
+    var typeArgumentDepth = 0;
+    for (; token < to; token++) {
+      if (tokens.isSymbol(token, '@')) {
+        token = parseAnnotation(token).getLast();
+      } else if (tokens.isSymbol(token, '<')) {
+        typeArgumentDepth++;
+      } else if (tokens.isSymbol(token, '>')) {
+        typeArgumentDepth--;
+      } else if (typeArgumentDepth > 0) {
+        if (isOpening(token)) {
+          token = matchingBrackets[token];
+        }
+      } else if (tokens.isSymbol(token, '(')) {
+        if (!tokens.isIdentifier(token - 1)) {
+          throw new UnrecognizedStructureException("Expected the name of a method");
+        }
+        var end = declarationEnd(matchingBrackets[token] + 1, to);
+        return new Method(start, end[1], tokens.text(token - 1), annotations, end[0]);
+      } else if (tokens.isSymbol(token, '=')
+          || tokens.isSymbol(token, ';')
+          || tokens.isSymbol(token, ',')) {
+        return new Element(start, find(token, to, ';'));
+      } else if (isOpening(token)) {
+        token = matchingBrackets[token];
+      }
+    }
+    throw new UnrecognizedStructureException("Expected a member");
+  }
+
+  private int skipTypeParameters(int open, int to) {
+    var depth = 0;
+    for (int token = open; token < to; token++) {
+      if (tokens.isSymbol(token, '<')) {
+        depth++;
+      } else if (tokens.isSymbol(token, '>') && --depth == 0) {
+        return token + 1;
+      } else if (isOpening(token)) {
+        token = matchingBrackets[token];
+      }
+    }
+    throw new UnrecognizedStructureException("Expected the end of the type parameters");
+  }
+
+  /**
+   * Finds the end of a method or constructor declaration after its parameters.
+   *
+   * @param from the index of the token after the parameters
+   * @param to the index of the closing brace of the class body
+   * @return the index of the opening brace of the body, or {@code -1} if there is no body, and the
+   *     index of the last token of the declaration
+   */
+  private int[] declarationEnd(int from, int to) {
+    for (int token = from; token < to; token++) {
+      if (tokens.isSymbol(token, '{')) {
+        return new int[] {token, matchingBrackets[token]};
+      } else if (tokens.isSymbol(token, ';')) {
+        return new int[] {-1, token};
+      } else if (tokens.isWord(token, "default")) {
+        return new int[] {-1, find(token, to, ';')};
+      } else if (isOpening(token)) {
+        token = matchingBrackets[token];
+      }
+    }
+    throw new UnrecognizedStructureException("Expected the end of a method");
+  }
+
+  /**
+   * Recognizes the statements of a block.
+   *
+   * @param from the index of the first token in the block
+   * @param to the index of the closing brace of the block
+   * @return the statements
+   */
+  private List<Element> parseStatements(int from, int to) {
+    List<Element> statements = new ArrayList<>();
+    var token = from;
+    while (token < to) {
+      var last = statementEnd(token, to);
+      statements.add(new Element(token, last));
+      token = last + 1;
+    }
+    return statements;
+  }
+
+  /**
+   * Finds the last token of a statement.
+   *
+   * @param start the index of the first token of the statement
+   * @param to the index of the closing brace of the enclosing block
+   * @return the index of the last token
+   */
+  private int statementEnd(int start, int to) {
+    if (start >= to) {
+      throw new UnrecognizedStructureException("Expected a statement");
+    }
+    if (tokens.isSymbol(start, '{')) {
+      return matchingBrackets[start];
+    }
+    if (tokens.isSymbol(start, ';')) {
+      return start;
+    }
+
+    var parenthesized = tokens.isSymbol(start + 1, '(');
+    var afterParentheses = parenthesized ? matchingBrackets[start + 1] + 1 : -1;
+    if (parenthesized && tokens.isWord(start, "if")) {
+      var end = statementEnd(afterParentheses, to);
+      return tokens.isWord(end + 1, "else") ? statementEnd(end + 2, to) : end;
+    }
+    if (parenthesized
+        && (tokens.isWord(start, "for")
+            || tokens.isWord(start, "while")
+            || tokens.isWord(start, "synchronized"))) {
+      return statementEnd(afterParentheses, to);
+    }
+    if (parenthesized && tokens.isWord(start, "switch") && tokens.isSymbol(afterParentheses, '{')) {
+      return matchingBrackets[afterParentheses];
+    }
+    if (tokens.isWord(start, "do")) {
+      var end = statementEnd(start + 1, to);
+      if (!tokens.isWord(end + 1, "while") || !tokens.isSymbol(end + 2, '(')) {
+        throw new UnrecognizedStructureException("Expected 'while'");
+      }
+      return find(matchingBrackets[end + 2] + 1, to, ';');
+    }
+    if (tokens.isWord(start, "try")) {
+      return tryStatementEnd(start);
+    }
+    if (tokens.isIdentifier(start)
+        && tokens.isSymbol(start + 1, ':')
+        && !tokens.isSymbol(start + 2, ':')) {
+      return statementEnd(start + 2, to);
+    }
+
+    var typeDeclaration = false;
+    for (int token = start; token < to; token++) {
+      if (tokens.kind(token) == SourceTokens.SYMBOL) {
+        var symbol = tokens.symbol(token);
+        if (symbol == ';') {
+          return token;
+        } else if (symbol == '{' && typeDeclaration) {
+          return matchingBrackets[token];
+        } else if (symbol == '(' || symbol == '[' || symbol == '{') {
+          token = matchingBrackets[token];
+        }
+      } else if (!tokens.isSymbol(token - 1, '.') && isTypeKeyword(token)) {
+        typeDeclaration = true;
+      }
+    }
+    throw new UnrecognizedStructureException("Expected the end of a statement");
+  }
+
+  private int tryStatementEnd(int start) {
+    var token = start + 1;
+    if (tokens.isSymbol(token, '(')) {
+      token = matchingBrackets[token] + 1;
+    }
+    token = requireBlock(token);
+    while (tokens.isWord(token + 1, "catch") && tokens.isSymbol(token + 2, '(')) {
+      token = requireBlock(matchingBrackets[token + 2] + 1);
+    }
+    if (tokens.isWord(token + 1, "finally")) {
+      token = requireBlock(token + 2);
+    }
+    return token;
+  }
+
+  private int requireBlock(int token) {
+    if (!tokens.isSymbol(token, '{')) {
+      throw new UnrecognizedStructureException("Expected a block");
+    }
+    return matchingBrackets[token];
+  }
+
+  // endregion
+
+  // region comment attribution
+
+  private void attributeComments() {
+    var from = 0;
+    if (tokens.commentCount() > 0
+        && !children.isEmpty()
+        && tokens.isWord(children.get(0).getFirst(), "package")
+        && tokens.commentBegin(0) < tokens.begin(children.get(0).getFirst())) {
+      // the comment before the package declaration is the comment of the compilation unit
+      from = 1;
+    }
+    attribute(children, from, tokens.commentCount(), this::attributeInsideType);
+  }
+
+  private void attributeInsideType(Element element) {
+    if (element instanceof Type type && type.isClass()) {
+      var children = new ArrayList<Element>(type.header.size() + type.members.size());
+      children.addAll(type.header);
+      children.addAll(type.members);
+      type.orphanComments =
+          attribute(
+              children,
+              firstCommentFrom(tokens.begin(type.getFirst())),
+              firstCommentFrom(tokens.end(type.getLast())),
+              this::attributeInsideTestMethod);
+    }
+  }
+
+  private void attributeInsideTestMethod(Element element) {
+    if (element instanceof Method method && method.isTest() && method.getBodyOpen() >= 0) {
+      var from = firstCommentFrom(tokens.begin(method.getBodyOpen()));
+      var to = firstCommentFrom(tokens.end(method.getLast()));
+      if (from < to) {
+        var statements = parseStatements(method.getBodyOpen() + 1, method.getLast());
+        method.orphanComments = attribute(statements, from, to, statement -> {});
+      }
+    }
+  }
+
+  /**
+   * Attributes the comments inside an element to its children, after attributing the comments
+   * inside the children.
+   *
+   * @param children the children, ordered by their begin
+   * @param from the index of the first comment inside the element
+   * @param to the index of the first comment after the element
+   * @param attributeInside the function that attributes the comments inside a child, if needed
+   * @return the orphan comments of the element, i.e., all comments that are neither inside a child
+   *     nor attributed to one
+   */
+  private List<Integer> attribute(
+      List<? extends Element> children, int from, int to, Consumer<Element> attributeInside) {
+    if (from >= to) {
+      return List.of();
+    }
+    children.forEach(attributeInside);
+
+    List<Integer> remaining = new ArrayList<>();
+    var childIndex = 0;
+    for (int comment = from; comment < to; comment++) {
+      while (childIndex < children.size()
+          && tokens.end(children.get(childIndex).getLast()) <= tokens.commentBegin(comment)) {
+        childIndex++;
+      }
+      if (childIndex == children.size()
+          || tokens.begin(children.get(childIndex).getFirst()) > tokens.commentBegin(comment)) {
+        remaining.add(comment);
+      }
+    }
+
+    attributeLineCommentsOnSameLine(children, remaining);
+    return attributePrecedingComments(children, remaining);
+  }
+
+  /**
+   * Attributes line comments to the element that begins on the line where a child ends, i.e.,
+   * trailing comments.
+   *
+   * @param children the children, ordered by their begin
+   * @param comments the comments to attribute, attributed comments are removed from the list
+   */
+  private void attributeLineCommentsOnSameLine(
+      List<? extends Element> children, List<Integer> comments) {
+    var childIndex = 0;
+    for (var iterator = comments.iterator(); iterator.hasNext(); ) {
+      int comment = iterator.next();
+      if (tokens.commentKind(comment) != SourceTokens.LINE_COMMENT) {
+        continue;
+      }
+
+      var line = tokens.commentLine(comment);
+      while (childIndex < children.size()
+          && tokens.endLine(children.get(childIndex).getLast()) < line) {
+        childIndex++;
+      }
+      var attributed = false;
+      for (int i = childIndex;
+          i < children.size() && tokens.endLine(children.get(i).getLast()) == line;
+          i++) {
+        attributed |= attributeToElementOnLine(children.get(i), comment);
+      }
+      if (attributed) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Attributes a line comment to an element, or to the last of its descendants, that begins on the
+   * line of the comment. Descendants are only known for classes, for all other elements any token
+   * that begins a node counts as a descendant.
+   *
+   * @param element the element
+   * @param comment the line comment
+   * @return {@code true} if a node begins on the line of the comment, {@code false} otherwise
+   */
+  private boolean attributeToElementOnLine(Element element, int comment) {
+    var line = tokens.commentLine(comment);
+    if (tokens.line(element.getFirst()) == line && element.comment < 0) {
+      element.comment = comment;
+      return true;
+    }
+
+    if (element instanceof Type type && type.isClass()) {
+      var members = type.members;
+      var orphans = type.orphanComments;
+      var m = members.size() - 1;
+      var o = orphans.size() - 1;
+      while (m >= 0 || o >= 0) {
+        if (o < 0
+            || (m >= 0
+                && tokens.begin(members.get(m).getFirst()) > tokens.commentBegin(orphans.get(o)))) {
+          if (attributeToElementOnLine(members.get(m--), comment)) {
+            return true;
+          }
+        } else if (tokens.commentLine(orphans.get(o--)) == line) {
+          return true;
+        }
+      }
+      for (int i = type.header.size() - 1; i >= 0; i--) {
+        if (attributeToElementOnLine(type.header.get(i), comment)) {
+          return true;
+        }
+      }
+      return beginsNodeOnLine(element.getFirst(), type.getBodyOpen(), comment);
+    }
+    return beginsNodeOnLine(element.getFirst(), element.getLast(), comment);
+  }
+
+  /**
+   * Checks whether a node begins on the line of a comment, within a range of tokens.
+   *
+   * @param first the index of the first token of the range
+   * @param last the index of the last token of the range
+   * @param comment the comment, which follows the range
+   * @return {@code true} if a token or comment in the range begins a node on the line of the
+   *     comment, {@code false} otherwise
+   */
+  private boolean beginsNodeOnLine(int first, int last, int comment) {
+    var line = tokens.commentLine(comment);
+    for (int token = last; token >= first && tokens.endLine(token) >= line; token--) {
+      if (tokens.line(token) == line && beginsNode(token)) {
+        return true;
+      }
+    }
+    for (int other = comment - 1; other >= 0 && tokens.commentLine(other) >= line; other--) {
+      if (tokens.commentLine(other) == line
+          && tokens.commentBegin(other) >= tokens.begin(first)
+          && tokens.commentEnd(other) <= tokens.end(last)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean beginsNode(int token) {
+    return switch (tokens.kind(token)) {
+      case SourceTokens.IDENTIFIER -> !CONTINUING_KEYWORDS.contains(tokens.text(token));
+      case SourceTokens.LITERAL -> true;
+      default -> tokens.isSymbol(token, '{') || tokens.isSymbol(token, '@');
+    };
+  }
+
+  /**
+   * Attributes each comment to the following child, unless there are empty lines in between. All
+   * other comments are orphan comments.
+   *
+   * @param children the children, ordered by their begin
+   * @param comments the comments to attribute, ordered by their begin
+   * @return the orphan comments
+   */
+  private List<Integer> attributePrecedingComments(
+      List<? extends Element> children, List<Integer> comments) {
+    List<Integer> orphans = new ArrayList<>();
+    var previous = -1;
+    var childIndex = 0;
+    for (int comment : comments) {
+      while (childIndex < children.size()
+          && tokens.begin(children.get(childIndex).getFirst()) < tokens.commentBegin(comment)) {
+        previous = attributePrecedingComment(children.get(childIndex++), previous);
+      }
+      if (previous >= 0) {
+        orphans.add(previous);
+      }
+      previous = comment;
+    }
+    while (previous >= 0 && childIndex < children.size()) {
+      previous = attributePrecedingComment(children.get(childIndex++), previous);
+    }
+    if (previous >= 0) {
+      orphans.add(previous);
+    }
+    return orphans;
+  }
+
+  private int attributePrecedingComment(Element child, int previous) {
+    if (previous >= 0
+        && child.comment < 0
+        && tokens.commentEndLine(previous) + 1 >= tokens.line(child.getFirst())) {
+      child.comment = previous;
+      return -1;
+    }
+    return previous;
+  }
+
+  /**
+   * Finds the first comment that begins at or after an offset.
+   *
+   * @param offset the offset in the source code
+   * @return the index of the comment, or the number of comments if there is none
+   */
+  private int firstCommentFrom(int offset) {
+    var low = 0;
+    var high = tokens.commentCount();
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (tokens.commentBegin(middle) < offset) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // endregion
+
+  // region annotation values
+
+  /**
+   * Retrieves the value of an annotation, like {@link
+   * AnnotationUtil#annotationValue(com.github.javaparser.ast.expr.AnnotationExpr)}.
+   *
+   * <p>The value is the source code of the expression, as printed by JavaParser. Names and single
+   * literals are printed as written, all other expressions are parsed and printed by JavaParser.
+   *
+   * @param annotation the annotation
+   * @return the value, or an empty string if the value is missing
+   */
+  String annotationValue(Annotation annotation) {
+    var value = "\"\"";
+    var open = annotation.getOpen();
+    var close = annotation.getLast();
+    if (open >= 0 && close > open + 1) {
+      if (tokens.isIdentifier(open + 1)
+          && tokens.isSymbol(open + 2, '=')
+          && !tokens.isSymbol(open + 3, '=')) {
+        var token = open + 1;
+        while (token < close) {
+          var end = token + 2;
+          while (end < close && !tokens.isSymbol(end, ',')) {
+            end = isOpening(end) ? matchingBrackets[end] + 1 : end + 1;
+          }
+          if (tokens.isWord(token, "value")) {
+            value = expression(token + 2, end - 1);
+            break;
+          }
+          token = end + 1;
+        }
+      } else {
+        value = expression(open + 1, close - 1);
+      }
+    }
+    return value.substring(1, value.length() - 1);
+  }
+
+  private String expression(int first, int last) {
+    if (first > last) {
+      throw new UnrecognizedStructureException("Expected an expression");
+    }
+    var commentIndex = firstCommentFrom(tokens.begin(first));
+    var withoutComments =
+        commentIndex == tokens.commentCount()
+            || tokens.commentBegin(commentIndex) > tokens.end(last);
+    if (withoutComments && first == last && !tokens.text(first).startsWith("\"\"\"")) {
+      return tokens.text(first);
+    }
+    if (withoutComments && isQualifiedName(first, last)) {
+      var name = new StringBuilder();
+      for (int token = first; token <= last; token++) {
+        name.append(tokens.text(token));
+      }
+      return name.toString();
+    }
+
+    var text = tokens.text(first, last);
+    return JavaParserProvider.parser(ParserProfile.DEFAULT)
+        .parseExpression(text)
+        .getResult()
+        .map(Node::toString)
+        .orElseThrow(() -> new UnrecognizedStructureException("Invalid expression: " + text));
+  }
+
+  private boolean isQualifiedName(int first, int last) {
+    for (int token = first; token <= last; token += 2) {
+      if (!tokens.isIdentifier(token) || (token < last && !tokens.isSymbol(token + 1, '.'))) {
+        return false;
+      }
+    }
+    return (last - first) % 2 == 0;
+  }
+
+  // endregion
+}
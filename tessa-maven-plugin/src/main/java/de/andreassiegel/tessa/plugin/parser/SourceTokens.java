@@ -0,0 +1,456 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import de.andreassiegel.tessa.plugin.model.SourceText;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * The tokens of Java source code, as far as they are needed to recognize the structure of test
+ * classes (see {@link SourceStructure}).
+ *
+ * <p>Significant tokens and comments are kept apart, each in the order of the source code.
+ * Whitespace is dropped. Operators are not combined, i.e., every character that is not part of an
+ * identifier, keyword, literal or comment is a token of its own. The tokens are stored in arrays
+ * rather than in token objects, since a file has many tokens, and only few of them are ever looked
+ * at more closely.
+ */
+class SourceTokens {
+
+  /** The kind of identifiers and keywords. */
+  static final byte IDENTIFIER = 0;
+
+  /** The kind of string, text block, character and number literals. */
+  static final byte LITERAL = 1;
+
+  /** The kind of all other significant tokens, which consist of a single character. */
+  static final byte SYMBOL = 2;
+
+  /** The kind of line comments. */
+  static final byte LINE_COMMENT = 0;
+
+  /** The kind of block comments. */
+  static final byte BLOCK_COMMENT = 1;
+
+  /** The kind of Javadoc comments. */
+  static final byte JAVADOC_COMMENT = 2;
+
+  private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+  private final char[] source;
+
+  private int size;
+  private byte[] kinds;
+  private int[] begins;
+  private int[] ends;
+  private int[] lines;
+  private int[] endLines;
+
+  private int commentCount;
+  private byte[] commentKinds;
+  private int[] commentBegins;
+  private int[] commentEnds;
+  private int[] commentLines;
+  private int[] commentEndLines;
+
+  private MessageDigest fingerprintDigest;
+  private byte[] fingerprintBuffer;
+
+  /**
+   * Tokenizes the given source code.
+   *
+   * @param source the source code
+   * @throws SourceStructure.UnrecognizedStructureException if a comment or literal is not closed,
+   *     or if the source code contains unicode escapes, which may stand for any character
+   */
+  SourceTokens(char[] source) {
+    this.source = source;
+    for (int i = 0; i + 1 < source.length; i++) {
+      if (source[i] == '\\' && source[i + 1] == 'u') {
+        throw new SourceStructure.UnrecognizedStructureException("Unicode escape");
+      }
+    }
+
+    var capacity = Math.max(16, source.length / 4);
+    this.kinds = new byte[capacity];
+    this.begins = new int[capacity];
+    this.ends = new int[capacity];
+    this.lines = new int[capacity];
+    this.endLines = new int[capacity];
+
+    var commentCapacity = 16;
+    this.commentKinds = new byte[commentCapacity];
+    this.commentBegins = new int[commentCapacity];
+    this.commentEnds = new int[commentCapacity];
+    this.commentLines = new int[commentCapacity];
+    this.commentEndLines = new int[commentCapacity];
+
+    tokenize();
+  }
+
+  private void tokenize() {
+    var line = 1;
+    var position = 0;
+    while (position < source.length) {
+      var c = source[position];
+      var next = position + 1 < source.length ? source[position + 1] : 0;
+      var begin = position;
+      var beginLine = line;
+
+      if (c == '\n' || c == '\r') {
+        position = lineTerminatorEnd(position);
+        line++;
+      } else if (c == ' ' || c == '\t' || c == '\f' || c == '\uFEFF' || Character.isWhitespace(c)) {
+        position++;
+      } else if (c == '/' && next == '/') {
+        while (position < source.length && !isLineTerminator(source[position])) {
+          position++;
+        }
+        addComment(LINE_COMMENT, begin, position, beginLine, line);
+      } else if (c == '/' && next == '*') {
+        var kind = isJavadocBegin(position) ? JAVADOC_COMMENT : BLOCK_COMMENT;
+        position += 2;
+        while (requireNotAtEnd(position + 1)
+            && !(source[position] == '*' && source[position + 1] == '/')) {
+          if (isLineTerminator(source[position])) {
+            position = lineTerminatorEnd(position);
+            line++;
+          } else {
+            position++;
+          }
+        }
+        position += 2;
+        addComment(kind, begin, position, beginLine, line);
+      } else if (c == '"' && next == '"' && at(position + 2) == '"') {
+        position += 3;
+        while (requireNotAtEnd(position + 2)
+            && !(source[position] == '"'
+                && source[position + 1] == '"'
+                && source[position + 2] == '"')) {
+          if (source[position] == '\\' && requireNotAtEnd(position + 1)) {
+            position++;
+          }
+          if (isLineTerminator(source[position])) {
+            position = lineTerminatorEnd(position);
+            line++;
+          } else {
+            position++;
+          }
+        }
+        position += 3;
+        addToken(LITERAL, begin, position, beginLine, line);
+      } else if (c == '"' || c == '\'') {
+        position++;
+        while (requireNotAtEnd(position) && source[position] != c) {
+          if (isLineTerminator(source[position])) {
+            throw new SourceStructure.UnrecognizedStructureException("Unclosed literal");
+          }
+          position += source[position] == '\\' ? 2 : 1;
+        }
+        position++;
+        addToken(LITERAL, begin, position, beginLine, line);
+      } else if (isDigit(c) || (c == '.' && isDigit(next))) {
+        position++;
+        while (position < source.length && isNumberPart(source[position - 1], source[position])) {
+          position++;
+        }
+        addToken(LITERAL, begin, position, beginLine, line);
+      } else if (Character.isJavaIdentifierStart(c)) {
+        position++;
+        while (position < source.length && Character.isJavaIdentifierPart(source[position])) {
+          position++;
+        }
+        addToken(IDENTIFIER, begin, position, beginLine, line);
+      } else {
+        position++;
+        addToken(SYMBOL, begin, position, beginLine, line);
+      }
+    }
+  }
+
+  private boolean isJavadocBegin(int position) {
+    return at(position + 2) == '*' && at(position + 3) != '/';
+  }
+
+  private int lineTerminatorEnd(int position) {
+    return source[position] == '\r' && at(position + 1) == '\n' ? position + 2 : position + 1;
+  }
+
+  private char at(int position) {
+    return position < source.length ? source[position] : 0;
+  }
+
+  private boolean requireNotAtEnd(int position) {
+    if (position >= source.length) {
+      throw new SourceStructure.UnrecognizedStructureException("Unclosed comment or literal");
+    }
+    return true;
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isNumberPart(char previous, char c) {
+    if (c == '+' || c == '-') {
+      return previous == 'e' || previous == 'E' || previous == 'p' || previous == 'P';
+    }
+    return c == '.' || c == '_' || Character.isLetterOrDigit(c);
+  }
+
+  private void addToken(byte kind, int begin, int end, int beginLine, int endLine) {
+    if (size == kinds.length) {
+      var capacity = size * 2;
+      kinds = Arrays.copyOf(kinds, capacity);
+      begins = Arrays.copyOf(begins, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      lines = Arrays.copyOf(lines, capacity);
+      endLines = Arrays.copyOf(endLines, capacity);
+    }
+    kinds[size] = kind;
+    begins[size] = begin;
+    ends[size] = end;
+    lines[size] = beginLine;
+    endLines[size] = endLine;
+    size++;
+  }
+
+  private void addComment(byte kind, int begin, int end, int beginLine, int endLine) {
+    if (commentCount == commentKinds.length) {
+      var capacity = commentCount * 2;
+      commentKinds = Arrays.copyOf(commentKinds, capacity);
+      commentBegins = Arrays.copyOf(commentBegins, capacity);
+      commentEnds = Arrays.copyOf(commentEnds, capacity);
+      commentLines = Arrays.copyOf(commentLines, capacity);
+      commentEndLines = Arrays.copyOf(commentEndLines, capacity);
+    }
+    commentKinds[commentCount] = kind;
+    commentBegins[commentCount] = begin;
+    commentEnds[commentCount] = end;
+    commentLines[commentCount] = beginLine;
+    commentEndLines[commentCount] = endLine;
+    commentCount++;
+  }
+
+  // region significant tokens
+
+  int size() {
+    return size;
+  }
+
+  byte kind(int token) {
+    return kinds[token];
+  }
+
+  int begin(int token) {
+    return begins[token];
+  }
+
+  int end(int token) {
+    return ends[token];
+  }
+
+  int line(int token) {
+    return lines[token];
+  }
+
+  int endLine(int token) {
+    return endLines[token];
+  }
+
+  /**
+   * Returns the character of a symbol token.
+   *
+   * @param token the index of the token, which must be a symbol
+   * @return the character
+   */
+  char symbol(int token) {
+    return source[begins[token]];
+  }
+
+  /**
+   * Checks whether a token is the given symbol.
+   *
+   * @param token the index of the token, which may be out of bounds
+   * @param symbol the symbol
+   * @return {@code true} if the token is the symbol, {@code false} otherwise
+   */
+  boolean isSymbol(int token, char symbol) {
+    return token >= 0 && token < size && kinds[token] == SYMBOL && source[begins[token]] == symbol;
+  }
+
+  /**
+   * Checks whether a token is the given identifier or keyword.
+   *
+   * @param token the index of the token, which may be out of bounds
+   * @param word the identifier or keyword
+   * @return {@code true} if the token is the word, {@code false} otherwise
+   */
+  boolean isWord(int token, String word) {
+    if (token < 0 || token >= size || kinds[token] != IDENTIFIER) {
+      return false;
+    }
+    var begin = begins[token];
+    var length = ends[token] - begin;
+    if (length != word.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (source[begin + i] != word.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether a token is an identifier or keyword.
+   *
+   * @param token the index of the token, which may be out of bounds
+   * @return {@code true} if the token is an identifier or keyword, {@code false} otherwise
+   */
+  boolean isIdentifier(int token) {
+    return token >= 0 && token < size && kinds[token] == IDENTIFIER;
+  }
+
+  /**
+   * Returns the text of a token.
+   *
+   * @param token the index of the token
+   * @return the text
+   */
+  String text(int token) {
+    return new String(source, begins[token], ends[token] - begins[token]);
+  }
+
+  /**
+   * Returns the source code between the begin of one token and the end of another one, including
+   * comments and whitespace.
+   *
+   * @param first the index of the first token
+   * @param last the index of the last token
+   * @return the source code
+   */
+  String text(int first, int last) {
+    return new String(source, begins[first], ends[last] - begins[first]);
+  }
+
+  // endregion
+
+  // region comments
+
+  int commentCount() {
+    return commentCount;
+  }
+
+  byte commentKind(int comment) {
+    return commentKinds[comment];
+  }
+
+  int commentBegin(int comment) {
+    return commentBegins[comment];
+  }
+
+  int commentEnd(int comment) {
+    return commentEnds[comment];
+  }
+
+  int commentLine(int comment) {
+    return commentLines[comment];
+  }
+
+  int commentEndLine(int comment) {
+    return commentEndLines[comment];
+  }
+
+  /**
+   * Returns the content of a comment, i.e., the text without the comment delimiters, like {@link
+   * com.github.javaparser.ast.comments.Comment#getContent()}.
+   *
+   * @param comment the index of the comment
+   * @return the content
+   */
+  String commentContent(int comment) {
+    var begin = contentBegin(comment);
+    return new String(source, begin, contentEnd(comment) - begin);
+  }
+
+  /**
+   * Returns the content of a comment without indentation, as a slice of the source code.
+   *
+   * @param comment the index of the comment
+   * @return the content without indentation
+   */
+  SourceText commentText(int comment) {
+    return SourceText.withoutIndentation(source, contentBegin(comment), contentEnd(comment));
+  }
+
+  private int contentBegin(int comment) {
+    return commentBegins[comment] + (commentKinds[comment] == JAVADOC_COMMENT ? 3 : 2);
+  }
+
+  private int contentEnd(int comment) {
+    return switch (commentKinds[comment]) {
+      case LINE_COMMENT -> commentEnds[comment];
+      default -> commentEnds[comment] - 2;
+    };
+  }
+
+  // endregion
+
+  // region source code
+
+  /**
+   * Computes the fingerprint of a range of the source code, i.e., the hex encoded SHA-256 hash of
+   * its characters. Ranges with the same characters have the same fingerprint, regardless of where
+   * they are in the file.
+   *
+   * @param begin the begin of the range (inclusive)
+   * @param end the end of the range (exclusive)
+   * @return the fingerprint
+   */
+  String fingerprint(int begin, int end) {
+    if (fingerprintDigest == null) {
+      try {
+        fingerprintDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(FINGERPRINT_ALGORITHM + " is not supported by the JVM", e);
+      }
+      fingerprintBuffer = new byte[8192];
+    }
+
+    var length = 0;
+    for (int i = begin; i < end; i++) {
+      if (length == fingerprintBuffer.length) {
+        fingerprintDigest.update(fingerprintBuffer, 0, length);
+        length = 0;
+      }
+      fingerprintBuffer[length++] = (byte) (source[i] >> 8);
+      fingerprintBuffer[length++] = (byte) source[i];
+    }
+    fingerprintDigest.update(fingerprintBuffer, 0, length);
+    return HexFormat.of().formatHex(fingerprintDigest.digest());
+  }
+
+  // endregion
+}
@@ -0,0 +1,53 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A test file from which the test documentation data model has been extracted, independent of the
+ * engine that was used to extract it (see {@link ExtractionEngine}).
+ *
+ * @see ParsedTestFile
+ * @see LexedTestFile
+ */
+public interface TestFile {
+
+  /**
+   * Returns the path of the file.
+   *
+   * @return the path of the file
+   */
+  Path getFilePath();
+
+  /**
+   * Flag indicating whether any of the classes in the file is a test class, i.e., it contains test
+   * methods.
+   *
+   * @return {@code true} if any class includes tests, {@code false} otherwise
+   */
+  boolean containsTests();
+
+  /**
+   * Converts the test file into a list of test sets that can then be used to generate documentation
+   * files.
+   *
+   * @return the list of test sets
+   */
+  List<TestSet> toDocumentDataModel();
+}
@@ -0,0 +1,138 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A cheap check whether a file may contain tests, which is applied before the file is parsed.
+ *
+ * <p>The check memory-maps the file and scans its raw bytes for annotations with one of the names
+ * of test annotations (see {@link MethodDeclarationUtil#TEST_ANNOTATION_NAMES}), in simple or fully
+ * qualified form. It never rejects a file that contains tests, but it may accept files that do not,
+ * e.g., if a test annotation only occurs in a comment. Files that are accepted still need to be
+ * parsed to find out whether they contain tests (see {@link ParsedTestFile#containsTests()}).
+ */
+public class TestFilePrefilter {
+
+  private static final List<byte[]> TEST_ANNOTATION_NAMES =
+      MethodDeclarationUtil.TEST_ANNOTATION_NAMES.stream().map(n -> n.getBytes(US_ASCII)).toList();
+
+  private TestFilePrefilter() {}
+
+  /**
+   * Checks whether the file at the given path may contain tests.
+   *
+   * @param path the path of the file
+   * @return {@code false} if the file does not contain any test annotation, {@code true} otherwise
+   * @throws IOException if the file cannot be read
+   */
+  public static boolean mayContainTests(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return mayContainTests(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Checks whether the given source code may contain tests.
+   *
+   * @param content the source code
+   * @return {@code false} if the source code does not contain any test annotation, {@code true}
+   *     otherwise
+   */
+  static boolean mayContainTests(ByteBuffer content) {
+    var limit = content.limit();
+    for (int i = content.position(); i < limit; i++) {
+      if (content.get(i) == '@' && isTestAnnotation(content, i + 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether the annotation name that starts at the given position is the name of a test
+   * annotation. For qualified names, the last segment is checked.
+   *
+   * @param content the source code
+   * @param start the position after the {@code @} character
+   * @return {@code true} if the name is a test annotation name, or if it cannot be determined
+   *     because the annotation contains a comment, {@code false} otherwise
+   */
+  private static boolean isTestAnnotation(ByteBuffer content, int start) {
+    var limit = content.limit();
+    var position = skipWhitespace(content, start);
+    while (position < limit) {
+      if (content.get(position) == '/') {
+        return true;
+      }
+
+      var nameStart = position;
+      while (position < limit && isIdentifierPart(content.get(position))) {
+        position++;
+      }
+      var nameEnd = position;
+
+      position = skipWhitespace(content, position);
+      if (position < limit && content.get(position) == '.') {
+        position = skipWhitespace(content, position + 1);
+        continue;
+      }
+
+      return nameEnd > nameStart && isTestAnnotationName(content, nameStart, nameEnd);
+    }
+    return false;
+  }
+
+  private static boolean isTestAnnotationName(ByteBuffer content, int start, int end) {
+    for (var name : TEST_ANNOTATION_NAMES) {
+      if (name.length == end - start && matches(content, start, name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(ByteBuffer content, int start, byte[] name) {
+    for (int i = 0; i < name.length; i++) {
+      if (content.get(start + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int skipWhitespace(ByteBuffer content, int position) {
+    var limit = content.limit();
+    while (position < limit && Character.isWhitespace(content.get(position))) {
+      position++;
+    }
+    return position;
+  }
+
+  private static boolean isIdentifierPart(byte b) {
+    // bytes of non-ASCII characters are treated as part of identifiers
+    return b < 0 || b == '_' || b == '$' || Character.isLetterOrDigit(b);
+  }
+}
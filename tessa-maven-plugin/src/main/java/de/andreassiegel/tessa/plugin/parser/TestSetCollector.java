@@ -0,0 +1,75 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Collects the test sets of a test file while its classes are converted one by one.
+ *
+ * <p>The test sets are kept in the same order as the classes of {@link ParsedTestFile} and {@link
+ * LexedTestFile}, i.e., by class name in a {@link HashMap}, so that a file results in the same test
+ * sets no matter whether it is converted class by class or as a whole.
+ */
+class TestSetCollector {
+
+  private final Path filePath;
+  private final Path basePath;
+  private final Map<String, TestSet> testSets = new HashMap<>();
+  private boolean containsTests;
+
+  /**
+   * Creates a collector for the test sets of a file.
+   *
+   * @param filePath the path of the file
+   * @param basePath the base path of the project which will be used to relativize file paths
+   */
+  TestSetCollector(Path filePath, Path basePath) {
+    this.filePath = filePath;
+    this.basePath = basePath;
+  }
+
+  /**
+   * Converts a class into a test set and adds it.
+   *
+   * @param className the name of the class
+   * @param hasTestMethods flag indicating whether the class contains test methods
+   * @param converter the conversion of the class into a test set, taking the file path and the base
+   *     path
+   * @throws IllegalStateException if the file contains several classes with the same name
+   */
+  void add(String className, boolean hasTestMethods, BiFunction<Path, Path, TestSet> converter) {
+    containsTests |= hasTestMethods;
+    if (testSets.putIfAbsent(className, converter.apply(filePath, basePath)) != null) {
+      throw new IllegalStateException("Duplicate class " + className + " in " + filePath);
+    }
+  }
+
+  /**
+   * Returns the collected test sets.
+   *
+   * @return the test sets, or an empty list if none of the classes contains test methods
+   */
+  List<TestSet> toList() {
+    return containsTests ? List.copyOf(testSets.values()) : List.of();
+  }
+}
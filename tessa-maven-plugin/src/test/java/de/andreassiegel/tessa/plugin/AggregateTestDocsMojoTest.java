@@ -0,0 +1,130 @@
+package de.andreassiegel.tessa.plugin;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.andreassiegel.tessa.plugin.generator.AggregateIndex;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AggregateTestDocsMojoTest {
+
+  @TempDir Path tempDir;
+
+  // region execute()
+
+  @Test
+  void execute_withContributedModules_generatesIndexInModuleOrder() throws Exception {
+    // Arrange
+    var workDirectory = tempDir.resolve("target/tessa/aggregate");
+    var outputDirectory = tempDir.resolve("target/test-documentation");
+    var aggregateIndex = new AggregateIndex(workDirectory);
+    aggregateIndex.contribute(
+        "com.example:second",
+        Files.createDirectories(tempDir.resolve("second/target/docs/tests")),
+        List.of(item("Second")));
+    aggregateIndex.contribute(
+        "com.example:first",
+        Files.createDirectories(tempDir.resolve("first/target/docs/tests")),
+        List.of(item("First")));
+    var mojo =
+        new AggregateTestDocsMojo(
+            List.of(project("first"), project("second")),
+            outputDirectory.toString(),
+            workDirectory.toString());
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    var index = Files.readString(outputDirectory.resolve("tests.adoc"));
+    assertTrue(index.indexOf("First") < index.indexOf("Second"));
+    assertTrue(index.contains("../../first/target/docs/tests/FirstTest.adoc"));
+  }
+
+  @Test
+  void execute_withModulesOutsideOfBuild_includesModulesWithExistingDocuments() throws Exception {
+    // Arrange
+    var workDirectory = tempDir.resolve("target/tessa/aggregate");
+    var outputDirectory = tempDir.resolve("target/test-documentation");
+    var aggregateIndex = new AggregateIndex(workDirectory);
+    aggregateIndex.contribute(
+        "com.example:first",
+        Files.createDirectories(tempDir.resolve("first/target/docs/tests")),
+        List.of(item("First")));
+    aggregateIndex.contribute(
+        "com.example:second",
+        Files.createDirectories(tempDir.resolve("second/target/docs/tests")),
+        List.of(item("Second")));
+    aggregateIndex.contribute(
+        "com.example:removed", tempDir.resolve("removed/target/docs/tests"), List.of(item("Gone")));
+    var mojo =
+        new AggregateTestDocsMojo(
+            List.of(project("second")), outputDirectory.toString(), workDirectory.toString());
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    var index = Files.readString(outputDirectory.resolve("tests.adoc"));
+    assertTrue(index.indexOf("Second") < index.indexOf("First"));
+    assertFalse(index.contains("Gone"));
+  }
+
+  @Test
+  void execute_withoutContributions_generatesNoIndex() throws Exception {
+    // Arrange
+    var outputDirectory = tempDir.resolve("target/test-documentation");
+    var mojo =
+        new AggregateTestDocsMojo(
+            List.of(project("first")),
+            outputDirectory.toString(),
+            tempDir.resolve("target/tessa/aggregate").toString());
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertFalse(Files.exists(outputDirectory.resolve("tests.adoc")));
+  }
+
+  // endregion
+
+  static MavenProject project(String artifactId) {
+    var project = mock(MavenProject.class);
+    when(project.getGroupId()).thenReturn("com.example");
+    when(project.getArtifactId()).thenReturn(artifactId);
+    return project;
+  }
+
+  static DocumentIndexItem item(String title) {
+    return DocumentIndexItem.builder()
+        .title(title)
+        .filename(title + "Test.adoc")
+        .description("N/A")
+        .build();
+  }
+}
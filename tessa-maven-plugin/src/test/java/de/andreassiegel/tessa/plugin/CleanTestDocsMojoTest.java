@@ -0,0 +1,87 @@
+package de.andreassiegel.tessa.plugin;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CleanTestDocsMojoTest {
+
+  @TempDir Path tempDir;
+
+  // region execute()
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 4})
+  void execute_withNestedDirectories_deletesOutputDirectory(int parallelism) throws Exception {
+    // Arrange
+    var outputDirectory = tempDir.resolve("test-documentation");
+    var tests = Files.createDirectories(outputDirectory.resolve("tests/nested"));
+    for (int i = 0; i < 600; i++) {
+      Files.writeString(outputDirectory.resolve("tests/Test" + i + ".adoc"), "content");
+    }
+    Files.writeString(tests.resolve("NestedTest.adoc"), "content");
+    Files.writeString(outputDirectory.resolve("tests.adoc"), "index");
+    var mojo = new CleanTestDocsMojo(outputDirectory.toString(), parallelism);
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertFalse(Files.exists(outputDirectory));
+    assertTrue(Files.exists(tempDir));
+  }
+
+  @Test
+  void execute_withSymbolicLink_deletesLinkButNotTarget() throws Exception {
+    // Arrange
+    var outputDirectory = Files.createDirectory(tempDir.resolve("test-documentation"));
+    var target = Files.createDirectory(tempDir.resolve("target"));
+    Files.writeString(target.resolve("Kept.adoc"), "content");
+    Files.createSymbolicLink(outputDirectory.resolve("link"), target);
+    var mojo = new CleanTestDocsMojo(outputDirectory.toString(), 1);
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertFalse(Files.exists(outputDirectory));
+    assertTrue(Files.exists(target.resolve("Kept.adoc")));
+  }
+
+  @Test
+  void execute_withoutOutputDirectory_doesNothing() throws Exception {
+    // Arrange
+    var outputDirectory = tempDir.resolve("test-documentation");
+    var mojo = new CleanTestDocsMojo(outputDirectory.toString(), 1);
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertFalse(Files.exists(outputDirectory));
+  }
+
+  // endregion
+}
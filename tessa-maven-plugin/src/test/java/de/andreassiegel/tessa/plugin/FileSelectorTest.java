@@ -0,0 +1,153 @@
+package de.andreassiegel.tessa.plugin;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSelectorTest {
+
+  static final String FILENAME_REGEX = "\\w+(IT|Test)\\.java$";
+
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void setup() throws IOException {
+    createFile("RootTest.java");
+    createFile("Helper.java");
+    createFile("com/example/SampleTest.java");
+    createFile("com/example/SampleIT.java");
+    createFile("com/example/README.md");
+    createFile("com/example/integration/OrderIT.java");
+    createFile("generated/com/example/GeneratedTest.java");
+  }
+
+  // region select()
+
+  @Test
+  void select_withoutPatterns_selectsFilesMatchingFilenameRegex() throws IOException {
+    // Arrange
+    var fileSelector = new FileSelector(FILENAME_REGEX, null, null);
+
+    // Act
+    var files = fileSelector.select(tempDir);
+
+    // Assert
+    assertEquals(
+        List.of(
+            "RootTest.java",
+            "com/example/SampleIT.java",
+            "com/example/SampleTest.java",
+            "com/example/integration/OrderIT.java",
+            "generated/com/example/GeneratedTest.java"),
+        relativize(files));
+  }
+
+  @Test
+  void select_withIncludes_selectsOnlyIncludedFiles() throws IOException {
+    // Arrange
+    var fileSelector = new FileSelector(FILENAME_REGEX, List.of("**/*IT.java"), null);
+
+    // Act
+    var files = fileSelector.select(tempDir);
+
+    // Assert
+    assertEquals(
+        List.of("com/example/SampleIT.java", "com/example/integration/OrderIT.java"),
+        relativize(files));
+  }
+
+  @Test
+  void select_withLeadingAnyDirectoryPattern_matchesFilesInInputDirectory() throws IOException {
+    // Arrange
+    var fileSelector = new FileSelector(FILENAME_REGEX, List.of("**/Root*.java"), null);
+
+    // Act
+    var files = fileSelector.select(tempDir);
+
+    // Assert
+    assertEquals(List.of("RootTest.java"), relativize(files));
+  }
+
+  @Test
+  void select_withExcludes_skipsExcludedFilesAndDirectories() throws IOException {
+    // Arrange
+    var fileSelector =
+        new FileSelector(
+            FILENAME_REGEX, null, List.of("**/generated/**", "**/integration/**", "**/*IT.java"));
+
+    // Act
+    var files = fileSelector.select(tempDir);
+
+    // Assert
+    assertEquals(List.of("RootTest.java", "com/example/SampleTest.java"), relativize(files));
+  }
+
+  // endregion
+
+  // region distinctDirectories()
+
+  @Test
+  void distinctDirectories_withNestedAndDuplicateDirectories_keepsOuterDirectories() {
+    // Arrange
+    var outer = tempDir.resolve("com");
+    var nested = tempDir.resolve("com/example");
+    var other = tempDir.resolve("generated");
+    var duplicate = tempDir.resolve("com/../com");
+
+    // Act
+    var directories = FileSelector.distinctDirectories(List.of(nested, outer, other, duplicate));
+
+    // Assert
+    assertEquals(List.of(outer, other), directories);
+  }
+
+  @Test
+  void distinctDirectories_withSymbolicLink_keepsFirstDirectory() throws IOException {
+    // Arrange
+    var directory = tempDir.resolve("com");
+    var link = Files.createSymbolicLink(tempDir.resolve("link"), directory);
+
+    // Act
+    var directories = FileSelector.distinctDirectories(List.of(link, directory));
+
+    // Assert
+    assertEquals(List.of(link), directories);
+  }
+
+  // endregion
+
+  void createFile(String relativePath) throws IOException {
+    var file = tempDir.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    Files.createFile(file);
+  }
+
+  List<String> relativize(List<Path> files) {
+    return files.stream()
+        .map(f -> tempDir.relativize(f).toString().replace('\\', '/'))
+        .sorted()
+        .toList();
+  }
+}
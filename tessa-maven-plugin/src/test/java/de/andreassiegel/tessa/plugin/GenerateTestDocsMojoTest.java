@@ -18,17 +18,34 @@ package de.andreassiegel.tessa.plugin;
 
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Answers.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import de.andreassiegel.tessa.plugin.generator.AggregateIndex;
+import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -36,6 +53,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class GenerateTestDocsMojoTest {
 
+  static final FileTime PAST = FileTime.fromMillis(1_000_000_000_000L);
+
   @Mock(answer = RETURNS_DEEP_STUBS)
   MavenProject mockProject;
 
@@ -103,4 +122,521 @@ class GenerateTestDocsMojoTest {
 
   // endregion
 
+  // region processTestFiles()
+
+  @Test
+  void processTestFiles_withParallelism_returnsSameIndexItemsAsSequential(@TempDir Path outputDir)
+      throws IOException {
+    // Arrange
+    when(mockProject.getBasedir()).thenReturn(new File("."));
+    var generator = new AsciiDocGenerator(outputDir.toString(), new Index());
+    List<Path> testFiles;
+    try (Stream<Path> files = Files.list(Paths.get("src/test/resources/com/example/test"))) {
+      testFiles = files.sorted().toList();
+    }
+
+    GenerateTestDocsMojo sequentialMojo = new GenerateTestDocsMojo(mockProject, null, 1);
+    GenerateTestDocsMojo parallelMojo = new GenerateTestDocsMojo(mockProject, null, 4);
+
+    // Act
+    List<String> sequential =
+        sequentialMojo.processTestFiles(generator, testFiles).stream()
+            .map(DocumentIndexItem::getFilename)
+            .toList();
+    List<String> parallel =
+        parallelMojo.processTestFiles(generator, testFiles).stream()
+            .map(DocumentIndexItem::getFilename)
+            .toList();
+
+    // Assert
+    assertFalse(sequential.isEmpty());
+    assertEquals(sequential, parallel);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"1, 1", "4, 4"})
+  void workerCount_withPositiveParallelism_returnsParallelism(int parallelism, int expected) {
+    // Arrange
+    GenerateTestDocsMojo mojo = new GenerateTestDocsMojo(mockProject, null, parallelism);
+
+    // Act & Assert
+    assertEquals(expected, mojo.workerCount());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, -1})
+  void workerCount_withoutPositiveParallelism_returnsAvailableProcessors(int parallelism) {
+    // Arrange
+    GenerateTestDocsMojo mojo = new GenerateTestDocsMojo(mockProject, null, parallelism);
+
+    // Act & Assert
+    assertEquals(Runtime.getRuntime().availableProcessors(), mojo.workerCount());
+  }
+
+  // endregion
+
+  // region execute()
+
+  @Test
+  void execute_withIncrementalBuild_skipsUnchangedFiles(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    var documents = documents(baseDirectory);
+    touchDocuments(documents);
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.contains("Skipped 2 unchanged test files"));
+    assertTrue(log.parsedFiles().isEmpty());
+    assertDocumentsNotWritten(documents);
+    var index = Files.readString(outputDirectory(baseDirectory).resolve("tests.adoc"));
+    assertTrue(index.contains("FirstTest.adoc"));
+    assertTrue(index.contains("SecondTest.adoc"));
+  }
+
+  @Test
+  void execute_withIncrementalBuild_processesChangedFiles(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    touchDocuments(documents(baseDirectory));
+    writeTestClass(baseDirectory, "FirstTest", "changed step");
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.contains("Skipped 1 unchanged test files"));
+    assertEquals(List.of("FirstTest.java"), log.parsedFiles());
+    assertTrue(Files.readString(document(baseDirectory, "FirstTest")).contains("changed step"));
+    assertDocumentsNotWritten(List.of(document(baseDirectory, "SecondTest")));
+  }
+
+  @Test
+  void execute_withIncrementalBuild_regeneratesDeletedDocuments(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    Files.delete(document(baseDirectory, "SecondTest"));
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.contains("Skipped 1 unchanged test files"));
+    assertEquals(List.of("SecondTest.java"), log.parsedFiles());
+    assertTrue(Files.exists(document(baseDirectory, "SecondTest")));
+  }
+
+  @Test
+  void execute_withIncrementalBuild_buildsIndexFromCachedModels(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestFile(
+        baseDirectory,
+        "DescribedTest",
+        """
+        package com.example;
+
+        import org.junit.jupiter.api.DisplayName;
+        import org.junit.jupiter.api.Test;
+
+        /** The description of the test class. */
+        @DisplayName("Described tests")
+        class DescribedTest {
+
+          @Test
+          void test() {}
+        }
+        """);
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    var indexFile = outputDirectory(baseDirectory).resolve("tests.adoc");
+    var fullIndex = Files.readString(indexFile);
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.parsedFiles().isEmpty());
+    assertTrue(fullIndex.contains("Described tests"));
+    assertEquals(fullIndex, Files.readString(indexFile));
+  }
+
+  @Test
+  void execute_withTouchedFile_reusesCachedModel(@TempDir Path baseDirectory) throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    var testFile = baseDirectory.resolve("src/test/java/com/example/FirstTest.java");
+    Files.setLastModifiedTime(testFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.contains("Skipped 1 unchanged test files"));
+    assertTrue(log.parsedFiles().isEmpty());
+  }
+
+  @Test
+  void execute_withoutModelCache_parsesUnchangedFiles(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    var firstMojo = incrementalMojo(baseDirectory, new RecordingLog());
+    firstMojo.execute();
+    Files.delete(firstMojo.modelCacheFile());
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.contains("Skipped 0 unchanged test files"));
+    assertEquals(List.of("FirstTest.java", "SecondTest.java"), log.parsedFiles());
+  }
+
+  @Test
+  void execute_withChangedImplementation_skipsRendering(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    touchDocuments(documents(baseDirectory));
+    changeImplementation(baseDirectory, "FirstTest");
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertEquals(List.of("FirstTest.java"), log.parsedFiles());
+    assertTrue(
+        log.contains("Skipped rendering 1 changed test files whose documentation did not change"));
+    assertDocumentsNotWritten(List.of(document(baseDirectory, "FirstTest")));
+  }
+
+  @Test
+  void execute_withChangedImplementationAndDeletedDocument_rendersDocument(
+      @TempDir Path baseDirectory) throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    Files.delete(document(baseDirectory, "FirstTest"));
+    changeImplementation(baseDirectory, "FirstTest");
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(
+        log.contains("Skipped rendering 0 changed test files whose documentation did not change"));
+    assertTrue(Files.exists(document(baseDirectory, "FirstTest")));
+  }
+
+  @Test
+  void execute_withPruneStaleDocuments_deletesDocumentsOfDeletedFiles(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    Files.delete(baseDirectory.resolve("src/test/java/com/example/SecondTest.java"));
+    var log = new RecordingLog();
+    var mojo = incrementalMojo(baseDirectory, log);
+    setParameter(mojo, "pruneStaleDocuments", true);
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertTrue(log.contains("Deleted 1 stale documents"));
+    assertEquals(List.of(document(baseDirectory, "FirstTest")), documents(baseDirectory));
+  }
+
+  @Test
+  void execute_withPruneStaleDocuments_keepsModifiedDocuments(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    Files.delete(baseDirectory.resolve("src/test/java/com/example/SecondTest.java"));
+    Files.writeString(document(baseDirectory, "SecondTest"), "modified");
+    var log = new RecordingLog();
+    var mojo = incrementalMojo(baseDirectory, log);
+    setParameter(mojo, "pruneStaleDocuments", true);
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertTrue(log.contains("Deleted 0 stale documents"));
+    assertEquals("modified", Files.readString(document(baseDirectory, "SecondTest")));
+  }
+
+  @Test
+  void execute_withoutPruneStaleDocuments_keepsDocumentsOfDeletedFiles(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestClass(baseDirectory, "SecondTest", "second step");
+    incrementalMojo(baseDirectory, new RecordingLog()).execute();
+    Files.delete(baseDirectory.resolve("src/test/java/com/example/SecondTest.java"));
+    var log = new RecordingLog();
+
+    // Act
+    incrementalMojo(baseDirectory, log).execute();
+
+    // Assert
+    assertTrue(log.messages.stream().noneMatch(m -> m.startsWith("Deleted")));
+    assertTrue(Files.exists(document(baseDirectory, "SecondTest")));
+    var index = Files.readString(outputDirectory(baseDirectory).resolve("tests.adoc"));
+    assertFalse(index.contains("SecondTest.adoc"));
+  }
+
+  @Test
+  void execute_withPrefilter_parsesOnlyFilesWithTestAnnotations(@TempDir Path baseDirectory)
+      throws Exception {
+    // Arrange
+    writeTestClass(baseDirectory, "FirstTest", "first step");
+    writeTestFile(
+        baseDirectory,
+        "QualifiedTest",
+        """
+        package com.example;
+
+        class QualifiedTest {
+
+          @org.junit.jupiter.api.Test
+          void test() {}
+        }
+        """);
+    writeTestFile(
+        baseDirectory,
+        "BaseTest",
+        """
+        package com.example;
+
+        abstract class BaseTest {
+
+          void helper() {}
+        }
+        """);
+    var log = new RecordingLog();
+    var mojo = incrementalMojo(baseDirectory, log);
+    setParameter(mojo, "incremental", false);
+    setParameter(mojo, "prefilter", true);
+
+    // Act
+    mojo.execute();
+
+    // Assert
+    assertTrue(log.contains("Parsed 2 test files, skipped 1 files without test annotations"));
+    assertEquals(List.of("FirstTest.java", "QualifiedTest.java"), log.parsedFiles());
+    assertEquals(
+        List.of(document(baseDirectory, "FirstTest"), document(baseDirectory, "QualifiedTest")),
+        documents(baseDirectory));
+  }
+
+  // endregion
+
+  // region generateIndex()
+
+  @Test
+  void generateIndex_withAggregateIndex_onlyContributesIndexItems(@TempDir Path tempDir)
+      throws Exception {
+    // Arrange
+    when(mockProject.getGroupId()).thenReturn("com.example");
+    when(mockProject.getArtifactId()).thenReturn("module");
+    var index = new Index();
+    setParameter(index, "aggregate", true);
+    var outputDirectory = tempDir.resolve("module/target/test-documentation");
+    var workDirectory = tempDir.resolve("target/tessa/aggregate");
+    GenerateTestDocsMojo mojo = new GenerateTestDocsMojo(mockProject, null);
+    setParameter(mojo, "index", index);
+    setParameter(mojo, "aggregateWorkDirectory", workDirectory.toString());
+    var generator = new AsciiDocGenerator(outputDirectory.toString(), index);
+    generator.addToIndex(
+        DocumentIndexItem.builder().title("Module").filename("ModuleTest.adoc").build());
+
+    // Act
+    mojo.generateIndex(generator);
+
+    // Assert
+    assertFalse(Files.exists(outputDirectory.resolve("tests.adoc")));
+    var items =
+        new AggregateIndex(workDirectory)
+            .collect(List.of("com.example:module"), tempDir.resolve("target/test-documentation"));
+    assertEquals(List.of("Module"), items.stream().map(DocumentIndexItem::getTitle).toList());
+  }
+
+  // endregion
+
+  // region executionWorkDirectory()
+
+  @Test
+  void executionWorkDirectory_withExecutionIds_separatesIncrementalBuildState() throws Exception {
+    // Arrange
+    GenerateTestDocsMojo first = new GenerateTestDocsMojo(mockProject, null);
+    setParameter(first, "workDirectory", "target/tessa");
+    setParameter(first, "executionId", "unit-tests");
+    GenerateTestDocsMojo second = new GenerateTestDocsMojo(mockProject, null);
+    setParameter(second, "workDirectory", "target/tessa");
+    setParameter(second, "executionId", "integration-tests");
+
+    // Act & Assert
+    assertEquals(Paths.get("target/tessa/unit-tests/manifest.bin"), first.manifestFile());
+    assertEquals(Paths.get("target/tessa/unit-tests/models.bin"), first.modelCacheFile());
+    assertEquals(Paths.get("target/tessa/integration-tests/manifest.bin"), second.manifestFile());
+  }
+
+  @Test
+  void executionWorkDirectory_withoutExecutionId_returnsWorkDirectory() throws Exception {
+    // Arrange
+    GenerateTestDocsMojo mojo = new GenerateTestDocsMojo(mockProject, null);
+    setParameter(mojo, "workDirectory", "target/tessa");
+
+    // Act & Assert
+    assertEquals(Paths.get("target/tessa"), mojo.executionWorkDirectory());
+  }
+
+  // endregion
+
+  /**
+   * Creates a mojo for an incremental build of the test classes in a project directory, like Maven
+   * does for every execution of the goal.
+   *
+   * @param baseDirectory the base directory of the project
+   * @param log the log of the mojo
+   * @return the mojo
+   */
+  GenerateTestDocsMojo incrementalMojo(Path baseDirectory, RecordingLog log) throws Exception {
+    when(mockProject.getBasedir()).thenReturn(baseDirectory.toFile());
+    var mojo =
+        new GenerateTestDocsMojo(
+            mockProject, List.of(baseDirectory.resolve("src/test/java").toString()));
+    setParameter(mojo, "outputDirectory", outputDirectory(baseDirectory).toString());
+    setParameter(mojo, "workDirectory", baseDirectory.resolve("target/tessa").toString());
+    setParameter(mojo, "filenameRegex", "\\w+Test\\.java$");
+    setParameter(mojo, "incremental", true);
+    mojo.setLog(log);
+    return mojo;
+  }
+
+  static Path outputDirectory(Path baseDirectory) {
+    return baseDirectory.resolve("target/test-documentation");
+  }
+
+  static Path document(Path baseDirectory, String className) {
+    return outputDirectory(baseDirectory).resolve("tests/" + className + ".adoc");
+  }
+
+  static List<Path> documents(Path baseDirectory) throws IOException {
+    try (Stream<Path> files = Files.list(outputDirectory(baseDirectory).resolve("tests"))) {
+      return files.sorted().toList();
+    }
+  }
+
+  static void writeTestClass(Path baseDirectory, String className, String step) throws IOException {
+    writeTestFile(
+        baseDirectory,
+        className,
+        """
+        package com.example;
+
+        import org.junit.jupiter.api.Test;
+
+        class %s {
+
+          @Test
+          void test() {
+            var value = 1;
+            // %s
+          }
+        }
+        """
+            .formatted(className, step));
+  }
+
+  static void writeTestFile(Path baseDirectory, String className, String source)
+      throws IOException {
+    var directory = Files.createDirectories(baseDirectory.resolve("src/test/java/com/example"));
+    Files.writeString(directory.resolve(className + ".java"), source);
+  }
+
+  /** Changes the implementation of a test class, but neither its documentation nor its lines. */
+  static void changeImplementation(Path baseDirectory, String className) throws IOException {
+    var testFile = baseDirectory.resolve("src/test/java/com/example/" + className + ".java");
+    var source = Files.readString(testFile);
+    Files.writeString(testFile, source.replace("var value = 1;", "var value = 2;"));
+  }
+
+  /** Sets the modification time of documents into the past, so that rewrites can be detected. */
+  static void touchDocuments(List<Path> documents) throws IOException {
+    for (var document : documents) {
+      Files.setLastModifiedTime(document, PAST);
+    }
+  }
+
+  static void assertDocumentsNotWritten(List<Path> documents) throws IOException {
+    for (var document : documents) {
+      assertEquals(PAST, Files.getLastModifiedTime(document), document + " was written");
+    }
+  }
+
+  /** A log that records the info messages of a mojo. */
+  static class RecordingLog extends SystemStreamLog {
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void info(CharSequence content) {
+      messages.add(content.toString());
+    }
+
+    boolean contains(String message) {
+      return messages.contains(message);
+    }
+
+    /** Returns the names of the files that were parsed, in the order they were parsed. */
+    List<String> parsedFiles() {
+      return messages.stream()
+          .filter(m -> m.startsWith("Parsing test file: "))
+          .map(m -> Paths.get(m.substring("Parsing test file: ".length())).getFileName())
+          .map(Path::toString)
+          .sorted()
+          .toList();
+    }
+  }
+
+  /**
+   * Sets a parameter of a mojo or of its nested configuration, like Maven does when it injects the
+   * plugin configuration.
+   *
+   * @param target the mojo or configuration object
+   * @param name the name of the parameter field
+   * @param value the value
+   */
+  static void setParameter(Object target, String name, Object value) throws Exception {
+    var field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
 }
@@ -0,0 +1,124 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AggregateIndexTest {
+
+  @TempDir Path tempDir;
+
+  AggregateIndex aggregateIndex;
+
+  @BeforeEach
+  void setup() {
+    aggregateIndex = new AggregateIndex(tempDir.resolve("tessa/aggregate"));
+  }
+
+  // region collect()
+
+  @Test
+  void collect_returnsItemsInModuleOrderWithRelativeDirectories() throws IOException {
+    // Arrange
+    aggregateIndex.contribute(
+        "com.example:first", tempDir.resolve("first/target/docs/tests"), List.of(item("A")));
+    aggregateIndex.contribute(
+        "com.example:second",
+        tempDir.resolve("second/target/docs/tests"),
+        List.of(item("B"), item("C")));
+
+    // Act
+    var items =
+        aggregateIndex.collect(
+            List.of("com.example:second", "com.example:first"), tempDir.resolve("target/docs"));
+
+    // Assert
+    assertEquals(List.of("B", "C", "A"), items.stream().map(DocumentIndexItem::getTitle).toList());
+    assertEquals("../../second/target/docs/tests", items.get(0).getDirectory());
+    assertEquals("BTest.adoc", items.get(0).getFilename());
+    assertEquals("../../first/target/docs/tests", items.get(2).getDirectory());
+  }
+
+  @Test
+  void collect_withModuleWithoutItems_skipsModule() throws IOException {
+    // Arrange
+    aggregateIndex.contribute(
+        "com.example:first", tempDir.resolve("first/target/docs/tests"), List.of(item("A")));
+
+    // Act
+    var items =
+        aggregateIndex.collect(
+            List.of("com.example:first", "com.example:other"), tempDir.resolve("target/docs"));
+
+    // Assert
+    assertEquals(1, items.size());
+  }
+
+  @Test
+  void collect_withRepeatedContribution_returnsLatestItems() throws IOException {
+    // Arrange
+    var documentDirectory = tempDir.resolve("first/target/docs/tests");
+    aggregateIndex.contribute("com.example:first", documentDirectory, List.of(item("A")));
+    aggregateIndex.contribute("com.example:first", documentDirectory, List.of());
+
+    // Act
+    var items = aggregateIndex.collect(List.of("com.example:first"), tempDir);
+
+    // Assert
+    assertTrue(items.isEmpty());
+  }
+
+  @Test
+  void collect_withUnlistedModules_appendsModulesWithExistingDocuments() throws IOException {
+    // Arrange
+    aggregateIndex.contribute(
+        "com.example:first",
+        Files.createDirectories(tempDir.resolve("first/target/docs/tests")),
+        List.of(item("A")));
+    aggregateIndex.contribute(
+        "com.example:removed", tempDir.resolve("removed/target/docs/tests"), List.of(item("R")));
+    aggregateIndex.contribute(
+        "com.example:second", tempDir.resolve("second/target/docs/tests"), List.of(item("B")));
+
+    // Act
+    var items =
+        aggregateIndex.collect(List.of("com.example:second"), tempDir.resolve("target/docs"));
+
+    // Assert
+    assertEquals(List.of("B", "A"), items.stream().map(DocumentIndexItem::getTitle).toList());
+  }
+
+  // endregion
+
+  DocumentIndexItem item(String title) {
+    return DocumentIndexItem.builder()
+        .title(title)
+        .filename(title + "Test.adoc")
+        .description("N/A")
+        .build();
+  }
+}
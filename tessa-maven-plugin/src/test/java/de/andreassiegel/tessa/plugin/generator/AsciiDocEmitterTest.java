@@ -0,0 +1,174 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.TestStep;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import de.andreassiegel.tessa.plugin.parser.ParsedTestFile;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Golden tests for the built-in documents: The emitter has to produce the same output as the
+ * built-in Freemarker templates.
+ */
+class AsciiDocEmitterTest {
+
+  static final Path BASE_PATH = Paths.get("");
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  private final AsciiDocEmitter emitter = new AsciiDocEmitter(Locale.getDefault());
+  private final FreemarkerRenderer templates = new FreemarkerRenderer(null);
+
+  // region renderTestDocument()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void renderTestDocument_sameAsTemplate(String fileName) throws IOException {
+    // Arrange
+    var testSets =
+        new ParsedTestFile(TEST_RESOURCES.resolve(fileName), BASE_PATH).toDocumentDataModel();
+    assertFalse(testSets.isEmpty());
+
+    for (var testSet : testSets) {
+      for (var linked : List.of(testSet, testSet.withLinkBaseUrl("https://example.com"))) {
+        // Act
+        var result = renderTestDocument(emitter, linked);
+
+        // Assert
+        assertEquals(renderTestDocument(templates, linked), result);
+      }
+    }
+  }
+
+  @Test
+  void renderTestDocument_allValues_sameAsTemplate() throws IOException {
+    // Arrange
+    var steps = new LinkedHashMap<String, List<TestStep>>();
+    steps.put(
+        "Arrange <input>",
+        List.of(TestStep.builder().info("a & b").build(), TestStep.builder().build()));
+    steps.put("Act", List.of(TestStep.builder().info("call 'it'").build()));
+    var testCase =
+        TestCase.builder()
+            .methodName("test")
+            .title("A \"quoted\" <title>")
+            .status("DRAFT")
+            .disabledNote("Disabled & skipped")
+            .furtherInformation("Further <information>")
+            .sectioned(true)
+            .sections(steps)
+            .sectionLevels(Map.of("Act", 1))
+            .beginLine(1233)
+            .endLine(12345)
+            .build();
+    var categories = new LinkedHashMap<String, List<TestCase>>();
+    categories.put("Happy & Cases", List.of(testCase, testCase));
+    categories.put("Nested", List.of(testCase));
+    categories.put("Deeply Nested", List.of(testCase));
+    var testSet =
+        TestSet.builder()
+            .path(Paths.get("src/test/java/Sample<Test>.java"))
+            .className("SampleTest")
+            .description("Description with <markup>")
+            .status("IN REVIEW")
+            .disabledNote("All disabled")
+            .furtherInformation("  indented\n  information")
+            .setup("Setup & more")
+            .cleanup("Cleanup")
+            .testCases(categories)
+            .categoryLevels(Map.of("Nested", 1, "Deeply Nested", 5))
+            .categorized(true)
+            .build()
+            .withLinkBaseUrl("https://example.com?a=1&b=2");
+
+    // Act
+    var result = renderTestDocument(emitter, testSet);
+
+    // Assert
+    assertEquals(renderTestDocument(templates, testSet), result);
+    assertTrue(result.contains("\n====== " + testSet.getCategoryNumbers().get("Deeply Nested")));
+  }
+
+  // endregion
+
+  // region renderIndexDocument()
+
+  @Test
+  void renderIndexDocument_sameAsTemplate() throws IOException {
+    // Arrange
+    var index = new DocumentIndex("Test <Documentation>", "tests");
+    index.addToIndex(
+        DocumentIndexItem.builder()
+            .title("Sample")
+            .filename("SampleTest.adoc")
+            .description("N/A")
+            .build());
+
+    // Act
+    var withoutStatus = renderIndexDocument(emitter, index);
+    index.addToIndex(
+        DocumentIndexItem.builder()
+            .title("Other & more")
+            .filename("OtherTest.adoc")
+            .description("Description")
+            .status("DRAFT")
+            .directory("module/tests")
+            .build());
+    var withStatus = renderIndexDocument(emitter, index);
+
+    // Assert
+    assertTrue(withoutStatus.contains("|Title |Description\n"));
+    assertTrue(withStatus.contains("|Title |Description |Status\n"));
+    assertEquals(renderIndexDocument(templates, index), withStatus);
+  }
+
+  // endregion
+
+  String renderTestDocument(DocumentRenderer renderer, TestSet testSet) throws IOException {
+    var out = new StringWriter();
+    renderer.renderTestDocument(testSet, out);
+    return out.toString();
+  }
+
+  String renderIndexDocument(DocumentRenderer renderer, DocumentIndex index) throws IOException {
+    var out = new StringWriter();
+    renderer.renderIndexDocument(index, out);
+    return out.toString();
+  }
+}
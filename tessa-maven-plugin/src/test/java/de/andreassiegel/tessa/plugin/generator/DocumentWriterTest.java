@@ -0,0 +1,243 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+class DocumentWriterTest {
+
+  static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @TempDir Path tempDir;
+
+  // region write()
+
+  @Test
+  void write_moreDocumentsThanBuffers_writesAllDocumentsOnFlush() throws IOException {
+    // Arrange
+    try (var writer = new DocumentWriter(2, OutputChecksums.load(tempDir))) {
+      // Act
+      for (int i = 0; i < 100; i++) {
+        var content = "Document " + i + "\n";
+        writer.write(tempDir.resolve(i + ".adoc"), out -> out.write(content.repeat(1000)));
+      }
+      writer.flush();
+
+      // Assert
+      for (int i = 0; i < 100; i++) {
+        assertEquals(
+            ("Document " + i + "\n").repeat(1000), Files.readString(tempDir.resolve(i + ".adoc")));
+      }
+    }
+  }
+
+  @Test
+  void write_existingFile_replacesContent() throws IOException {
+    // Arrange
+    var path = tempDir.resolve("document.adoc");
+    Files.writeString(path, "a previous, longer content");
+
+    // Act
+    try (var writer = new DocumentWriter(1, OutputChecksums.load(tempDir))) {
+      writer.write(path, out -> out.write("new"));
+    }
+
+    // Assert
+    assertEquals("new", Files.readString(path));
+  }
+
+  @Test
+  void write_sameContent_leavesFileUntouched() throws IOException {
+    // Arrange
+    var path = tempDir.resolve("document.adoc");
+    Files.writeString(path, "content");
+    var lastModified = FileTime.fromMillis(0);
+    Files.setLastModifiedTime(path, lastModified);
+    var checksums = OutputChecksums.load(tempDir);
+
+    // Act
+    try (var writer = new DocumentWriter(1, checksums)) {
+      writer.write(path, out -> out.write("content"));
+      writer.write(tempDir.resolve("other.adoc"), out -> out.write("other"));
+    }
+
+    // Assert
+    assertEquals(lastModified, Files.getLastModifiedTime(path));
+    assertEquals(1, checksums.getUnchangedCount());
+    assertEquals(1, checksums.getWrittenCount());
+    assertEquals(
+        "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73  document.adoc\n"
+            + "d9298a10d1b0735837dc4bd85dac641b0f3cef27a47e5d53a54f2f3f5b2fcffa  other.adoc\n",
+        checksums.manifest());
+  }
+
+  @Test
+  void write_unencodableCharacters_replacedLikeFileWriter() throws IOException {
+    // Arrange
+    var content = "umlauts äöü, emoji 😀, lone surrogate \uD83D.";
+    var expected = tempDir.resolve("expected.adoc");
+    try (var out = new FileWriter(expected.toFile(), UTF_8)) {
+      out.write(content);
+    }
+
+    // Act
+    try (var writer = new DocumentWriter(1, OutputChecksums.load(tempDir))) {
+      writer.write(tempDir.resolve("actual.adoc"), out -> out.write(content));
+    }
+
+    // Assert
+    assertArrayEquals(
+        Files.readAllBytes(expected), Files.readAllBytes(tempDir.resolve("actual.adoc")));
+  }
+
+  @Test
+  void write_failedDocument_reportedAndFurtherDocumentsRejected() throws IOException {
+    // Arrange
+    var writer = new DocumentWriter(1, OutputChecksums.load(tempDir));
+    writer.write(tempDir.resolve("missing/document.adoc"), out -> out.write("content"));
+
+    // Act & Assert
+    assertThrows(IOException.class, writer::flush);
+    assertThrows(
+        IOException.class,
+        () -> writer.write(tempDir.resolve("document.adoc"), out -> out.write("content")));
+    assertThrows(IOException.class, writer::close);
+  }
+
+  @Test
+  void write_closed_throwsException() throws IOException {
+    // Arrange
+    var writer = new DocumentWriter(1, OutputChecksums.load(tempDir));
+    writer.close();
+
+    // Act & Assert
+    assertThrows(
+        IOException.class,
+        () -> writer.write(tempDir.resolve("document.adoc"), out -> out.write("content")));
+  }
+
+  @Test
+  void write_interruptedWriterThread_reportedAndFurtherDocumentsRejected() throws Exception {
+    // Arrange
+    var writer = new DocumentWriter(1, OutputChecksums.load(tempDir));
+    writer.thread().interrupt();
+    writer.thread().join();
+
+    // Act & Assert
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          assertThrows(InterruptedIOException.class, () -> rethrowCause(writer::flush));
+          assertThrows(
+              IOException.class,
+              () -> writer.write(tempDir.resolve("document.adoc"), out -> out.write("content")));
+          assertThrows(IOException.class, writer::close);
+        });
+  }
+
+  @Test
+  void write_writerThreadInterruptedWithPendingDocuments_flushDoesNotWait() throws Exception {
+    // Arrange
+    var writer = new DocumentWriter(2, OutputChecksums.load(tempDir));
+
+    // Act & Assert
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          try {
+            for (int i = 0; i < 1000; i++) {
+              writer.write(tempDir.resolve(i + ".adoc"), out -> out.write("content".repeat(1000)));
+              if (i == 10) {
+                writer.thread().interrupt();
+              }
+            }
+          } catch (IOException e) {
+            // the writer thread stopped, further documents are rejected
+          }
+          assertThrows(IOException.class, writer::flush);
+          assertThrows(IOException.class, writer::close);
+        });
+  }
+
+  // endregion
+
+  // region DirectWriter.write()
+
+  @Test
+  void directWriter_write_severalDocuments_writesEachDocument() throws IOException {
+    // Arrange
+    var checksums = OutputChecksums.load(tempDir);
+    var writer = new DocumentWriter.DirectWriter(checksums);
+    var large = "x".repeat(2 * 1024 * 1024);
+
+    // Act
+    writer.write(tempDir.resolve("first.adoc"), out -> out.write("a longer first document"));
+    writer.write(tempDir.resolve("large.adoc"), out -> out.write(large));
+    writer.write(tempDir.resolve("last.adoc"), out -> out.write("last"));
+
+    // Assert
+    assertEquals("a longer first document", Files.readString(tempDir.resolve("first.adoc")));
+    assertEquals(large, Files.readString(tempDir.resolve("large.adoc")));
+    assertEquals("last", Files.readString(tempDir.resolve("last.adoc")));
+    assertEquals(3, checksums.getWrittenCount());
+  }
+
+  @Test
+  void directWriter_write_failedDocument_acceptsFurtherDocuments() throws IOException {
+    // Arrange
+    var writer = new DocumentWriter.DirectWriter(OutputChecksums.load(tempDir));
+    var path = tempDir.resolve("document.adoc");
+
+    // Act
+    assertThrows(
+        IOException.class,
+        () ->
+            writer.write(
+                path,
+                out -> {
+                  out.write("partial");
+                  throw new IOException("Rendering failed");
+                }));
+    writer.write(path, out -> out.write("content"));
+
+    // Assert
+    assertEquals("content", Files.readString(path));
+  }
+
+  // endregion
+
+  /** Unwraps the failure of the writer thread from the exception that reports it. */
+  static void rethrowCause(Executable executable) throws Throwable {
+    try {
+      executable.execute();
+    } catch (IOException e) {
+      throw e.getCause() != null ? e.getCause() : e;
+    }
+  }
+}
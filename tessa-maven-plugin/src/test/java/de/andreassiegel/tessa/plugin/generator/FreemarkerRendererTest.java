@@ -0,0 +1,72 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndex;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FreemarkerRendererTest {
+
+  @TempDir Path tempDir;
+
+  // region FreemarkerRenderer()
+
+  @Test
+  void freemarkerRenderer_templateDirectory_usesCustomTemplates() throws IOException {
+    // Arrange
+    Files.writeString(
+        tempDir.resolve("test.ftlh"), "Custom ${title} & <@text value=furtherInformationText/>");
+    var testSet =
+        TestSet.builder()
+            .path(Paths.get("SampleTest.java"))
+            .className("SampleTest")
+            .furtherInformation("<info>")
+            .build();
+    var out = new StringWriter();
+
+    // Act
+    var renderer = new FreemarkerRenderer(tempDir.toString());
+    renderer.renderTestDocument(testSet, out);
+
+    // Assert
+    assertEquals("Custom SampleTest & &lt;info&gt;", out.toString());
+  }
+
+  @Test
+  void freemarkerRenderer_missingTemplate_usesBuiltInTemplate() throws IOException {
+    // Arrange
+    var out = new StringWriter();
+
+    // Act
+    var renderer = new FreemarkerRenderer(tempDir.toString());
+    renderer.renderIndexDocument(new DocumentIndex("Tests", "tests"), out);
+
+    // Assert
+    assertTrue(out.toString().startsWith("= Tests\n"));
+  }
+
+  // endregion
+}
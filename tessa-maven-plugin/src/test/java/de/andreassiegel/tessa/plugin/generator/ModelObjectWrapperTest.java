@@ -0,0 +1,105 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.index.DocumentIndexItem;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateBooleanModel;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateScalarModel;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ModelObjectWrapperTest {
+
+  private final ModelObjectWrapper wrapper = new ModelObjectWrapper(Configuration.VERSION_2_3_31);
+
+  private final TestSet testSet =
+      TestSet.builder()
+          .path(Paths.get("SampleTest.java"))
+          .className("SampleTest")
+          .testCases(Map.of("Default", List.of(TestCase.builder().methodName("test").build())))
+          .build()
+          .withLinkBaseUrl("https://example.com");
+
+  // region wrap()
+
+  @Test
+  void wrap_testSet_exposesValues() throws TemplateModelException {
+    // Act
+    var result = (TemplateHashModel) wrapper.wrap(testSet);
+
+    // Assert
+    assertInstanceOf(TestSetAdapter.class, result);
+    assertEquals("SampleTest", ((TemplateScalarModel) result.get("title")).getAsString());
+    assertEquals(
+        "https://example.com/SampleTest.java",
+        ((TemplateScalarModel) result.get("link")).getAsString());
+    assertEquals(TemplateBooleanModel.FALSE, result.get("categorized"));
+    assertNull(result.get("status"));
+    assertSame(result.get("testCases"), result.get("testCases"));
+    assertSame(testSet, ((TestSetAdapter) result).getAdaptedObject(Object.class));
+  }
+
+  @Test
+  void wrap_testCase_exposesValues() throws TemplateModelException {
+    // Arrange
+    var testCase = testSet.getTestCases().get("Default").get(0);
+
+    // Act
+    var result = (TemplateHashModel) wrapper.wrap(testCase);
+
+    // Assert
+    assertInstanceOf(TestCaseAdapter.class, result);
+    assertEquals("test", ((TemplateScalarModel) result.get("title")).getAsString());
+    assertEquals("N/A", ((TemplateScalarModel) result.get("description")).getAsString());
+  }
+
+  @Test
+  void wrap_documentIndexItem_exposesValues() throws TemplateModelException {
+    // Arrange
+    var item = DocumentIndexItem.builder().title("Title").filename("SampleTest.adoc").build();
+
+    // Act
+    var result = (TemplateHashModel) wrapper.wrap(item);
+
+    // Assert
+    assertInstanceOf(DocumentIndexItemAdapter.class, result);
+    assertEquals("SampleTest.adoc", ((TemplateScalarModel) result.get("filename")).getAsString());
+    assertNull(result.get("directory"));
+  }
+
+  @Test
+  void wrap_otherKey_fallsBackToBean() throws TemplateModelException {
+    // Act
+    var result = (TemplateHashModel) wrapper.wrap(testSet);
+
+    // Assert
+    assertInstanceOf(TemplateMethodModelEx.class, result.get("getTitle"));
+    assertNull(result.get("unknown"));
+  }
+
+  // endregion
+}
@@ -0,0 +1,134 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OutputChecksumsTest {
+
+  static final String CONTENT_CHECKSUM =
+      "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+
+  @TempDir Path tempDir;
+
+  // region record()
+
+  @Test
+  void record_documentsInOutputDirectory_listedByPath() {
+    // Arrange
+    var checksums = OutputChecksums.load(tempDir);
+
+    // Act
+    checksums.record(tempDir.resolve("tests/b.adoc"), "b", true);
+    checksums.record(tempDir.resolve("tests.adoc"), "index", false);
+    checksums.record(tempDir.resolve("tests/a.adoc"), "a", true);
+    checksums.record(tempDir.resolve("../aggregate.adoc"), "aggregate", true);
+
+    // Assert
+    assertEquals("index  tests.adoc\na  tests/a.adoc\nb  tests/b.adoc\n", checksums.manifest());
+    assertEquals(3, checksums.getWrittenCount());
+    assertEquals(1, checksums.getUnchangedCount());
+  }
+
+  // endregion
+
+  // region retain()
+
+  @Test
+  void retain_documentInPreviousManifest_keepsChecksum() throws IOException {
+    // Arrange
+    Files.writeString(tempDir.resolve(OutputChecksums.FILE_NAME), "previous  a.adoc\n");
+    Files.writeString(tempDir.resolve("a.adoc"), "content");
+    var checksums = OutputChecksums.load(tempDir);
+
+    // Act
+    checksums.retain(tempDir.resolve("a.adoc"));
+
+    // Assert
+    assertEquals("previous  a.adoc\n", checksums.manifest());
+  }
+
+  @Test
+  void retain_documentNotInPreviousManifest_computesChecksum() throws IOException {
+    // Arrange
+    Files.writeString(tempDir.resolve("a.adoc"), "content");
+    var checksums = OutputChecksums.load(tempDir);
+
+    // Act
+    checksums.retain(tempDir.resolve("a.adoc"));
+
+    // Assert
+    assertEquals(CONTENT_CHECKSUM + "  a.adoc\n", checksums.manifest());
+  }
+
+  // endregion
+
+  // region deleteStaleDocuments()
+
+  @Test
+  void deleteStaleDocuments_deletesUnmodifiedDocumentsThatWereNotRecorded() throws IOException {
+    // Arrange
+    Files.writeString(
+        tempDir.resolve(OutputChecksums.FILE_NAME),
+        CONTENT_CHECKSUM
+            + "  current.adoc\n"
+            + CONTENT_CHECKSUM
+            + "  stale.adoc\n"
+            + CONTENT_CHECKSUM
+            + "  modified.adoc\n");
+    Files.writeString(tempDir.resolve("current.adoc"), "content");
+    Files.writeString(tempDir.resolve("stale.adoc"), "content");
+    Files.writeString(tempDir.resolve("modified.adoc"), "modified content");
+    var checksums = OutputChecksums.load(tempDir);
+    checksums.record(tempDir.resolve("current.adoc"), CONTENT_CHECKSUM, false);
+
+    // Act
+    var deleted = checksums.deleteStaleDocuments();
+
+    // Assert
+    assertEquals(1, deleted);
+    assertTrue(Files.exists(tempDir.resolve("current.adoc")));
+    assertFalse(Files.exists(tempDir.resolve("stale.adoc")));
+    assertTrue(Files.exists(tempDir.resolve("modified.adoc")));
+  }
+
+  @Test
+  void deleteStaleDocuments_ignoresDocumentsOutsideOutputDirectory() throws IOException {
+    // Arrange
+    var outputDirectory = Files.createDirectory(tempDir.resolve("output"));
+    Files.writeString(
+        outputDirectory.resolve(OutputChecksums.FILE_NAME),
+        CONTENT_CHECKSUM + "  ../outside.adoc\n");
+    Files.writeString(tempDir.resolve("outside.adoc"), "content");
+    var checksums = OutputChecksums.load(outputDirectory);
+
+    // Act
+    var deleted = checksums.deleteStaleDocuments();
+
+    // Assert
+    assertEquals(0, deleted);
+    assertTrue(Files.exists(tempDir.resolve("outside.adoc")));
+  }
+
+  // endregion
+}
@@ -0,0 +1,45 @@
+package de.andreassiegel.tessa.plugin.generator;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class SourceTextDirectiveTest {
+
+  // region HtmlEscapingWriter
+
+  @Test
+  void htmlEscapingWriter_escapesLikeFreemarker() throws IOException {
+    // Arrange
+    var out = new StringWriter();
+    var writer = new SourceTextDirective.HtmlEscapingWriter(out);
+    var text = "a < b && \"c\" > 'd'";
+
+    // Act
+    writer.write(text, 0, text.length());
+    writer.write(text.toCharArray(), 0, 5);
+
+    // Assert
+    assertEquals("a &lt; b &amp;&amp; &quot;c&quot; &gt; &#39;d&#39;" + "a &lt; b", out.toString());
+  }
+
+  // endregion
+}
@@ -0,0 +1,191 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildManifestTest {
+
+  static final String FINGERPRINT = "fingerprint";
+
+  @TempDir Path tempDir;
+
+  Path manifestFile;
+  Path sourceFile;
+
+  @BeforeEach
+  void setup() throws IOException {
+    manifestFile = tempDir.resolve("tessa/manifest.bin");
+    sourceFile = tempDir.resolve("SampleTest.java");
+    Files.writeString(sourceFile, "class SampleTest {}", UTF_8);
+  }
+
+  // region findUnchanged()
+
+  @Test
+  void findUnchanged_withoutManifestFile_returnsEmpty() throws IOException {
+    // Arrange
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isEmpty());
+  }
+
+  @Test
+  void findUnchanged_withUnchangedFile_returnsSavedEntry() throws IOException {
+    // Arrange
+    saveManifest(FINGERPRINT);
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isPresent());
+    assertEquals(FileState.hash(sourceFile), entry.get().getContentHash());
+  }
+
+  @Test
+  void findUnchanged_withTouchedFile_returnsEntryWithNewModificationTime() throws IOException {
+    // Arrange
+    saveManifest(FINGERPRINT);
+    var lastModified = Files.getLastModifiedTime(sourceFile).toMillis() + 10_000;
+    Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(lastModified));
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isPresent());
+    assertEquals(lastModified, entry.get().getLastModified());
+  }
+
+  @Test
+  void findUnchanged_withChangedFile_returnsEmpty() throws IOException {
+    // Arrange
+    saveManifest(FINGERPRINT);
+    Files.writeString(sourceFile, "class SampleTest { }", UTF_8);
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isEmpty());
+  }
+
+  @Test
+  void findUnchanged_withDifferentConfiguration_returnsEmpty() throws IOException {
+    // Arrange
+    saveManifest(FINGERPRINT);
+    var manifest = BuildManifest.load(manifestFile, "other fingerprint");
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isEmpty());
+  }
+
+  @Test
+  void findUnchanged_withCorruptManifest_returnsEmpty() throws IOException {
+    // Arrange
+    Files.createDirectories(manifestFile.getParent());
+    Files.writeString(manifestFile, "not a manifest", UTF_8);
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isEmpty());
+  }
+
+  // endregion
+
+  // region findPreviousModelHash()
+
+  @Test
+  void findPreviousModelHash_withChangedFile_returnsSavedModelHash() throws IOException {
+    // Arrange
+    var modelHash = "1".repeat(64);
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+    manifest.record(BuildManifest.entry(sourceFile, FileState.of(sourceFile), modelHash));
+    manifest.save();
+    Files.writeString(sourceFile, "class SampleTest { }", UTF_8);
+
+    // Act
+    var previous = BuildManifest.load(manifestFile, FINGERPRINT).findPreviousModelHash(sourceFile);
+
+    // Assert
+    assertTrue(previous.isPresent());
+    assertEquals(modelHash, previous.get());
+  }
+
+  @Test
+  void findPreviousModelHash_withoutModelHash_returnsEmpty() throws IOException {
+    // Arrange
+    saveManifest(FINGERPRINT);
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var previous = manifest.findPreviousModelHash(sourceFile);
+
+    // Assert
+    assertTrue(previous.isEmpty());
+  }
+
+  // endregion
+
+  // region save()
+
+  @Test
+  void save_withoutRecordedEntries_dropsPreviousEntries() throws IOException {
+    // Arrange
+    saveManifest(FINGERPRINT);
+    BuildManifest.load(manifestFile, FINGERPRINT).save();
+    var manifest = BuildManifest.load(manifestFile, FINGERPRINT);
+
+    // Act
+    var entry = manifest.findUnchanged(sourceFile, FileState.of(sourceFile));
+
+    // Assert
+    assertTrue(entry.isEmpty());
+  }
+
+  // endregion
+
+  void saveManifest(String fingerprint) throws IOException {
+    var manifest = BuildManifest.load(manifestFile, fingerprint);
+    manifest.record(BuildManifest.entry(sourceFile, FileState.of(sourceFile)));
+    manifest.save();
+  }
+}
@@ -0,0 +1,238 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.andreassiegel.tessa.plugin.Index;
+import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.parser.LexedTestFile;
+import de.andreassiegel.tessa.plugin.parser.ParsedTestFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ModelCacheTest {
+
+  static final String FINGERPRINT = "fingerprint";
+
+  static final Path BASE_PATH = Paths.get("src/test");
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  @TempDir Path tempDir;
+
+  Path cacheFile;
+
+  @BeforeEach
+  void setup() {
+    cacheFile = tempDir.resolve("tessa/models.bin");
+  }
+
+  // region get()
+
+  @Test
+  void get_withSavedEntry_returnsTestSetsThatRenderLikeTheOriginal() throws IOException {
+    // Arrange
+    var sourceFile = TEST_RESOURCES.resolve("SampleTest.java");
+    var testSets = parse(sourceFile);
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+    cache.put(FileState.hash(sourceFile), testSets);
+    cache.save();
+
+    // Act
+    var cached = ModelCache.load(cacheFile, FINGERPRINT).get(FileState.hash(sourceFile));
+
+    // Assert
+    assertTrue(cached.isPresent());
+    assertEquals(testSets.size(), cached.get().size());
+    for (int i = 0; i < testSets.size(); i++) {
+      assertEquals(render(testSets.get(i), "original"), render(cached.get().get(i), "cached"));
+    }
+  }
+
+  @Test
+  void get_withUnknownHash_returnsEmpty() {
+    // Arrange
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+
+    // Act
+    var cached = cache.get("0".repeat(64));
+
+    // Assert
+    assertTrue(cached.isEmpty());
+  }
+
+  @Test
+  void get_withDifferentConfiguration_returnsEmpty() throws IOException {
+    // Arrange
+    var hash = "1".repeat(64);
+    saveCache(hash);
+    var cache = ModelCache.load(cacheFile, "other fingerprint");
+
+    // Act
+    var cached = cache.get(hash);
+
+    // Assert
+    assertTrue(cached.isEmpty());
+  }
+
+  @Test
+  void get_withCorruptCache_returnsEmpty() throws IOException {
+    // Arrange
+    Files.createDirectories(cacheFile.getParent());
+    Files.writeString(cacheFile, "not a cache", UTF_8);
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+
+    // Act
+    var cached = cache.get("1".repeat(64));
+
+    // Assert
+    assertTrue(cached.isEmpty());
+  }
+
+  // endregion
+
+  // region getTestCases()
+
+  @Test
+  void getTestCases_withSavedEntry_returnsTestCasesBySourceFingerprint() throws IOException {
+    // Arrange
+    var sourceFile = TEST_RESOURCES.resolve("SampleTest.java");
+    var testSets = LexedTestFile.readTestSets(sourceFile, BASE_PATH);
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+    cache.put(FileState.hash(sourceFile), testSets);
+    cache.save();
+
+    // Act
+    var testCases =
+        ModelCache.load(cacheFile, FINGERPRINT).getTestCases(FileState.hash(sourceFile));
+
+    // Assert
+    var expected =
+        testSets.stream()
+            .flatMap(testSet -> testSet.getTestCases().values().stream())
+            .flatMap(List::stream)
+            .map(TestCase::getSourceFingerprint)
+            .collect(Collectors.toSet());
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, testCases.keySet());
+  }
+
+  @Test
+  void getTestCases_withUnknownHash_returnsEmptyMap() {
+    // Arrange
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+
+    // Act
+    var testCases = cache.getTestCases("0".repeat(64));
+
+    // Assert
+    assertTrue(testCases.isEmpty());
+  }
+
+  @Test
+  void getTestCases_doesNotRetainEntryWhenSaving() throws IOException {
+    // Arrange
+    var previous = "1".repeat(64);
+    saveCache(previous);
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+    cache.getTestCases(previous);
+
+    // Act
+    cache.save();
+
+    // Assert
+    assertTrue(ModelCache.load(cacheFile, FINGERPRINT).get(previous).isEmpty());
+  }
+
+  // endregion
+
+  // region save()
+
+  @Test
+  void save_keepsRequestedEntriesAndDropsOthers() throws IOException {
+    // Arrange
+    var requested = "1".repeat(64);
+    var unused = "2".repeat(64);
+    saveCache(requested, unused);
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+    cache.get(requested);
+
+    // Act
+    cache.save();
+
+    // Assert
+    var saved = ModelCache.load(cacheFile, FINGERPRINT);
+    assertTrue(saved.get(requested).isPresent());
+    assertTrue(saved.get(unused).isEmpty());
+  }
+
+  @Test
+  void save_overCacheLoadedFromSamePath_replacesCacheFile() throws IOException {
+    // Arrange
+    var retained = "1".repeat(64);
+    var added = "3".repeat(64);
+    saveCache(retained);
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+    cache.get(retained);
+    cache.put(added, parse(TEST_RESOURCES.resolve("SampleTest.java")));
+
+    // Act
+    cache.save();
+    cache.save();
+
+    // Assert
+    assertTrue(cache.get(retained).isPresent());
+    assertFalse(Files.exists(cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp")));
+    var saved = ModelCache.load(cacheFile, FINGERPRINT);
+    assertTrue(saved.get(retained).isPresent());
+    assertTrue(saved.get(added).isPresent());
+  }
+
+  // endregion
+
+  void saveCache(String... hashes) throws IOException {
+    var testSets = parse(TEST_RESOURCES.resolve("AnnotationTest.java"));
+    var cache = ModelCache.load(cacheFile, FINGERPRINT);
+    for (var hash : hashes) {
+      cache.put(hash, testSets);
+    }
+    cache.save();
+  }
+
+  List<TestSet> parse(Path sourceFile) throws IOException {
+    return new ParsedTestFile(sourceFile, BASE_PATH).toDocumentDataModel();
+  }
+
+  String render(TestSet testSet, String directory) throws IOException {
+    var outputDirectory = tempDir.resolve(directory);
+    var generator = new AsciiDocGenerator(outputDirectory.toString(), new Index());
+    var indexItem = generator.generateDocument(testSet.withLinkBaseUrl("https://example.com"));
+    return Files.readString(outputDirectory.resolve("tests").resolve(indexItem.getFilename()));
+  }
+}
@@ -0,0 +1,123 @@
+package de.andreassiegel.tessa.plugin.incremental;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import de.andreassiegel.tessa.plugin.parser.LexedTestFile;
+import de.andreassiegel.tessa.plugin.parser.ParsedTestFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ModelHashTest {
+
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  @TempDir Path tempDir;
+
+  Path sourceFile;
+  String source;
+
+  @BeforeEach
+  void setup() throws IOException {
+    sourceFile = tempDir.resolve("SampleTest.java");
+    source = Files.readString(TEST_RESOURCES.resolve("SampleTest.java"), UTF_8);
+    Files.writeString(sourceFile, source, UTF_8);
+  }
+
+  // region of()
+
+  @Test
+  void of_withSameFile_returnsSameHash() throws IOException {
+    // Arrange
+    var expected = hash();
+
+    // Act
+    var actual = hash();
+
+    // Assert
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void of_withLexedFile_returnsSameHashAsForParsedFile() throws IOException {
+    // Arrange
+    var expected = hash();
+
+    // Act
+    var actual = ModelHash.of(LexedTestFile.readTestSets(sourceFile, tempDir));
+
+    // Assert
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void of_withChangedCodeOutsideComments_returnsSameHash() throws IOException {
+    // Arrange
+    var expected = hash();
+    Files.writeString(
+        sourceFile,
+        source.replace("static void setup() {\n\n", "static void setup() {\n    int unused = 0;\n"),
+        UTF_8);
+
+    // Act
+    var actual = hash();
+
+    // Assert
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void of_withChangedStep_returnsDifferentHash() throws IOException {
+    // Arrange
+    var expected = hash();
+    Files.writeString(sourceFile, source.replaceFirst("// Act", "// Act twice"), UTF_8);
+
+    // Act
+    var actual = hash();
+
+    // Assert
+    assertNotEquals(expected, actual);
+  }
+
+  @Test
+  void of_withShiftedLines_returnsDifferentHash() throws IOException {
+    // Arrange
+    var expected = hash();
+    Files.writeString(
+        sourceFile, source.replace("class SampleTest {\n", "class SampleTest {\n\n"), UTF_8);
+
+    // Act
+    var actual = hash();
+
+    // Assert
+    assertNotEquals(expected, actual);
+  }
+
+  // endregion
+
+  String hash() throws IOException {
+    return ModelHash.of(new ParsedTestFile(sourceFile, tempDir).toDocumentDataModel());
+  }
+}
@@ -0,0 +1,90 @@
+package de.andreassiegel.tessa.plugin.model;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class GroupedValuesTest {
+
+  // region of()
+
+  @Test
+  void of_keepsOrderOfGroupsAndValues() {
+    // Arrange
+    Map<String, List<String>> groups = new LinkedHashMap<>();
+    groups.put("Outer", List.of("a", "b"));
+    groups.put("Inner", List.of());
+    groups.put("Other", List.of("c"));
+    Map<String, Integer> levels = Map.of("Outer", 0, "Inner", 1);
+
+    // Act
+    var result = GroupedValues.of(groups, levels);
+
+    // Assert
+    assertEquals(groups, result);
+    assertEquals(List.of("Outer", "Inner", "Other"), List.copyOf(result.keySet()));
+    assertEquals(Map.of("Outer", 0, "Inner", 1, "Other", 0), result.levels());
+    assertEquals(List.of("c"), result.get("Other"));
+    assertNull(result.get("Missing"));
+  }
+
+  @Test
+  void of_internsGroupNames() {
+    // Arrange
+    var name = new String("Arrange");
+
+    // Act
+    var result = GroupedValues.of(Map.of(name, List.of("step")), null);
+
+    // Assert
+    assertSame("Arrange", result.name(0));
+  }
+
+  @Test
+  void of_withoutGroups_returnsEmptyMap() {
+    // Act
+    var result = GroupedValues.<String>of(null, null);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    assertTrue(result.levels().isEmpty());
+  }
+
+  // endregion
+
+  // region get()
+
+  @Test
+  void get_returnsUnmodifiableGroup() {
+    // Arrange
+    var groupedValues = GroupedValues.of(Map.of("Default", List.of("a", "b")), null);
+
+    // Act
+    var result = groupedValues.get("Default");
+
+    // Assert
+    assertEquals(List.of("a", "b"), result);
+    assertThrows(UnsupportedOperationException.class, () -> result.set(0, "c"));
+  }
+
+  // endregion
+}
@@ -0,0 +1,93 @@
+package de.andreassiegel.tessa.plugin.model;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SourceTextTest {
+
+  // region withoutIndentation()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        " step",
+        "\tfirst line\n\t  second line\n",
+        "first\r\n   second\r   third",
+        "  trailing  \n  ",
+        "no indentation"
+      })
+  void withoutIndentation_writesAndReturnsSameResultAsRegex(String content) throws IOException {
+    // Arrange
+    var source = ("/*" + content + "*/").toCharArray();
+    var text = SourceText.withoutIndentation(source, 2, source.length - 2);
+    var out = new StringWriter();
+
+    // Act
+    text.writeTo(out);
+
+    // Assert
+    var expected = content.replaceAll("(?m)^[ \\t]+", "");
+    assertEquals(expected, out.toString());
+    assertEquals(expected, text.toString());
+  }
+
+  // endregion
+
+  // region of()
+
+  @Test
+  void of_keepsIndentation() throws IOException {
+    // Arrange
+    var text = SourceText.of("  indented\n  lines");
+    var out = new StringWriter();
+
+    // Act
+    text.writeTo(out);
+
+    // Assert
+    assertEquals("  indented\n  lines", out.toString());
+    assertEquals("  indented\n  lines", text.toString());
+  }
+
+  // endregion
+
+  // region trim()
+
+  @Test
+  void trim_returnsSameResultAsStringTrim() {
+    // Arrange
+    var content = "\n   first line\n     second line\n   ";
+
+    // Act
+    var result = SourceText.withoutIndentation(content).trim();
+
+    // Assert
+    assertEquals(content.replaceAll("(?m)^[ \\t]+", "").trim(), result.toString());
+    assertFalse(result.isBlank());
+    assertTrue(SourceText.of(" \n\t").isBlank());
+  }
+
+  // endregion
+}
@@ -0,0 +1,83 @@
+package de.andreassiegel.tessa.plugin.model;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TestSetTest {
+
+  // region withLinkBaseUrl()
+
+  @Test
+  void withLinkBaseUrl_returnsCopyWithLink() {
+    // Arrange
+    var testCase = TestCase.builder().methodName("test").build();
+    var testSet =
+        TestSet.builder()
+            .path(Paths.get("src/test/java/SampleTest.java"))
+            .className("SampleTest")
+            .testCases(Map.of("Default", List.of(testCase)))
+            .build();
+
+    // Act
+    var result = testSet.withLinkBaseUrl("https://example.com");
+
+    // Assert
+    assertNotSame(testSet, result);
+    assertEquals("https://example.com/src/test/java/SampleTest.java", result.getLink());
+    assertEquals(testSet.getClassName(), result.getClassName());
+    assertSame(testSet.getTestCases(), result.getTestCases());
+  }
+
+  @Test
+  void withLinkBaseUrl_doesNotChangeOriginal() {
+    // Arrange
+    var testSet = TestSet.builder().path(Paths.get("SampleTest.java")).build();
+
+    // Act
+    testSet.withLinkBaseUrl("https://example.com");
+
+    // Assert
+    assertNull(testSet.getLink());
+  }
+
+  // endregion
+
+  // region Builder
+
+  @Test
+  void builder_appliesFallbackValues() {
+    // Act
+    var result = TestSet.builder().path(Paths.get("src", "SampleTest.java")).build();
+
+    // Assert
+    assertEquals("SampleTest.java", result.getClassName());
+    assertEquals("SampleTest.java", result.getTitle());
+    assertEquals("N/A", result.getDescription());
+    assertEquals("None", result.getSetup());
+    assertEquals("None", result.getCleanup());
+    assertNull(result.getStatus());
+    assertTrue(result.getTestCases().isEmpty());
+  }
+
+  // endregion
+}
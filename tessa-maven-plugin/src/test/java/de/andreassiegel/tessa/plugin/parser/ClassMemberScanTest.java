@@ -0,0 +1,257 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ClassMemberScanTest {
+
+  static final Path BASE_PATH = Paths.get("");
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  // region Constructor
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "QualifiedAnnotationTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void constructor_collectsSameMethodsAsSeparateScans(String filename) throws IOException {
+    // Arrange
+    var compilationUnit = JavaParserProvider.parse(TEST_RESOURCES.resolve(filename));
+
+    for (var classDeclaration : compilationUnit.findAll(ClassOrInterfaceDeclaration.class)) {
+      // Act
+      var memberScan = new ClassMemberScan(classDeclaration);
+
+      // Assert
+      assertEquals(
+          classDeclaration.getMethods().stream()
+              .filter(MethodDeclarationUtil::isTestMethod)
+              .map(NodeWithSimpleName::getNameAsString)
+              .toList(),
+          memberScan.getTestMethods().stream().map(NodeWithSimpleName::getNameAsString).toList());
+      assertEquals(
+          classDeclaration.getMethods().stream()
+              .filter(m -> m.isAnnotationPresent("BeforeAll"))
+              .findFirst(),
+          memberScan.getBeforeAllMethod());
+      assertEquals(
+          classDeclaration.getMethods().stream()
+              .filter(m -> m.isAnnotationPresent("AfterAll"))
+              .findFirst(),
+          memberScan.getAfterAllMethod());
+      for (var annotationName : new String[] {"DisplayName", "Status", "Disabled"}) {
+        assertEquals(
+            AnnotationUtil.annotationValue(classDeclaration, annotationName),
+            memberScan.classAnnotationValue(annotationName));
+      }
+    }
+  }
+
+  @Test
+  void constructor_withQualifiedAnnotations_collectsAnnotatedMembers() throws IOException {
+    // Arrange
+    var compilationUnit =
+        JavaParserProvider.parse(TEST_RESOURCES.resolve("QualifiedAnnotationTest.java"));
+    var classDeclaration = compilationUnit.findFirst(ClassOrInterfaceDeclaration.class).get();
+
+    // Act
+    var memberScan = new ClassMemberScan(classDeclaration);
+
+    // Assert
+    assertEquals(
+        List.of("qualifiedTest", "qualifiedParameterizedTest"),
+        memberScan.getTestMethods().stream().map(NodeWithSimpleName::getNameAsString).toList());
+    assertEquals(
+        "setup", memberScan.getBeforeAllMethod().map(NodeWithSimpleName::getNameAsString).get());
+    assertEquals("Qualified annotations", memberScan.classAnnotationValue("DisplayName"));
+    assertEquals("Draft", memberScan.classAnnotationValue("Status"));
+  }
+
+  // endregion
+
+  // region getBeforeAllMethod()
+
+  @Test
+  void getBeforeAllMethod_withAnnotatedMethod_returnsMethod() throws IOException {
+    // Arrange
+    var memberScan = scanClass("AnnotationTest.java", "AnnotationTest");
+
+    // Act
+    var method = memberScan.getBeforeAllMethod();
+
+    // Assert
+    assertEquals("setup", method.map(NodeWithSimpleName::getNameAsString).get());
+  }
+
+  @Test
+  void getBeforeAllMethod_withAbsentAnnotation_returnsEmpty() throws IOException {
+    // Arrange
+    var memberScan = scanClass("AnnotationTest.java", "TestAnnotationTest");
+
+    // Act
+    var method = memberScan.getBeforeAllMethod();
+
+    // Assert
+    assertTrue(method.isEmpty());
+  }
+
+  // endregion
+
+  // region getAfterAllMethod()
+
+  @Test
+  void getAfterAllMethod_withAnnotatedMethod_returnsMethod() throws IOException {
+    // Arrange
+    var memberScan = scanClass("AnnotationTest.java", "AnnotationTest");
+
+    // Act
+    var method = memberScan.getAfterAllMethod();
+
+    // Assert
+    assertEquals("cleanup", method.map(NodeWithSimpleName::getNameAsString).get());
+  }
+
+  @Test
+  void getAfterAllMethod_withAbsentAnnotation_returnsEmpty() throws IOException {
+    // Arrange
+    var memberScan = scanClass("AnnotationTest.java", "TestAnnotationTest");
+
+    // Act
+    var method = memberScan.getAfterAllMethod();
+
+    // Assert
+    assertTrue(method.isEmpty());
+  }
+
+  // endregion
+
+  // region getTestMethods()
+
+  @ParameterizedTest
+  @CsvSource({
+    "AnnotationTest, 7",
+    "TestAnnotationTest, 1",
+    "ParameterizedTestAnnotationTest, 1",
+    "NoAnnotationTest, 0"
+  })
+  void getTestMethods_returnsAnnotatedTestMethods(String className, int expectedSize)
+      throws IOException {
+    // Arrange
+    var memberScan = scanClass("AnnotationTest.java", className);
+
+    // Act
+    var testMethods = memberScan.getTestMethods();
+
+    // Assert
+    assertEquals(expectedSize, testMethods.size());
+  }
+
+  @Test
+  void getTestMethods_returnsMethodsInDeclarationOrder() throws IOException {
+    // Arrange
+    var memberScan = scanClass("AnnotationTest.java", "AnnotationTest");
+
+    // Act
+    var methodNames =
+        memberScan.getTestMethods().stream().map(NodeWithSimpleName::getNameAsString).toList();
+
+    // Assert
+    assertEquals(
+        List.of(
+            "testMethod",
+            "testMethodDisplayName1",
+            "testMethodDisplayName2",
+            "testMethodDisplayName3",
+            "testMethodDisplayName4",
+            "testMethodDisplayName5",
+            "testMethodWithParameters"),
+        methodNames);
+  }
+
+  // endregion
+
+  // region parsedTestMethods()
+
+  @Test
+  void parsedTestMethods_withSameMethodTwice_returnsSameInstance() throws IOException {
+    // Arrange
+    var parsedTestFile =
+        new ParsedTestFile(TEST_RESOURCES.resolve("AnnotationTest.java"), BASE_PATH);
+    var classDeclaration =
+        parsedTestFile.getTestClass("AnnotationTest").get().getClassDeclaration();
+    var memberScan = new ClassMemberScan(classDeclaration);
+
+    // Act
+    var first = memberScan.parsedTestMethods(classDeclaration.getChildNodes());
+    var second = memberScan.parsedTestMethods(classDeclaration.getChildNodes());
+
+    // Assert
+    assertEquals(7, first.size());
+    for (int i = 0; i < first.size(); i++) {
+      assertSame(first.get(i), second.get(i));
+    }
+  }
+
+  @Test
+  void parsedTestMethods_withQualifiedAnnotations_readsAnnotationValues() throws IOException {
+    // Arrange
+    var parsedTestFile =
+        new ParsedTestFile(TEST_RESOURCES.resolve("QualifiedAnnotationTest.java"), BASE_PATH);
+    var classDeclaration =
+        parsedTestFile.getTestClass("QualifiedAnnotationTest").get().getClassDeclaration();
+    var memberScan = new ClassMemberScan(classDeclaration);
+
+    // Act
+    var testCases =
+        memberScan.parsedTestMethods(classDeclaration.getChildNodes()).stream()
+            .map(ParsedTestMethod::toTestCase)
+            .toList();
+
+    // Assert
+    assertEquals(2, testCases.size());
+    assertEquals("Qualified test", testCases.get(0).getTitle());
+    assertEquals("Not implemented yet", testCases.get(0).getDisabledNote());
+    assertEquals("Done", testCases.get(1).getStatus());
+  }
+
+  // endregion
+
+  ClassMemberScan scanClass(String filename, String className) throws IOException {
+    var compilationUnit = JavaParserProvider.parse(TEST_RESOURCES.resolve(filename));
+    var classDeclaration = compilationUnit.getClassByName(className).get();
+    return new ClassMemberScan(classDeclaration);
+  }
+}
@@ -0,0 +1,156 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CommentScannerTest {
+
+  static Stream<String> commentContents() {
+    return Stream.of(
+        "",
+        " ",
+        "region",
+        " region ",
+        " region Happy Cases",
+        "region\tHappy Cases ",
+        "  region   Happy   Cases  ",
+        "region\u000BName",
+        "region\u2028Name",
+        "region Name\u2028more",
+        "region Name\u0085",
+        "region Name\u2029x",
+        "regionName",
+        "regions Name",
+        "Region Name",
+        " endregion",
+        "endregion ",
+        "endregion Name",
+        "endregions",
+        "\tendregion\t",
+        "end region",
+        "some comment",
+        "  first line\n  second line\n\tthird line",
+        "first line\r\n    second line\r    third line",
+        "line\u2028  next line\u0085\t\tlast line",
+        " \t mixed\n\n  \n  lines  ",
+        "no indentation\nat all");
+  }
+
+  // region Equivalence to regular expressions
+
+  @ParameterizedTest
+  @MethodSource("commentContents")
+  void isBeginRegion_returnsSameResultAsRegex(String content) {
+    // Act
+    boolean result = CommentScanner.isBeginRegion(content);
+
+    // Assert
+    assertEquals(content.trim().matches("^region\\s+.*"), result);
+  }
+
+  @ParameterizedTest
+  @MethodSource("commentContents")
+  void isEndRegion_returnsSameResultAsRegex(String content) {
+    // Act
+    boolean result = CommentScanner.isEndRegion(content);
+
+    // Assert
+    assertEquals(content.trim().matches("^endregion"), result);
+  }
+
+  @ParameterizedTest
+  @MethodSource("commentContents")
+  void regionName_returnsSameResultAsRegex(String content) {
+    // Act
+    String result = CommentScanner.regionName(content);
+
+    // Assert
+    String expected =
+        content.trim().matches("^region\\s+.*")
+            ? content.trim().replaceFirst("^region\\s+", "")
+            : "";
+    assertEquals(expected, result);
+  }
+
+  @ParameterizedTest
+  @MethodSource("commentContents")
+  void stripIndentation_returnsSameResultAsRegex(String content) {
+    // Act
+    String result = CommentScanner.stripIndentation(content);
+
+    // Assert
+    assertEquals(content.replaceAll("(?m)^[ \\t]+", ""), result);
+  }
+
+  // endregion
+
+  // region regionName()
+
+  @Test
+  void regionName_withBeginRegion_returnsTrimmedName() {
+    // Act
+    String result = CommentScanner.regionName("  region \t Happy Cases \t");
+
+    // Assert
+    assertEquals("Happy Cases", result);
+  }
+
+  // endregion
+
+  // region isBeginRegion() / isEndRegion()
+
+  @Test
+  void isBeginRegion_withoutName_returnsFalse() {
+    // Act & Assert
+    assertFalse(CommentScanner.isBeginRegion(" region  "));
+    assertTrue(CommentScanner.isBeginRegion(" region A "));
+  }
+
+  @Test
+  void isEndRegion_withName_returnsFalse() {
+    // Act & Assert
+    assertFalse(CommentScanner.isEndRegion(" endregion A"));
+    assertTrue(CommentScanner.isEndRegion(" endregion "));
+  }
+
+  // endregion
+
+  // region stripIndentation()
+
+  @Test
+  void stripIndentation_withoutIndentation_returnsSameInstance() {
+    // Arrange
+    String content = "first line\nsecond line";
+
+    // Act
+    String result = CommentScanner.stripIndentation(content);
+
+    // Assert
+    assertSame(content, result);
+  }
+
+  // endregion
+}
@@ -0,0 +1,120 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JavaParserProviderTest {
+
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  // region parse()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "Empty.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void parse_withLeanProfile_returnsSameRangesAndComments(String fileName) throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(fileName);
+
+    // Act
+    CompilationUnit defaultUnit = JavaParserProvider.parse(path, ParserProfile.DEFAULT);
+    CompilationUnit leanUnit = JavaParserProvider.parse(path, ParserProfile.LEAN);
+
+    // Assert
+    assertEquals(
+        defaultUnit.findAll(BodyDeclaration.class).stream().map(Node::getRange).toList(),
+        leanUnit.findAll(BodyDeclaration.class).stream().map(Node::getRange).toList());
+    assertEquals(defaultUnit.getAllContainedComments(), leanUnit.getAllContainedComments());
+  }
+
+  @Test
+  void parse_releasesCompilationUnitOnceItIsNoLongerReferenced() throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve("SampleTest.java");
+    var compilationUnit = new WeakReference<>(JavaParserProvider.parse(path));
+
+    // Act
+    for (int i = 0; i < 10 && compilationUnit.get() != null; i++) {
+      System.gc();
+    }
+
+    // Assert
+    assertNull(compilationUnit.get());
+  }
+
+  // endregion
+
+  // region parser()
+
+  @Test
+  void parser_withSameThread_returnsSameInstance() {
+    // Act
+    JavaParser first = JavaParserProvider.parser(ParserProfile.LEAN);
+    JavaParser second = JavaParserProvider.parser(ParserProfile.LEAN);
+
+    // Assert
+    assertSame(first, second);
+  }
+
+  @Test
+  void parser_withDifferentProfiles_returnsDifferentInstances() {
+    // Act
+    JavaParser defaultParser = JavaParserProvider.parser(ParserProfile.DEFAULT);
+    JavaParser leanParser = JavaParserProvider.parser(ParserProfile.LEAN);
+
+    // Assert
+    assertNotSame(defaultParser, leanParser);
+  }
+
+  @Test
+  void parser_withDifferentThreads_returnsDifferentInstances() {
+    // Act
+    JavaParser parser = JavaParserProvider.parser(ParserProfile.DEFAULT);
+    JavaParser otherParser =
+        CompletableFuture.supplyAsync(() -> JavaParserProvider.parser(ParserProfile.DEFAULT))
+            .join();
+
+    // Assert
+    assertNotSame(parser, otherParser);
+  }
+
+  // endregion
+}
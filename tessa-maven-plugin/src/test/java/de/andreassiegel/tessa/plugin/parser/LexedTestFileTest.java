@@ -0,0 +1,381 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.andreassiegel.tessa.plugin.Index;
+import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
+import de.andreassiegel.tessa.plugin.model.TestCase;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import de.andreassiegel.tessa.plugin.model.TestStep;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LexedTestFileTest {
+
+  static final Path BASE_PATH = Paths.get("");
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  @TempDir Path tempDir;
+
+  // region toDocumentDataModel()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "NoCommentTest.java",
+        "QualifiedAnnotationTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void toDocumentDataModel_resultsInSameTestSetsAsParsedTestFile(String fileName)
+      throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(fileName);
+
+    // Act
+    var parsedTestSets = new ParsedTestFile(path, BASE_PATH).toDocumentDataModel();
+    var lexedTestSets = new LexedTestFile(path, BASE_PATH).toDocumentDataModel();
+
+    // Assert
+    assertFalse(parsedTestSets.isEmpty());
+    assertSameTestSets(parsedTestSets, lexedTestSets);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "Empty.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void readTestSets_resultsInSameTestSetsAsParsedTestFile(String fileName) throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(fileName);
+    var parsedTestFile = new ParsedTestFile(path, BASE_PATH);
+
+    // Act
+    var lexedTestSets = LexedTestFile.readTestSets(path, BASE_PATH);
+
+    // Assert
+    assertSameTestSets(
+        parsedTestFile.containsTests() ? parsedTestFile.toDocumentDataModel() : List.of(),
+        lexedTestSets);
+  }
+
+  @Test
+  void toDocumentDataModel_attributesCommentsLikeJavaParser() throws IOException {
+    // Arrange
+    var path =
+        write(
+            """
+            /** The license. */
+            package com.example;
+
+            /** The description. */
+            @DisplayName(value = "Sample" + " test")
+            class SampleTest {
+
+              /* Further information. */
+
+              /** Not the description of the test, which has a trailing comment. */
+              @Test void trailing() {} // trailing comment
+
+              /**
+               * The description of the test.
+               *
+               * @throws Exception never
+               */
+              @Test
+              @Status(value = "DRAFT")
+              void steps() throws Exception {
+                // the comment of the statement
+                var value = 1;
+
+                // step 1
+
+                value++; // trailing comment
+                assertEquals(
+                    2, value); // trailing comment of the argument
+                /* step 2 */
+              }
+            }
+            """);
+
+    // Act
+    var parsedTestSets = new ParsedTestFile(path, tempDir).toDocumentDataModel();
+    var lexedTestSets = new LexedTestFile(path, tempDir).toDocumentDataModel();
+
+    // Assert
+    assertSameTestSets(parsedTestSets, lexedTestSets);
+    var testSet = lexedTestSets.get(0);
+    assertEquals("Sample\" + \" test", testSet.getTitle());
+    assertEquals("The description.", testSet.getDescription());
+    assertEquals("Further information.", testSet.getFurtherInformation());
+    var testCases = testSet.getTestCases().get("Default");
+    assertEquals("N/A", testCases.get(0).getDescription());
+    assertEquals("The description of the test.", testCases.get(1).getDescription());
+    assertEquals("DRAFT", testCases.get(1).getStatus());
+    assertEquals(List.of("step 1", "step 2 "), steps(testSet, "Default", 1, "Default"));
+  }
+
+  @Test
+  void toDocumentDataModel_readsNestedRegions() throws IOException {
+    // Arrange
+    var path =
+        write(
+            """
+            class RegionTest {
+
+              // region Outer
+
+              @Test
+              void outer() {
+                // region Arrange
+
+                // arrange
+
+                // region Nested
+
+                // nested
+
+                // endregion
+                // endregion
+              }
+
+              // region Inner
+
+              @org.junit.jupiter.api.Test
+              void qualified() {}
+
+              @ParameterizedTest
+              void inner(String value) {
+                class Local {
+                  void method() {
+                    // not a step
+                  }
+                }
+
+                // step
+              }
+
+              // endregion
+              // endregion
+            }
+            """);
+
+    // Act
+    var parsedTestSets = new ParsedTestFile(path, tempDir).toDocumentDataModel();
+    var lexedTestSets = new LexedTestFile(path, tempDir).toDocumentDataModel();
+
+    // Assert
+    assertSameTestSets(parsedTestSets, lexedTestSets);
+    var testSet = lexedTestSets.get(0);
+    assertEquals(List.of("Outer", "Inner"), List.copyOf(testSet.getTestCases().keySet()));
+    assertEquals(List.of("arrange"), steps(testSet, "Outer", 0, "Arrange"));
+    assertEquals(List.of("nested"), steps(testSet, "Outer", 0, "Nested"));
+    assertEquals(
+        List.of("qualified", "inner"),
+        testSet.getTestCases().get("Inner").stream().map(TestCase::getMethodName).toList());
+    assertEquals(List.of("step"), steps(testSet, "Inner", 1, "Default"));
+  }
+
+  @Test
+  void toDocumentDataModel_ignoresInterfacesAndClassesWithoutTests() throws IOException {
+    // Arrange
+    var path =
+        write(
+            """
+            interface Fixture {
+              @Test
+              default void test() {}
+            }
+
+            record Value(String name) {}
+
+            class Helper {
+              String help() {
+                return "@Test";
+              }
+            }
+            """);
+
+    // Act
+    var testFile = new LexedTestFile(path, tempDir);
+
+    // Assert
+    assertFalse(testFile.containsTests());
+    assertEquals(1, testFile.toDocumentDataModel().size());
+  }
+
+  // endregion
+
+  // region readTestSets() with previous test cases
+
+  @Test
+  void readTestSets_withPreviousTestCases_reusesTestCasesOfUnchangedMethods() throws IOException {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          /** The unchanged test. */
+          @Test
+          void unchanged() {
+            // step
+          }
+
+          @Test
+          void changed() {
+            // step
+          }
+        }
+        """;
+    var previous = testCasesByFingerprint(LexedTestFile.readTestSets(write(source), tempDir));
+    var path =
+        write(
+            source
+                .replace("class SampleTest {\n", "class SampleTest {\n\n  String value;\n")
+                .replace("void changed() {\n    // step", "void changed() {\n    // new step"));
+
+    // Act
+    var testSets = LexedTestFile.readTestSets(path, tempDir, previous);
+
+    // Assert
+    assertSameTestSets(LexedTestFile.readTestSets(path, tempDir), testSets);
+    var testCases = testSets.get(0).getTestCases().get("Default");
+    var unchanged = previous.get(testCases.get(0).getSourceFingerprint());
+    assertSame(unchanged.getSections(), testCases.get(0).getSections());
+    assertEquals(unchanged.getBeginLine() + 2, testCases.get(0).getBeginLine());
+    assertEquals(unchanged.getEndLine() + 2, testCases.get(0).getEndLine());
+    assertFalse(previous.containsKey(testCases.get(1).getSourceFingerprint()));
+    assertEquals(List.of("new step"), steps(testSets.get(0), "Default", 1, "Default"));
+  }
+
+  @Test
+  void readTestSets_withChangedJavadoc_readsTestCaseAgain() throws IOException {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          /** The description. */
+          @Test
+          void test() {}
+        }
+        """;
+    var previous = testCasesByFingerprint(LexedTestFile.readTestSets(write(source), tempDir));
+    var path = write(source.replace("The description.", "The new description."));
+
+    // Act
+    var testSets = LexedTestFile.readTestSets(path, tempDir, previous);
+
+    // Assert
+    var testCase = testSets.get(0).getTestCases().get("Default").get(0);
+    assertFalse(previous.containsKey(testCase.getSourceFingerprint()));
+    assertEquals("The new description.", testCase.getDescription());
+  }
+
+  // endregion
+
+  // region unrecognized structure
+
+  @Test
+  void constructor_throwsExceptionForUnicodeEscapes() throws IOException {
+    // Arrange
+    var path =
+        write(
+            """
+            class SampleTest {
+              @Test
+              void test() {
+                // step \\u000a var value = 1;
+              }
+            }
+            """);
+
+    // Act & Assert
+    assertThrows(
+        SourceStructure.UnrecognizedStructureException.class,
+        () -> new LexedTestFile(path, tempDir));
+  }
+
+  @Test
+  void read_fallsBackToParserForUnrecognizedStructure() throws IOException {
+    // Arrange
+    var path = write("class SampleTest { @Test void test() { var text = \"\\u0022\"; } }");
+
+    // Act
+    var testFile = ExtractionEngine.LEXER.read(path, tempDir, ParserProfile.DEFAULT);
+
+    // Assert
+    assertInstanceOf(ParsedTestFile.class, testFile);
+  }
+
+  // endregion
+
+  Path write(String source) throws IOException {
+    var path = tempDir.resolve("SampleTest.java");
+    Files.writeString(path, source);
+    return path;
+  }
+
+  static Map<String, TestCase> testCasesByFingerprint(List<TestSet> testSets) {
+    return testSets.stream()
+        .flatMap(testSet -> testSet.getTestCases().values().stream())
+        .flatMap(List::stream)
+        .collect(Collectors.toMap(TestCase::getSourceFingerprint, testCase -> testCase));
+  }
+
+  static List<String> steps(TestSet testSet, String category, int testCase, String section) {
+    return testSet.getTestCases().get(category).get(testCase).getSections().get(section).stream()
+        .map(TestStep::getInfo)
+        .toList();
+  }
+
+  void assertSameTestSets(List<TestSet> expected, List<TestSet> actual) throws IOException {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(render(expected.get(i), "parsed"), render(actual.get(i), "lexed"));
+    }
+  }
+
+  String render(TestSet testSet, String directory) throws IOException {
+    var outputDirectory = tempDir.resolve(directory);
+    var generator = new AsciiDocGenerator(outputDirectory.toString(), new Index());
+    var indexItem = generator.generateDocument(testSet);
+    return Files.readString(outputDirectory.resolve("tests").resolve(indexItem.getFilename()));
+  }
+}
@@ -23,8 +23,6 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.javaparser.TokenRange;
 import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
 import de.andreassiegel.tessa.plugin.model.TestSet;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -46,52 +44,6 @@ class ParsedTestClassTest {
 
   static final Path BASE_PATH = Paths.get("");
 
-  // region streamAnnotatedMethods()
-
-  @ParameterizedTest
-  @CsvSource({
-    "BeforeAll, setup, 1",
-    "AfterAll, cleanup, 1",
-    "Test, testMethod, 6",
-    "ParameterizedTest, testMethodWithParameters, 1"
-  })
-  void streamAnnotatedMethods_withValidAnnotationName_returnsMethodStream(
-      String annotationName, String methodName, Integer expectedSize) throws IOException {
-    // Arrange
-    var path = Paths.get("src/test/resources/com/example/test/AnnotationTest.java");
-    ParsedTestFile parsedTestFile = new ParsedTestFile(path, BASE_PATH);
-    ParsedTestClass parsedClass = parsedTestFile.getTestClass("AnnotationTest").get();
-
-    // Act
-    List<String> methodNames =
-        parsedClass
-            .streamAnnotatedMethods(annotationName)
-            .map(NodeWithSimpleName::getNameAsString)
-            .toList();
-
-    // Assert
-    assertNotNull(methodNames);
-    assertEquals(expectedSize, methodNames.size());
-    assertTrue(methodNames.contains(methodName));
-  }
-
-  @Test
-  void streamAnnotatedMethods_withAbsentAnnotation_returnsEmptyStream() throws IOException {
-    // Arrange
-    var path = Paths.get("src/test/resources/com/example/test/AnnotationTest.java");
-    ParsedTestFile parsedTestFile = new ParsedTestFile(path, BASE_PATH);
-    ParsedTestClass parsedClass = parsedTestFile.getTestClass("AnnotationTest").get();
-
-    // Act
-    List<MethodDeclaration> methods = parsedClass.streamAnnotatedMethods("Order").toList();
-
-    // Assert
-    assertNotNull(methods);
-    assertTrue(methods.isEmpty());
-  }
-
-  // endregion
-
   // region initializeTestCategories()
 
   @ParameterizedTest
@@ -24,6 +24,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.codehaus.plexus.util.cli.Arg;
@@ -238,4 +239,39 @@ class ParsedTestFileTest {
   }
 
   // endregion
+
+  // region readTestSets()
+
+  @ParameterizedTest
+  @ValueSource(strings = {"Empty.java", "NoCommentTest.java"})
+  void readTestSets_withoutTests_returnsEmptyList(String fileName) throws IOException {
+    // Arrange
+    Path path = Paths.get("src/test/resources/com/example/test").resolve(fileName);
+
+    // Act
+    var result = ParsedTestFile.readTestSets(path, BASE_PATH, ParserProfile.DEFAULT);
+
+    // Assert
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  void readTestSets_withTestFile_returnsSameTestSetsAsToDocumentDataModel() throws IOException {
+    // Arrange
+    Path path = Paths.get("src/test/resources/com/example/test/SampleTest.java");
+    var expected = new ParsedTestFile(path, BASE_PATH).toDocumentDataModel();
+
+    // Act
+    var result = ParsedTestFile.readTestSets(path, BASE_PATH, ParserProfile.DEFAULT);
+
+    // Assert
+    assertEquals(
+        expected.stream().map(TestSet::getClassName).toList(),
+        result.stream().map(TestSet::getClassName).toList());
+    assertEquals(
+        expected.stream().map(TestSet::getTestCases).map(Map::keySet).toList(),
+        result.stream().map(TestSet::getTestCases).map(Map::keySet).toList());
+  }
+
+  // endregion
 }
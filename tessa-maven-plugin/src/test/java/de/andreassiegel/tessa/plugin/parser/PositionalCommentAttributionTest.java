@@ -0,0 +1,142 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.comments.Comment;
+import de.andreassiegel.tessa.plugin.Index;
+import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PositionalCommentAttributionTest {
+
+  static final Path BASE_PATH = Paths.get("");
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  @TempDir Path tempDir;
+
+  // region attribute()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "Empty.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void attribute_attributesCommentsLikeJavaParser(String fileName) throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(fileName);
+
+    // Act
+    CompilationUnit defaultUnit = JavaParserProvider.parse(path, ParserProfile.DEFAULT);
+    CompilationUnit positionalUnit = JavaParserProvider.parse(path, ParserProfile.POSITIONAL);
+
+    // Assert
+    assertEquals(readComments(defaultUnit), readComments(positionalUnit));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void attribute_resultsInSameTestSets(String fileName) throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(fileName);
+
+    // Act
+    var defaultTestSets =
+        new ParsedTestFile(path, BASE_PATH, ParserProfile.DEFAULT).toDocumentDataModel();
+    var positionalTestSets =
+        new ParsedTestFile(path, BASE_PATH, ParserProfile.POSITIONAL).toDocumentDataModel();
+
+    // Assert
+    assertFalse(defaultTestSets.isEmpty());
+    assertEquals(defaultTestSets.size(), positionalTestSets.size());
+    for (int i = 0; i < defaultTestSets.size(); i++) {
+      assertEquals(
+          render(defaultTestSets.get(i), "default"),
+          render(positionalTestSets.get(i), "positional"));
+    }
+  }
+
+  // endregion
+
+  /**
+   * Reads the comments Tessa relies on, i.e., the comments of classes and methods, and the orphan
+   * comments of classes and method bodies.
+   */
+  static List<String> readComments(CompilationUnit compilationUnit) {
+    List<String> comments = new ArrayList<>();
+    for (var node : compilationUnit.getChildNodes()) {
+      if (node instanceof ClassOrInterfaceDeclaration classDeclaration) {
+        comments.add(describe(classDeclaration.getComment()));
+        comments.add(describe(classDeclaration.getChildNodes()));
+        for (var method : classDeclaration.getMethods()) {
+          comments.add(describe(method.getComment()));
+          method
+              .getBody()
+              .ifPresent(
+                  body -> comments.add(method.getNameAsString() + describe(body.getChildNodes())));
+        }
+      }
+    }
+    return comments;
+  }
+
+  static String describe(Optional<Comment> comment) {
+    return comment.map(c -> c.getRange() + c.getContent()).orElse("none");
+  }
+
+  static String describe(List<Node> nodes) {
+    return nodes.stream()
+        .filter(Comment.class::isInstance)
+        .map(node -> describe(Optional.of((Comment) node)))
+        .toList()
+        .toString();
+  }
+
+  String render(TestSet testSet, String directory) throws IOException {
+    var outputDirectory = tempDir.resolve(directory);
+    var generator = new AsciiDocGenerator(outputDirectory.toString(), new Index());
+    var indexItem = generator.generateDocument(testSet);
+    return Files.readString(outputDirectory.resolve("tests").resolve(indexItem.getFilename()));
+  }
+}
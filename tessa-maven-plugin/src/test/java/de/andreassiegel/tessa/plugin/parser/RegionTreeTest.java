@@ -0,0 +1,149 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RegionTreeTest {
+
+  static final Path REGION_TEST = Paths.get("src/test/resources/com/example/test/RegionTest.java");
+
+  // region build()
+
+  @Test
+  void build_withNestedRegions_returnsRegionsInOrderOfTheirBegin() throws IOException {
+    // Arrange
+    var nodes = classChildNodes("NestedRegionTest");
+
+    // Act
+    var regions = RegionTree.build(nodes);
+
+    // Assert
+    assertEquals(
+        List.of("First Region", "Nested Region 1", "Nested Region 2", "Second Region"),
+        regions.stream().map(RegionTree.Region::getName).toList());
+    assertEquals(List.of(0, 1, 1, 0), regions.stream().map(RegionTree.Region::getLevel).toList());
+    assertNull(regions.get(0).getParent());
+    assertSame(regions.get(0), regions.get(1).getParent());
+    assertSame(regions.get(0), regions.get(2).getParent());
+    assertNull(regions.get(3).getParent());
+  }
+
+  @Test
+  void build_withNestedRegions_assignsNodesToInnermostRegion() throws IOException {
+    // Arrange
+    var nodes = classChildNodes("NestedRegionTest");
+
+    // Act
+    var regions = RegionTree.build(nodes);
+
+    // Assert
+    assertTrue(regions.get(0).getOwnNodes().isEmpty());
+    assertEquals(List.of("firstRegionMethod1"), methodNames(regions.get(1).getOwnNodes()));
+    assertEquals(List.of("firstRegionMethod2"), methodNames(regions.get(2).getOwnNodes()));
+    assertEquals(List.of("secondRegionMethod"), methodNames(regions.get(3).getOwnNodes()));
+  }
+
+  @Test
+  void build_withNestedRegions_keepsAllNodesBetweenRegionComments() throws IOException {
+    // Arrange
+    var nodes = classChildNodes("NestedRegionTest");
+
+    // Act
+    var regions = RegionTree.build(nodes);
+
+    // Assert
+    var outerRegion = regions.get(0);
+    assertEquals(
+        NodeUtil.childrenInRegion(nodes, outerRegion.getBegin(), outerRegion.getEnd()),
+        outerRegion.getChildNodes());
+    assertEquals(
+        List.of("firstRegionMethod1", "firstRegionMethod2"),
+        methodNames(outerRegion.getChildNodes()));
+  }
+
+  @Test
+  void build_withoutRegions_returnsEmptyList() throws IOException {
+    // Arrange
+    var nodes = parsedChildNodes("class A {\n  void a() {}\n}");
+
+    // Act
+    var regions = RegionTree.build(nodes);
+
+    // Assert
+    assertTrue(regions.isEmpty());
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "class A {\n  // region A\n\n  void a() {}\n}",
+        "class A {\n  void a() {}\n\n  // endregion\n}",
+        "class A {\n  // region A\n\n  // region B\n\n  void a() {}\n\n  // endregion\n}"
+      })
+  void build_withUnbalancedRegions_throwsRuntimeException(String source) {
+    // Arrange
+    var nodes = parsedChildNodes(source);
+
+    // Act & Assert
+    assertThrows(RuntimeException.class, () -> RegionTree.build(nodes));
+  }
+
+  // endregion
+
+  static List<Node> classChildNodes(String className) throws IOException {
+    var classDeclaration =
+        JavaParserProvider.parse(REGION_TEST).findAll(ClassOrInterfaceDeclaration.class).stream()
+            .filter(c -> c.getNameAsString().equals(className))
+            .findFirst()
+            .get();
+    return RegionTree.orderedNodes(classDeclaration.getChildNodes());
+  }
+
+  static List<Node> parsedChildNodes(String source) {
+    var classDeclaration =
+        JavaParserProvider.parser(ParserProfile.DEFAULT)
+            .parse(source)
+            .getResult()
+            .get()
+            .getClassByName("A")
+            .get();
+    return RegionTree.orderedNodes(classDeclaration.getChildNodes());
+  }
+
+  static List<String> methodNames(List<Node> nodes) {
+    return nodes.stream()
+        .filter(MethodDeclaration.class::isInstance)
+        .map(node -> ((MethodDeclaration) node).getNameAsString())
+        .toList();
+  }
+}
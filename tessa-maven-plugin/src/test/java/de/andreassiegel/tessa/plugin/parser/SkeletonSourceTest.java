@@ -0,0 +1,279 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.andreassiegel.tessa.plugin.Index;
+import de.andreassiegel.tessa.plugin.generator.AsciiDocGenerator;
+import de.andreassiegel.tessa.plugin.model.TestSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SkeletonSourceTest {
+
+  static final Path BASE_PATH = Paths.get("");
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  @TempDir Path tempDir;
+
+  // region blankNonTestMethodBodies()
+
+  @Test
+  void blankNonTestMethodBodies_blanksBodiesOfNonTestMethods() {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          /** Sets up the test. */
+          @BeforeEach
+          void setUp() throws IOException {
+            helper("}");
+          }
+
+          private String helper(String value) {
+            return value; // a comment
+          }
+        }
+        """;
+
+    // Act
+    var result = blank(source);
+
+    // Assert
+    assertEquals(
+        source
+            .replace("    helper(\"}\");\n  }", "/*" + " ".repeat(14) + "\n*/}")
+            .replace("    return value; // a comment\n  }", "/*" + " ".repeat(28) + "\n*/}"),
+        result);
+  }
+
+  @Test
+  void blankNonTestMethodBodies_keepsBodiesOfTestMethods() {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          @Test
+          void simpleName() {
+            // Act
+          }
+
+          @org.junit.jupiter.api.Test
+          void qualifiedName() {
+            // Act
+          }
+
+          @ParameterizedTest(name = "{0}")
+          @ValueSource(strings = {"a", "b"})
+          void parameterized(String value) throws Exception {
+            // Act
+          }
+        }
+        """;
+
+    // Act
+    var result = blank(source);
+
+    // Assert
+    assertEquals(source, result);
+  }
+
+  @Test
+  void blankNonTestMethodBodies_keepsOtherBlocks() {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          static {
+            init();
+          }
+
+          private final Runnable runnable = () -> {
+            run();
+          };
+
+          private final int[] values = {1, 2};
+
+          enum Kind {
+            FIRST,
+            SECOND;
+          }
+
+          record Pair(int left, int right) {
+            Pair {
+              check();
+            }
+          }
+
+          @interface Marker {
+            String value() default "{";
+          }
+        }
+        """;
+
+    // Act
+    var result = blank(source);
+
+    // Assert
+    assertEquals(source, result);
+  }
+
+  @Test
+  void blankNonTestMethodBodies_blanksMethodsOfNestedClasses() {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          static class Helper {
+            void help() {
+              help();
+            }
+          }
+
+          @Test
+          void test() {
+            new Object() {
+              void anonymous() {
+                // Act
+              }
+            };
+          }
+        }
+        """;
+
+    // Act
+    var result = blank(source);
+
+    // Assert
+    assertEquals(source.replace("      help();\n    }", "/*" + " ".repeat(11) + "\n  */}"), result);
+  }
+
+  @Test
+  void blankNonTestMethodBodies_ignoresBracesInCommentsAndLiterals() {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          // void commented() {
+          /* } */
+          void helper() {
+            var text = \"""
+                }
+                \""";
+            var character = '}';
+            // }
+          }
+
+          @Test
+          void test() {}
+        }
+        """;
+
+    // Act
+    var result = blank(source);
+
+    // Assert
+    assertTrue(result.contains("  void helper() {\n"));
+    assertFalse(result.contains("var"));
+    assertTrue(result.contains("  void test() {}"));
+    assertEquals(source.length(), result.length());
+    assertEquals(source.lines().count(), result.lines().count());
+  }
+
+  @Test
+  void blankNonTestMethodBodies_keepsBodiesThatCannotBeBlanked() {
+    // Arrange
+    var source =
+        """
+        class SampleTest {
+
+          void sameLine() {
+            done(); } // endregion
+
+          void unicodeEscape() {
+            // \\u000A
+          }
+        }
+        """;
+
+    // Act
+    var result = blank(source);
+
+    // Assert
+    assertEquals(source, result);
+  }
+
+  // endregion
+
+  // region preProcess()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void preProcess_resultsInSameTestSets(String fileName) throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(fileName);
+
+    // Act
+    var defaultTestSets =
+        new ParsedTestFile(path, BASE_PATH, ParserProfile.DEFAULT).toDocumentDataModel();
+    var skeletonTestSets =
+        new ParsedTestFile(path, BASE_PATH, ParserProfile.SKELETON).toDocumentDataModel();
+
+    // Assert
+    assertFalse(defaultTestSets.isEmpty());
+    assertEquals(defaultTestSets.size(), skeletonTestSets.size());
+    for (int i = 0; i < defaultTestSets.size(); i++) {
+      assertEquals(
+          render(defaultTestSets.get(i), "default"), render(skeletonTestSets.get(i), "skeleton"));
+    }
+  }
+
+  // endregion
+
+  static String blank(String source) {
+    var chars = source.toCharArray();
+    SkeletonSource.blankNonTestMethodBodies(chars);
+    return new String(chars);
+  }
+
+  String render(TestSet testSet, String directory) throws IOException {
+    var outputDirectory = tempDir.resolve(directory);
+    var generator = new AsciiDocGenerator(outputDirectory.toString(), new Index());
+    var indexItem = generator.generateDocument(testSet);
+    return Files.readString(outputDirectory.resolve("tests").resolve(indexItem.getFilename()));
+  }
+}
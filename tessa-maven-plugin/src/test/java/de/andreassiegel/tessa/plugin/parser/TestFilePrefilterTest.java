@@ -0,0 +1,84 @@
+package de.andreassiegel.tessa.plugin.parser;
+
+/*-
+ * Copyright © 2023 Andreas Siegel (mail@andreassiegel.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TestFilePrefilterTest {
+
+  static final Path TEST_RESOURCES = Paths.get("src/test/resources/com/example/test");
+
+  // region mayContainTests()
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "AnnotationTest.java",
+        "CommentTest.java",
+        "Empty.java",
+        "NoCommentTest.java",
+        "RegionTest.java",
+        "SampleTest.java"
+      })
+  void mayContainTests_withTestFile_matchesParsedTestFile(String filename) throws IOException {
+    // Arrange
+    var path = TEST_RESOURCES.resolve(filename);
+    var containsTests = new ParsedTestFile(path, Paths.get("src/test")).containsTests();
+
+    // Act
+    var mayContainTests = TestFilePrefilter.mayContainTests(path);
+
+    // Assert
+    assertEquals(containsTests, mayContainTests);
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        "@Test void test() {}|true",
+        "@ParameterizedTest void test() {}|true",
+        "@org.junit.jupiter.api.Test void test() {}|true",
+        "@ org.junit.jupiter . api.Test void test() {}|true",
+        "@/* comment */Test void test() {}|true",
+        "@Test|true",
+        "@TestFactory Stream<DynamicTest> test() {}|false",
+        "@DisplayName(\"Test\") void test() {}|false",
+        "/** See {@link Test}. */ void test() {}|false",
+        "class SampleTest {}|false",
+        "@|false"
+      })
+  void mayContainTests_withSource_detectsTestAnnotations(String source, boolean expected) {
+    // Act
+    var mayContainTests =
+        TestFilePrefilter.mayContainTests(ByteBuffer.wrap(source.getBytes(UTF_8)));
+
+    // Assert
+    assertEquals(expected, mayContainTests);
+  }
+
+  // endregion
+}
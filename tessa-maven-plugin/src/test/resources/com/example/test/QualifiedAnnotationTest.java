@@ -0,0 +1,36 @@
+package com.example.test;
+
+@org.junit.jupiter.api.DisplayName("Qualified annotations")
+@com.example.Status("Draft")
+class QualifiedAnnotationTest {
+
+  /**
+   * This is the setup comment.
+   */
+  @org.junit.jupiter.api.BeforeAll
+  static void setup() {}
+
+  /**
+   * This is a test with a qualified annotation.
+   */
+  @org.junit.jupiter.api.Test
+  @org.junit.jupiter.api.DisplayName("Qualified test")
+  @org.junit.jupiter.api.Disabled("Not implemented yet")
+  void qualifiedTest() {
+    // region Arrange
+
+    // arrange
+
+    // endregion
+  }
+
+  /**
+   * This is a parameterized test with a qualified annotation.
+   */
+  @org.junit.jupiter.params.ParameterizedTest
+  @org.junit.jupiter.params.provider.ValueSource(strings = {"a", "b"})
+  @com.example.Status("Done")
+  void qualifiedParameterizedTest(String value) {
+    // step
+  }
+}